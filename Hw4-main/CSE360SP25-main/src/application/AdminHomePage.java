@@ -37,14 +37,23 @@ public class AdminHomePage {
         messagingBtn.setOnAction(e -> {
             new MessagingPage(StartCSE360.getDatabaseHelper(), user).show(primaryStage);
         });
+        // Unread badge: one lookup in the unread counter table
+        AsyncData.Scope scope = AsyncData.get().scope();
+        scope.load(() -> StartCSE360.getDatabaseHelper().getUnreadCount(user.getUserName()), unread -> {
+            if (unread > 0) {
+                messagingBtn.setText("Messaging Center (" + unread + " unread)");
+            }
+        });
         
         Button logoutBtn = new Button("Logout");
         logoutBtn.setOnAction(e -> {
+            StartCSE360.getSessionManager().end(user.getUserName());
             new SetupLoginSelectionPage(StartCSE360.getDatabaseHelper()).show(primaryStage);
         });
 
         layout.getChildren().addAll(adminLabel, manageQuestionsBtn, userMgmtBtn, trustedReviewersBtn, messagingBtn, logoutBtn);
         Scene adminScene = new Scene(layout, 800, 400);
+        scope.bindTo(primaryStage, adminScene);
         primaryStage.setScene(adminScene);
         primaryStage.setTitle("Admin HomePage");
     }
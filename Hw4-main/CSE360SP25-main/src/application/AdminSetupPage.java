@@ -5,8 +5,6 @@ import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
-import java.sql.SQLException;
-
 import databasePart1.*;
 
 /**
@@ -33,28 +31,36 @@ public class AdminSetupPage {
 
         Button setupButton = new Button("Setup");
         
+        AsyncData.Scope scope = AsyncData.get().scope();
         setupButton.setOnAction(a -> {
         	// Retrieve user input
             String userName = userNameField.getText();
             String password = passwordField.getText();
-            try {
-            	// Create a new User object with admin role and register in the database
-            	User user=new User(userName, password, "admin");
+            // Create a new User object with admin role and register in the database.
+            // Hashing the password takes a moment, so it runs off the FX thread.
+            User user=new User(userName, password, "admin");
+            setupButton.setDisable(true);
+            scope.write(() -> {
                 databaseHelper.register(user);
+                return user;
+            }, registered -> {
                 System.out.println("Administrator setup completed.");
                 
                 // Navigate to the Welcome Login Page
-                new WelcomeLoginPage(databaseHelper).show(primaryStage,user);
-            } catch (SQLException e) {
+                new WelcomeLoginPage(databaseHelper).show(primaryStage,StartCSE360.getSessionManager().start(registered));
+            }, e -> {
+                setupButton.setDisable(false);
                 System.err.println("Database error: " + e.getMessage());
                 e.printStackTrace();
-            }
+            });
         });
 
         VBox layout = new VBox(10, userNameField, passwordField, setupButton);
         layout.setStyle("-fx-padding: 20; -fx-alignment: center;");
 
-        primaryStage.setScene(new Scene(layout, 800, 400));
+        Scene scene = new Scene(layout, 800, 400);
+        scope.bindTo(primaryStage, scene);
+        primaryStage.setScene(scene);
         primaryStage.setTitle("Administrator Setup");
         primaryStage.show();
     }
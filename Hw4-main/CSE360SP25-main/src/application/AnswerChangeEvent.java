@@ -0,0 +1,75 @@
+package application;
+
+import java.util.List;
+
+/**
+ * Describes one change made through the Answers manager: an answer was inserted,
+ * updated (edited, accepted or voted on) or deleted.
+ *
+ * Pages that show answers apply these to their list instead of reloading it, so only
+ * the changed row is redrawn.
+ */
+public final class AnswerChangeEvent {
+
+    public enum Type { INSERTED, UPDATED, DELETED }
+
+    private final Type type;
+    private final int questionID;
+    private final int answerID;
+    private final Answer answer; // the answer as it is now; null for DELETED
+
+    public AnswerChangeEvent(Type type, int questionID, int answerID, Answer answer) {
+        this.type = type;
+        this.questionID = questionID;
+        this.answerID = answerID;
+        this.answer = answer;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getQuestionID() {
+        return questionID;
+    }
+
+    public int getAnswerID() {
+        return answerID;
+    }
+
+    public Answer getAnswer() {
+        return answer;
+    }
+
+    /**
+     * Patches a list of one question's answers, ordered by answer ID as DatabaseHelper
+     * returns them. Only the affected element is set, added or removed.
+     */
+    public void applyTo(List<Answer> answers) {
+        int index = 0;
+        while (index < answers.size() && answers.get(index).getAnswerID() < answerID) {
+            index++;
+        }
+        boolean present = index < answers.size() && answers.get(index).getAnswerID() == answerID;
+        switch (type) {
+            case INSERTED:
+            case UPDATED:
+                if (present) {
+                    answers.set(index, answer);
+                } else {
+                    answers.add(index, answer);
+                }
+                break;
+            case DELETED:
+                if (present) {
+                    answers.remove(index);
+                }
+                break;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return type + " answer " + answerID + " of question " + questionID;
+    }
+}
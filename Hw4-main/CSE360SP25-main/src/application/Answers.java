@@ -3,23 +3,45 @@ package application;
 import databasePart1.DatabaseHelper;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * Database-backed manager for Answer objects,
  * delegating to DatabaseHelper for all CRUD.
+ *
+ * Every successful change is reported to the registered listeners as an
+ * AnswerChangeEvent, on the thread that made the change.
  */
 public class Answers {
 
     private DatabaseHelper dbHelper;
+    private final List<Consumer<AnswerChangeEvent>> listeners = new CopyOnWriteArrayList<>();
 
     public Answers(DatabaseHelper dbHelper) {
         this.dbHelper = dbHelper;
     }
 
+    public void addChangeListener(Consumer<AnswerChangeEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(Consumer<AnswerChangeEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    private void fire(AnswerChangeEvent.Type type, int questionID, int answerID, Answer answer) {
+        AnswerChangeEvent event = new AnswerChangeEvent(type, questionID, answerID, answer);
+        for (Consumer<AnswerChangeEvent> listener : listeners) {
+            listener.accept(event);
+        }
+    }
+
     // Create
     public void addAnswer(Answer answer) {
         try {
             dbHelper.createAnswer(answer);
+            fire(AnswerChangeEvent.Type.INSERTED, answer.getQuestionID(), answer.getAnswerID(), answer);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -42,6 +64,25 @@ public class Answers {
     public boolean updateAnswer(Answer answer) {
         try {
             dbHelper.updateAnswer(answer);
+            fire(AnswerChangeEvent.Type.UPDATED, answer.getQuestionID(), answer.getAnswerID(), answer);
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Vote: +1 for an upvote, -1 for a downvote. Returns false if the user already voted that way.
+    public boolean vote(Answer answer, String userName, int vote) {
+        try {
+            if (!dbHelper.castVote(answer.getAnswerID(), userName, vote)) {
+                return false;
+            }
+            // Re-read just this answer (normally a cache hit) for its new counts
+            Answer voted = dbHelper.getAnswerByID(answer.getAnswerID());
+            if (voted != null) {
+                fire(AnswerChangeEvent.Type.UPDATED, voted.getQuestionID(), voted.getAnswerID(), voted);
+            }
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -52,7 +93,11 @@ public class Answers {
     // Delete
     public boolean deleteAnswer(int answerID) {
         try {
+            Answer deleted = dbHelper.getAnswerByID(answerID);
             dbHelper.deleteAnswer(answerID);
+            if (deleted != null) {
+                fire(AnswerChangeEvent.Type.DELETED, deleted.getQuestionID(), answerID, null);
+            }
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -0,0 +1,249 @@
+package application;
+
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Runs database calls off the JavaFX Application Thread and hands the results back to it,
+ * so a page never freezes while JDBC is working.
+ *
+ * Pages create a Scope for each show(), start their loads through it and bind it to the
+ * stage. When the user navigates to another scene the scope is closed: loads that have not
+ * started are cancelled and results that arrive later are dropped instead of being applied
+ * to a page that is no longer visible.
+ */
+public class AsyncData {
+
+    private static final AsyncData INSTANCE = new AsyncData(createExecutor(), Platform::runLater);
+
+    /** The shared instance the pages use; callbacks run on the JavaFX Application Thread. */
+    public static AsyncData get() {
+        return INSTANCE;
+    }
+
+    private final ExecutorService executor;
+    private final Executor fxExecutor;
+
+    // fxExecutor is where callbacks run: Platform::runLater in the app, Runnable::run in tests.
+    public AsyncData(ExecutorService executor, Executor fxExecutor) {
+        this.executor = executor;
+        this.fxExecutor = fxExecutor;
+    }
+
+    /**
+     * One virtual thread per call; the connection pool already bounds how many of them
+     * reach the database at once.
+     */
+    static ExecutorService createExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Runs call on a background thread. Cancelling the returned future stops the call if it has
+     * not started yet. A running call is never interrupted: interrupting H2 during file I/O
+     * closes the database file.
+     */
+    public <T> CompletableFuture<T> supply(Callable<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                result.complete(call.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    public Scope scope() {
+        return new Scope();
+    }
+
+    /** The loads started by one page; closing it cancels them all. */
+    public class Scope {
+
+        private final Set<CompletableFuture<?>> pending = ConcurrentHashMap.newKeySet();
+        private final List<Runnable> closeActions = new CopyOnWriteArrayList<>();
+        private volatile boolean closed = false;
+
+        /**
+         * Runs call in the background, then onLoaded with its result on the JavaFX thread,
+         * unless the scope has been closed by then. Failures are printed.
+         */
+        public <T> CompletableFuture<T> load(Callable<T> call, Consumer<T> onLoaded) {
+            return load(call, onLoaded, Throwable::printStackTrace);
+        }
+
+        public <T> CompletableFuture<T> load(Callable<T> call, Consumer<T> onLoaded, Consumer<Throwable> onError) {
+            if (closed) {
+                CompletableFuture<T> cancelled = new CompletableFuture<>();
+                cancelled.cancel(false);
+                return cancelled;
+            }
+            CompletableFuture<T> future = supply(call);
+            pending.add(future);
+            deliver(future, onLoaded, onError);
+            return future;
+        }
+
+        /**
+         * Like load, but for changes the user asked for: closing the scope does not cancel the
+         * call, so leaving the page right after clicking Save still saves. Only onDone is dropped.
+         */
+        public <T> CompletableFuture<T> write(Callable<T> call, Consumer<T> onDone) {
+            return write(call, onDone, Throwable::printStackTrace);
+        }
+
+        public <T> CompletableFuture<T> write(Callable<T> call) {
+            return write(call, result -> { });
+        }
+
+        public <T> CompletableFuture<T> write(Callable<T> call, Consumer<T> onDone, Consumer<Throwable> onError) {
+            CompletableFuture<T> future = supply(call);
+            deliver(future, onDone, onError);
+            return future;
+        }
+
+        private <T> void deliver(CompletableFuture<T> future, Consumer<T> onLoaded, Consumer<Throwable> onError) {
+            future.whenComplete((value, error) -> {
+                pending.remove(future);
+                if (closed || future.isCancelled()) {
+                    return;
+                }
+                fxExecutor.execute(() -> {
+                    if (closed) {
+                        return;
+                    }
+                    if (error == null) {
+                        onLoaded.accept(value);
+                    } else {
+                        onError.accept(error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error);
+                    }
+                });
+            });
+        }
+
+        /**
+         * Loads the items of a list in the background. While loading, the list shows a progress
+         * placeholder (visible when it is empty); afterwards its items are replaced.
+         */
+        public <T> CompletableFuture<List<T>> loadInto(ListView<T> listView, Callable<List<T>> call) {
+            return loadInto(listView, call, items -> { });
+        }
+
+        // afterLoad runs on the JavaFX thread once the items have been set.
+        public <T> CompletableFuture<List<T>> loadInto(ListView<T> listView, Callable<List<T>> call,
+                                                      Consumer<List<T>> afterLoad) {
+            listView.setPlaceholder(loadingPlaceholder());
+            return load(call,
+                    items -> {
+                        listView.getItems().setAll(items);
+                        listView.setPlaceholder(new Label("Nothing to show"));
+                        afterLoad.accept(items);
+                    },
+                    error -> {
+                        error.printStackTrace();
+                        listView.setPlaceholder(new Label("Could not load: " + error.getMessage()));
+                    });
+        }
+
+        /**
+         * Runs action on the JavaFX thread unless the scope is closed by then.
+         * For events pushed from background threads, such as Answers change events.
+         */
+        public void post(Runnable action) {
+            if (closed) {
+                return;
+            }
+            fxExecutor.execute(() -> {
+                if (!closed) {
+                    action.run();
+                }
+            });
+        }
+
+        // Runs action when the scope is closed, e.g. to remove a listener the page registered.
+        public void onClose(Runnable action) {
+            closeActions.add(action);
+        }
+
+        /**
+         * Closes this scope once the stage shows a different scene than the given one,
+         * i.e. when the user navigates away from the page.
+         */
+        public void bindTo(Stage stage, Scene scene) {
+            ChangeListener<Scene> listener = new ChangeListener<Scene>() {
+                @Override
+                public void changed(javafx.beans.value.ObservableValue<? extends Scene> observable,
+                                    Scene oldScene, Scene newScene) {
+                    if (newScene != scene) {
+                        stage.sceneProperty().removeListener(this);
+                        close();
+                    }
+                }
+            };
+            stage.sceneProperty().addListener(listener);
+        }
+
+        // Cancels the loads that have not finished and ignores any result still to come.
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (CompletableFuture<?> future : pending) {
+                future.cancel(false);
+            }
+            pending.clear();
+            for (Runnable action : closeActions) {
+                action.run();
+            }
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        public int getPendingCount() {
+            return pending.size();
+        }
+    }
+
+    // A spinner with a label, shown by empty lists while their items load.
+    public static VBox loadingPlaceholder() {
+        ProgressIndicator spinner = new ProgressIndicator();
+        spinner.setMaxSize(40, 40);
+        VBox box = new VBox(6, spinner, new Label("Loading..."));
+        box.setAlignment(Pos.CENTER);
+        return box;
+    }
+}
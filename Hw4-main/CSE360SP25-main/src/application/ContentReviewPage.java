@@ -38,11 +38,11 @@ public class ContentReviewPage {
 
         Button backBtn = new Button("Back");
         backBtn.setOnAction(e -> {
-            if (currentUser.getRoles().contains("admin"))
+            if (currentUser.hasRole(Role.ADMIN))
                 new AdminHomePage().show(primaryStage, currentUser);
-            else if (currentUser.getRoles().contains("instructor"))
+            else if (currentUser.hasRole(Role.INSTRUCTOR))
                 new InstructorHomePage(dbHelper, currentUser).show(primaryStage);
-            else if (currentUser.getRoles().contains("staff"))
+            else if (currentUser.hasRole(Role.STAFF))
                 new StaffHomePage(dbHelper, currentUser).show(primaryStage);
         });
 
@@ -0,0 +1,50 @@
+package application;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of a user's inbox: everything exchanged with one other user,
+ * summarized without loading the messages themselves.
+ */
+public class Conversation {
+
+    private final String otherUser;
+    private final LocalDateTime lastMessageTime;
+    private final int messageCount;
+    private final int unreadCount;
+
+    public Conversation(String otherUser, LocalDateTime lastMessageTime, int messageCount, int unreadCount) {
+        this.otherUser = otherUser;
+        this.lastMessageTime = lastMessageTime;
+        this.messageCount = messageCount;
+        this.unreadCount = unreadCount;
+    }
+
+    public String getOtherUser() {
+        return otherUser;
+    }
+
+    public LocalDateTime getLastMessageTime() {
+        return lastMessageTime;
+    }
+
+    public int getMessageCount() {
+        return messageCount;
+    }
+
+    // Messages from the other user that have not been read yet.
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+
+    // The same conversation after some of its messages were marked read.
+    public Conversation withUnreadCount(int unreadCount) {
+        return new Conversation(otherUser, lastMessageTime, messageCount, unreadCount);
+    }
+
+    @Override
+    public String toString() {
+        String unread = unreadCount > 0 ? " (" + unreadCount + " new)" : "";
+        return otherUser + unread + " - " + messageCount + " messages, last " + lastMessageTime;
+    }
+}
@@ -30,6 +30,11 @@ public class InstructorHomePage {
             new ScorecardParametersPage(dbHelper, currentUser).show(primaryStage);
         });
 
+        Button scoresBtn = new Button("Reviewer Scorecards");
+        scoresBtn.setOnAction(e -> {
+            new ReviewerScorecardPage(dbHelper, currentUser).show(primaryStage);
+        });
+
         Button requestAdminBtn = new Button("Request Admin Action");
         requestAdminBtn.setOnAction(e -> {
             new RequestsPage(dbHelper, currentUser).show(primaryStage);
@@ -37,10 +42,11 @@ public class InstructorHomePage {
 
         Button logoutBtn = new Button("Logout");
         logoutBtn.setOnAction(e -> {
+            StartCSE360.getSessionManager().end(currentUser.getUserName());
             new SetupLoginSelectionPage(dbHelper).show(primaryStage);
         });
 
-        layout.getChildren().addAll(reviewContentBtn, scorecardBtn, requestAdminBtn, logoutBtn);
+        layout.getChildren().addAll(reviewContentBtn, scorecardBtn, scoresBtn, requestAdminBtn, logoutBtn);
         Scene scene = new Scene(layout, 600, 400);
         primaryStage.setScene(scene);
         primaryStage.setTitle("Instructor Home");
@@ -5,6 +5,8 @@ import databasePart1.*;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
@@ -39,11 +41,33 @@ public class InvitationPage {
         showCodeButton.setOnAction(a -> {
         	// Generate the invitation code using the databaseHelper and set it to the label
             String invitationCode = databaseHelper.generateInvitationCode();
-            inviteCodeLabel.setText(invitationCode);
+            inviteCodeLabel.setText(invitationCode != null ? invitationCode : "Could not create a code");
+        });
+
+        // Codes for a whole course at once, one per line, valid for the same period
+        TextField countField = new TextField();
+        countField.setPromptText("Number of codes");
+        countField.setMaxWidth(150);
+        Button batchButton = new Button("Generate Codes for a Course");
+        TextArea batchCodesArea = new TextArea();
+        batchCodesArea.setEditable(false);
+        batchCodesArea.setPrefRowCount(8);
+        batchButton.setOnAction(a -> {
+            int count;
+            try {
+                count = Integer.parseInt(countField.getText().trim());
+            } catch (NumberFormatException e) {
+                count = 0;
+            }
+            if (count < 1 || count > InvitationService.MAX_BATCH) {
+                batchCodesArea.setText("Enter a number from 1 to " + InvitationService.MAX_BATCH);
+                return;
+            }
+            batchCodesArea.setText(String.join("\n", databaseHelper.generateInvitationCodes(count)));
         });
 	    
 
-        layout.getChildren().addAll(userLabel, showCodeButton, inviteCodeLabel);
+        layout.getChildren().addAll(userLabel, showCodeButton, inviteCodeLabel, countField, batchButton, batchCodesArea);
 	    Scene inviteScene = new Scene(layout, 800, 400);
 
 	    // Set the scene to primary stage
@@ -7,6 +7,7 @@ public class Message {
     private String fromUser;
     private String toUser;
     private int questionId;  // Optional: links to a specific question
+    private int threadId;    // Set for question messages: the private feedback thread it belongs to
     private String content;
     private LocalDateTime creationTime;
     private boolean isRead;
@@ -28,6 +29,9 @@ public class Message {
     public int getQuestionId() { return questionId; }
     public void setQuestionId(int questionId) { this.questionId = questionId; }
 
+    public int getThreadId() { return threadId; }
+    public void setThreadId(int threadId) { this.threadId = threadId; }
+
     public String getContent() { return content; }
     public void setContent(String content) { this.content = content; }
 
@@ -0,0 +1,62 @@
+package application;
+
+import java.time.LocalDateTime;
+
+/**
+ * A private feedback thread: the messages about one question between two users.
+ * last_message_time and message_count are kept up to date as messages are added,
+ * so threads can be listed without reading their messages.
+ */
+public class MessageThread {
+
+    private final int threadId;
+    private final int questionId;
+    private final String userA;   // the two participants, in alphabetical order
+    private final String userB;
+    private final LocalDateTime lastMessageTime;
+    private final int messageCount;
+
+    public MessageThread(int threadId, int questionId, String userA, String userB,
+                         LocalDateTime lastMessageTime, int messageCount) {
+        this.threadId = threadId;
+        this.questionId = questionId;
+        this.userA = userA;
+        this.userB = userB;
+        this.lastMessageTime = lastMessageTime;
+        this.messageCount = messageCount;
+    }
+
+    public int getThreadId() {
+        return threadId;
+    }
+
+    public int getQuestionId() {
+        return questionId;
+    }
+
+    public String getUserA() {
+        return userA;
+    }
+
+    public String getUserB() {
+        return userB;
+    }
+
+    // The participant who is not userName.
+    public String getOtherUser(String userName) {
+        return userA.equals(userName) ? userB : userA;
+    }
+
+    public LocalDateTime getLastMessageTime() {
+        return lastMessageTime;
+    }
+
+    public int getMessageCount() {
+        return messageCount;
+    }
+
+    @Override
+    public String toString() {
+        return userA + " / " + userB + " - " + messageCount + " messages, last " + lastMessageTime;
+    }
+}
@@ -6,11 +6,22 @@ import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Inbox: the user's conversations, most recent first, loaded a page at a time,
+ * and the latest messages of the selected conversation. Opening a conversation
+ * marks its unread messages as read in one batch.
+ */
 public class MessagingPage {
+    private static final int CONVERSATIONS_PER_PAGE = 30;
+    private static final int MESSAGES_PER_PAGE = 50;
+
     private DatabaseHelper dbHelper;
     private User currentUser;
 
@@ -20,14 +31,32 @@ public class MessagingPage {
     }
 
     public void show(Stage primaryStage) {
+        AsyncData.Scope scope = AsyncData.get().scope();
+        String me = currentUser.getUserName();
         VBox layout = new VBox(10);
         layout.setPadding(new Insets(10));
         Label title = new Label("Messaging Center");
+        Label unreadLabel = new Label();
+
+        // Conversations, one page at a time.
+        ObservableList<Conversation> conversations = FXCollections.observableArrayList();
+        ListView<Conversation> conversationListView = new ListView<>(conversations);
+        conversationListView.setPrefWidth(220);
+        Button moreConversationsBtn = new Button("More Conversations");
+        moreConversationsBtn.setDisable(true);
+        moreConversationsBtn.setOnAction(e -> {
+            Conversation last = conversations.isEmpty() ? null : conversations.get(conversations.size() - 1);
+            moreConversationsBtn.setDisable(true);
+            scope.load(() -> dbHelper.getConversations(me, last, CONVERSATIONS_PER_PAGE), page -> {
+                conversations.addAll(page);
+                moreConversationsBtn.setDisable(page.size() < CONVERSATIONS_PER_PAGE);
+            });
+        });
 
-        // Retrieve messages for the current user.
-        List<Message> messages = dbHelper.getMessagesForUser(currentUser.getUserName());
-        ObservableList<Message> observableMessages = FXCollections.observableArrayList(messages);
+        // Messages of the selected conversation, newest page first.
+        ObservableList<Message> observableMessages = FXCollections.observableArrayList();
         ListView<Message> messageListView = new ListView<>(observableMessages);
+        messageListView.setPlaceholder(new Label("Select a conversation"));
         messageListView.setCellFactory(lv -> new ListCell<>() {
             @Override
             protected void updateItem(Message msg, boolean empty) {
@@ -35,20 +64,73 @@ public class MessagingPage {
                 if (empty || msg == null) {
                     setText(null);
                 } else {
-                    String direction = msg.getFromUser().equals(currentUser.getUserName())
+                    String direction = msg.getFromUser().equals(me)
                             ? "Sent to: " : "Received from: ";
-                    String other = msg.getFromUser().equals(currentUser.getUserName())
+                    String other = msg.getFromUser().equals(me)
                             ? msg.getToUser() : msg.getFromUser();
                     setText(direction + other + "\n" + msg.getContent() + "\n(" + msg.getCreationTime() + ")");
                 }
             }
         });
+        Button olderBtn = new Button("Load Older Messages");
+        olderBtn.setDisable(true);
+        HBox.setHgrow(messageListView, Priority.ALWAYS);
+        VBox messagesBox = new VBox(5, messageListView, olderBtn);
+        HBox.setHgrow(messagesBox, Priority.ALWAYS);
+        HBox inbox = new HBox(10, new VBox(5, conversationListView, moreConversationsBtn), messagesBox);
 
         // Compose new message section.
         TextField recipientField = new TextField();
         recipientField.setPromptText("Recipient username");
         TextArea newMessageArea = new TextArea();
         newMessageArea.setPromptText("Type your message here...");
+        newMessageArea.setPrefRowCount(3);
+
+        Runnable reloadConversations = () -> {
+            scope.loadInto(conversationListView, () -> dbHelper.getConversations(me, null, CONVERSATIONS_PER_PAGE),
+                    page -> moreConversationsBtn.setDisable(page.size() < CONVERSATIONS_PER_PAGE));
+            scope.load(() -> dbHelper.getUnreadCount(me), count -> unreadLabel.setText(count + " unread"));
+        };
+
+        conversationListView.getSelectionModel().selectedItemProperty().addListener((obs, oldConv, conv) -> {
+            if (conv == null) {
+                return;
+            }
+            if (oldConv != null && oldConv.getOtherUser().equals(conv.getOtherUser())) {
+                return; // the same conversation, replaced with fresh unread counts
+            }
+            recipientField.setText(conv.getOtherUser());
+            olderBtn.setDisable(true);
+            observableMessages.clear();
+            messageListView.setPlaceholder(AsyncData.loadingPlaceholder());
+            scope.load(() -> dbHelper.getConversationMessages(me, conv.getOtherUser(), Integer.MAX_VALUE, MESSAGES_PER_PAGE),
+                    page -> {
+                        if (!isSelected(conversationListView, conv)) {
+                            return; // the user moved on to another conversation meanwhile
+                        }
+                        observableMessages.setAll(page);
+                        messageListView.setPlaceholder(new Label("Nothing to show"));
+                        olderBtn.setDisable(page.size() < MESSAGES_PER_PAGE);
+                        markShownAsRead(scope, conversationListView, conv, page, unreadLabel);
+                    });
+        });
+
+        olderBtn.setOnAction(e -> {
+            Conversation conv = conversationListView.getSelectionModel().getSelectedItem();
+            if (conv == null || observableMessages.isEmpty()) {
+                return;
+            }
+            int oldestID = observableMessages.get(0).getMessageId();
+            olderBtn.setDisable(true);
+            scope.load(() -> dbHelper.getConversationMessages(me, conv.getOtherUser(), oldestID, MESSAGES_PER_PAGE), page -> {
+                if (!isSelected(conversationListView, conv)) {
+                    return; // these belong to the conversation that was selected before
+                }
+                observableMessages.addAll(0, page);
+                olderBtn.setDisable(page.size() < MESSAGES_PER_PAGE);
+                markShownAsRead(scope, conversationListView, conv, page, unreadLabel);
+            });
+        });
 
         Button sendBtn = new Button("Send Message");
         sendBtn.setOnAction(e -> {
@@ -58,13 +140,20 @@ public class MessagingPage {
                 return;
             }
             Message newMsg = new Message();
-            newMsg.setFromUser(currentUser.getUserName());
+            newMsg.setFromUser(me);
             newMsg.setToUser(recipient);
             newMsg.setContent(content);
-            dbHelper.addMessage(newMsg);
-            observableMessages.setAll(dbHelper.getMessagesForUser(currentUser.getUserName()));
-            recipientField.clear();
-            newMessageArea.clear();
+            scope.write(() -> {
+                dbHelper.addMessage(newMsg);
+                return newMsg;
+            }, sent -> {
+                Conversation conv = conversationListView.getSelectionModel().getSelectedItem();
+                if (conv != null && conv.getOtherUser().equals(recipient)) {
+                    observableMessages.add(sent);
+                }
+                newMessageArea.clear();
+                reloadConversations.run();
+            });
         });
 
         // New: Delete Selected Message button.
@@ -73,12 +162,13 @@ public class MessagingPage {
             Message selected = messageListView.getSelectionModel().getSelectedItem();
             if (selected == null) return;
             // Allow deletion if the current user is sender or recipient.
-            if (selected.getFromUser().equals(currentUser.getUserName())
-                    || selected.getToUser().equals(currentUser.getUserName())) {
-                boolean success = dbHelper.deleteMessage(selected.getMessageId());
-                if (success) {
-                    observableMessages.setAll(dbHelper.getMessagesForUser(currentUser.getUserName()));
-                }
+            if (selected.getFromUser().equals(me)
+                    || selected.getToUser().equals(me)) {
+                scope.write(() -> dbHelper.deleteMessage(selected.getMessageId()), success -> {
+                    if (success) {
+                        observableMessages.remove(selected);
+                    }
+                });
             } else {
                 Alert alert = new Alert(Alert.AlertType.ERROR, "You can only delete messages you sent or received.");
                 alert.showAndWait();
@@ -87,18 +177,57 @@ public class MessagingPage {
 
         Button backBtn = new Button("Back");
         backBtn.setOnAction(e -> {
-            if (currentUser.getRoles().contains("admin"))
+            if (currentUser.hasRole(Role.ADMIN))
                 new AdminHomePage().show(primaryStage, currentUser);
             else
                 new UserHomePage().show(primaryStage, currentUser);
         });
 
-        layout.getChildren().addAll(title, messageListView,
+        reloadConversations.run();
+
+        layout.getChildren().addAll(title, unreadLabel, inbox,
                 new Label("Compose New Message:"), recipientField, newMessageArea, sendBtn, deleteBtn, backBtn);
 
-        Scene scene = new Scene(layout, 600, 500);
+        Scene scene = new Scene(layout, 700, 600);
+        scope.bindTo(primaryStage, scene);
         primaryStage.setScene(scene);
         primaryStage.setTitle("Messaging Center");
         primaryStage.show();
     }
+
+    // True while conv, or the row that replaced it with fresh counts, is selected.
+    private static boolean isSelected(ListView<Conversation> conversationListView, Conversation conv) {
+        Conversation selected = conversationListView.getSelectionModel().getSelectedItem();
+        return selected != null && selected.getOtherUser().equals(conv.getOtherUser());
+    }
+
+    // Marks the received messages the user can now see as read, all in one UPDATE.
+    // The conversation's row in the list is replaced with its new unread count.
+    private void markShownAsRead(AsyncData.Scope scope, ListView<Conversation> conversationListView,
+                                 Conversation conv, List<Message> shown, Label unreadLabel) {
+        List<Integer> unread = new ArrayList<>();
+        for (Message m : shown) {
+            if (!m.isRead() && m.getToUser().equals(currentUser.getUserName())) {
+                unread.add(m.getMessageId());
+                m.setRead(true);
+            }
+        }
+        if (unread.isEmpty()) {
+            return;
+        }
+        scope.write(() -> new int[] {
+            dbHelper.markMessagesRead(currentUser.getUserName(), unread),
+            dbHelper.getUnreadCount(currentUser.getUserName())
+        }, counts -> {
+            unreadLabel.setText(counts[1] + " unread");
+            List<Conversation> items = conversationListView.getItems();
+            for (int i = 0; i < items.size(); i++) {
+                Conversation row = items.get(i);
+                if (row.getOtherUser().equals(conv.getOtherUser())) {
+                    items.set(i, row.withUnreadCount(Math.max(0, row.getUnreadCount() - counts[0])));
+                    break;
+                }
+            }
+        });
+    }
 }
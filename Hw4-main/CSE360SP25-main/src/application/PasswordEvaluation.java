@@ -0,0 +1,77 @@
+package application;
+
+/**
+ * Immutable result of evaluating a password with PasswordEvaluator.evaluate.
+ * Safe to share between threads. Every valid password returns the same VALID instance.
+ */
+public final class PasswordEvaluation {
+
+    /** The result for every password that satisfies all of the rules. */
+    public static final PasswordEvaluation VALID =
+            new PasswordEvaluation("", -1, true, true, true, true, true, false);
+
+    private final String errorMessage;
+    private final int indexOfError;
+    private final boolean foundUpperCase;
+    private final boolean foundLowerCase;
+    private final boolean foundNumericDigit;
+    private final boolean foundSpecialChar;
+    private final boolean foundLongEnough;
+    private final boolean foundInvalidChar;
+
+    PasswordEvaluation(String errorMessage, int indexOfError, boolean foundUpperCase, boolean foundLowerCase,
+                       boolean foundNumericDigit, boolean foundSpecialChar, boolean foundLongEnough,
+                       boolean foundInvalidChar) {
+        this.errorMessage = errorMessage;
+        this.indexOfError = indexOfError;
+        this.foundUpperCase = foundUpperCase;
+        this.foundLowerCase = foundLowerCase;
+        this.foundNumericDigit = foundNumericDigit;
+        this.foundSpecialChar = foundSpecialChar;
+        this.foundLongEnough = foundLongEnough;
+        this.foundInvalidChar = foundInvalidChar;
+    }
+
+    public boolean isValid() {
+        return errorMessage.isEmpty();
+    }
+
+    // Empty when the password is valid
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    // Index of the character where evaluation stopped, or -1 when the password is valid
+    public int getIndexOfError() {
+        return indexOfError;
+    }
+
+    public boolean hasUpperCase() {
+        return foundUpperCase;
+    }
+
+    public boolean hasLowerCase() {
+        return foundLowerCase;
+    }
+
+    public boolean hasNumericDigit() {
+        return foundNumericDigit;
+    }
+
+    public boolean hasSpecialChar() {
+        return foundSpecialChar;
+    }
+
+    public boolean isLongEnough() {
+        return foundLongEnough;
+    }
+
+    public boolean hasInvalidChar() {
+        return foundInvalidChar;
+    }
+
+    @Override
+    public String toString() {
+        return isValid() ? "Valid password" : errorMessage + " (at index " + indexOfError + ")";
+    }
+}
@@ -14,6 +14,7 @@ public class PasswordEvaluator {
 	 * @author Lynn Robert Carter
 	 * 
 	 * @version 1.00		2025-01-22	changes to the special characters and ERROR outputs
+	 * @version 1.10		2026-10-18	thread-safe evaluate() returning a PasswordEvaluation
 	 * 
 	 */
 
@@ -22,6 +23,10 @@ public class PasswordEvaluator {
 	 * Result attributes to be used for GUI applications where a detailed error message and a 
 	 * pointer to the character of the error will enhance the user experience.
 	 * 
+	 * These are only set by the compatibility method evaluatePassword and are shared by every
+	 * caller, so they are not safe when passwords are evaluated on more than one thread.
+	 * New code should use evaluate, which returns its results in a PasswordEvaluation.
+	 * 
 	 */
 
 	public static String passwordErrorMessage = "";		// The error message text
@@ -32,128 +37,137 @@ public class PasswordEvaluator {
 	public static boolean foundNumericDigit = false;
 	public static boolean foundSpecialChar = false;
 	public static boolean foundLongEnough = false;
-	private static String inputLine = "";				// The input line
-	private static char currentChar;					// The current character in the line
-	private static int currentCharNdx;					// The index of the current character
-	private static boolean running;						// The flag that specifies if the FSM is 
-														// running
-	private static boolean otherChar;					// The flag that specifies an invalid character
 
+	static final String SPECIAL_CHARS = "~`!@#$%^&*()_-+{}[]|:,.?/";	//new special Characters changed
+	static final int MIN_LENGTH = 8;
+
+	static final String INVALID_CHAR_MESSAGE = "*** ERROR *** An invalid character has been found!";
+
+	// Passwords at least this long are scanned with the Vector API when it is available.
+	// Shorter ones fit in a single vector anyway, where the scalar loop is just as fast.
+	private static final boolean VECTOR_SCAN = vectorScanAvailable();
+	private static final int VECTOR_MIN_LENGTH = VECTOR_SCAN ? VectorPasswordScanner.laneCount() : Integer.MAX_VALUE;
+
+	// True when jdk.incubator.vector can be loaded (it is an incubator module and may be missing
+	// at run time) and has not been turned off with -Dpassword.vectorScan=false.
+	private static boolean vectorScanAvailable() {
+		if (!Boolean.parseBoolean(System.getProperty("password.vectorScan", "true")))
+			return false;
+		try {
+			Class.forName("jdk.incubator.vector.ShortVector");
+			return VectorPasswordScanner.laneCount() > 1;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
+	// True when long passwords are scanned with the Vector API
+	public static boolean isVectorScanEnabled() {
+		return VECTOR_SCAN;
+	}
 
 	/**********
-	 * This private method display the input line and then on a line under it displays an up arrow
-	 * at the point where an error should one be detected.  This method is designed to be used to 
-	 * display the error message on the console terminal.
+	 * This method is a mechanical transformation of the Password Evaluator Directed Graph into a
+	 * pure function.  All of the state lives in local variables, so any number of threads can
+	 * evaluate passwords at the same time.  A valid password is checked without allocating
+	 * anything and returns the shared PasswordEvaluation.VALID result.
+	 * 
+	 * Long inputs are classified 16 or 32 characters at a time with the Vector API when it is
+	 * available; the result is the same either way.
 	 * 
-	 * @param input				The input string
-	 * @param currentCharNdx	The location where an error was found
-	 * @return					Two lines, the entire input line followed by a line with an up arrow
+	 * @param input		The input string for directed graph processing
+	 * @return			The evaluation: which rules were satisfied, and for an invalid password
+	 * 					the error message and the index where the error was found
 	 */
-	private static void displayInputState() {
-		// Display the entire input line
-		System.out.println(inputLine);
-		System.out.println(inputLine.substring(0,currentCharNdx) + "?");
-		System.out.println("The password size: " + inputLine.length() + "  |  The currentCharNdx: " + 
-				currentCharNdx + "  |  The currentChar: \"" + currentChar + "\"");
+	public static PasswordEvaluation evaluate(String input) {
+		if (input != null && input.length() >= VECTOR_MIN_LENGTH)
+			return VectorPasswordScanner.evaluate(input);
+		return evaluateScalar(input);
 	}
 
 	/**********
-	 * This method is a mechanical transformation of a Directed Graph diagram into a Java
-	 * method.
-	 * 
-	 * @param input		The input string for directed graph processing
-	 * @return			An output string that is empty if every things is okay or it will be
-	 * 						a string with a help description of the error follow by two lines
-	 * 						that shows the input line follow by a line with an up arrow at the
-	 *						point where the error was found.
+	 * The one-character-at-a-time version of evaluate, used for short inputs and whenever the
+	 * Vector API is not available.
 	 */
-	public static String evaluatePassword(String input) {
-		// The following are the local variable used to perform the Directed Graph simulation
-		passwordErrorMessage = "";
-		passwordIndexofError = 0;			// Initialize the IndexofError
-		inputLine = input;					// Save the reference to the input line as a global
-		currentCharNdx = 0;					// The index of the current character
-		
-		if(input.length() <= 0) return "*** ERROR *** The password is empty!";
-		
-		// The input is not empty, so we can access the first character
-		currentChar = input.charAt(0);		// The current character from the above indexed position
+	public static PasswordEvaluation evaluateScalar(String input) {
+		if (input == null || input.length() <= 0)
+			return new PasswordEvaluation("*** ERROR *** The password is empty!", 0,
+					false, false, false, false, false, false);
 
-		// The Directed Graph simulation continues until the end of the input is reached or at some 
-		// state the current character does not match any valid transition to a next state
-
-		passwordInput = input;				// Save a copy of the input
-		foundUpperCase = false;				// Reset the Boolean flag
-		foundLowerCase = false;				// Reset the Boolean flag
-		foundNumericDigit = false;			// Reset the Boolean flag
-		foundSpecialChar = false;			// Reset the Boolean flag
-		foundNumericDigit = false;			// Reset the Boolean flag
-		foundLongEnough = false;			// Reset the Boolean flag
-		running = true;						// Start the loop
-		otherChar = false;					// Reset the Boolean flag
+		boolean upperCase = false;
+		boolean lowerCase = false;
+		boolean numericDigit = false;
+		boolean specialChar = false;
+		boolean longEnough = false;
 
 		// The Directed Graph simulation continues until the end of the input is reached or at some 
 		// state the current character does not match any valid transition
-		while (running) {
-			displayInputState();
+		int currentCharNdx = 0;
+		for (; currentCharNdx < input.length(); currentCharNdx++) {
+			char currentChar = input.charAt(currentCharNdx);
 			// The cascading if statement sequentially tries the current character against all of the
 			// valid transitions
 			if (currentChar >= 'A' && currentChar <= 'Z') {
-				System.out.println("Upper case letter found");
-				foundUpperCase = true;
+				upperCase = true;
 			} else if (currentChar >= 'a' && currentChar <= 'z') {
-				System.out.println("Lower case letter found");
-				foundLowerCase = true;
+				lowerCase = true;
 			} else if (currentChar >= '0' && currentChar <= '9') {
-				System.out.println("Digit found");
-				foundNumericDigit = true;
-			} else if ("~`!@#$%^&*()_-+{}[]|:,.?/".indexOf(currentChar) >= 0) {		//new special Characters changed
-				System.out.println("Special character found");
-				foundSpecialChar = true;
+				numericDigit = true;
+			} else if (SPECIAL_CHARS.indexOf(currentChar) >= 0) {
+				specialChar = true;
 			} else {
-				passwordIndexofError = currentCharNdx;
-				otherChar = true;
-				return "*** ERROR *** An invalid character has been found!";
+				return new PasswordEvaluation(INVALID_CHAR_MESSAGE,
+						currentCharNdx, upperCase, lowerCase, numericDigit, specialChar, longEnough, true);
 			}
-			if (currentCharNdx >= 7) {
-				System.out.println("At least 8 characters found");
-				foundLongEnough = true;
+			if (currentCharNdx >= MIN_LENGTH - 1) {
+				longEnough = true;
 			}
-			
-			// Go to the next character if there is one
-			currentCharNdx++;
-			if (currentCharNdx >= inputLine.length())
-				running = false;
-			else
-				currentChar = input.charAt(currentCharNdx);
-			
-			System.out.println();
 		}
-		
-		String errMessage = "*** ERROR *** ";
-		if (!foundUpperCase)
-			errMessage += "Upper case; ";
-		
-		if (!foundLowerCase)
-			errMessage += "Lower case; ";
-		
-		if (!foundNumericDigit)
-			errMessage += "Numeric digits; ";
-			
-		if (!foundSpecialChar)
-			errMessage += "Special character; ";
-			
-		if (!foundLongEnough)
-			errMessage += "Long Enough; ";
-		
-		if (otherChar)
-			errMessage += "Invalid Character; ";
-		
-		if (errMessage == "*** ERROR *** ")
-			return "";
-		
-		passwordIndexofError = currentCharNdx;
-		return errMessage + "conditions were not satisfied";
+		return result(upperCase, lowerCase, numericDigit, specialChar, longEnough, currentCharNdx);
+	}
+
+	// The result once every character has been accepted
+	static PasswordEvaluation result(boolean upperCase, boolean lowerCase, boolean numericDigit,
+			boolean specialChar, boolean longEnough, int currentCharNdx) {
+		if (upperCase && lowerCase && numericDigit && specialChar && longEnough)
+			return PasswordEvaluation.VALID;
+
+		// Only an invalid password pays for building the message
+		StringBuilder errMessage = new StringBuilder("*** ERROR *** ");
+		if (!upperCase)
+			errMessage.append("Upper case; ");
+		if (!lowerCase)
+			errMessage.append("Lower case; ");
+		if (!numericDigit)
+			errMessage.append("Numeric digits; ");
+		if (!specialChar)
+			errMessage.append("Special character; ");
+		if (!longEnough)
+			errMessage.append("Long Enough; ");
+		errMessage.append("conditions were not satisfied");
+
+		return new PasswordEvaluation(errMessage.toString(), currentCharNdx,
+				upperCase, lowerCase, numericDigit, specialChar, longEnough, false);
+	}
 
+	/**********
+	 * Compatibility wrapper for code written against the original static API.  It evaluates the
+	 * password with evaluate and copies the result into the public static attributes above.
+	 * 
+	 * @param input		The input string for directed graph processing
+	 * @return			An output string that is empty if every things is okay or it will be
+	 * 						a string with a help description of the error
+	 */
+	public static String evaluatePassword(String input) {
+		PasswordEvaluation result = evaluate(input);
+		passwordInput = input;
+		passwordErrorMessage = result.getErrorMessage();
+		passwordIndexofError = result.getIndexOfError();
+		foundUpperCase = result.hasUpperCase();
+		foundLowerCase = result.hasLowerCase();
+		foundNumericDigit = result.hasNumericDigit();
+		foundSpecialChar = result.hasSpecialChar();
+		foundLongEnough = result.isLongEnough();
+		return result.getErrorMessage();
 	}
 }
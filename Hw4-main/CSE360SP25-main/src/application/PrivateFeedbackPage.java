@@ -8,10 +8,16 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
-import java.util.List;
 
+/**
+ * Private feedback about a question. Each pair of users has its own thread; the
+ * question's author sees one thread per student, everyone else their thread with
+ * the author. A thread opens on its newest messages and older ones are loaded on request.
+ */
 public class PrivateFeedbackPage {
 
+    private static final int MESSAGES_PER_PAGE = 30;
+
     private DatabaseHelper dbHelper;
     private Question question;
     private User currentUser;
@@ -23,15 +29,24 @@ public class PrivateFeedbackPage {
     }
 
     public void show(Stage primaryStage) {
+        AsyncData.Scope scope = AsyncData.get().scope();
+        String me = currentUser.getUserName();
+        boolean isAuthor = question.getAuthor().equals(me);
         VBox layout = new VBox(10);
         layout.setPadding(new Insets(10));
 
         Label title = new Label("Private Messages for Question: " + question.getQuestionTitle());
 
+        ComboBox<MessageThread> threadBox = new ComboBox<>();
+        threadBox.setPromptText(isAuthor ? "Select a thread" : "No messages yet");
+        threadBox.setMaxWidth(Double.MAX_VALUE);
+
         ListView<Message> messagesListView = new ListView<>();
-        ObservableList<Message> messagesObservable = FXCollections.observableArrayList(
-                dbHelper.getMessagesForQuestion(question.getQuestionID(), currentUser.getUserName()));
+        ObservableList<Message> messagesObservable = FXCollections.observableArrayList();
         messagesListView.setItems(messagesObservable);
+        messagesListView.setPlaceholder(new Label("No messages"));
+        Button olderBtn = new Button("Load Older Messages");
+        olderBtn.setDisable(true);
 
         // Customize how messages are displayed.
         messagesListView.setCellFactory(lv -> new ListCell<>() {
@@ -46,34 +61,101 @@ public class PrivateFeedbackPage {
             }
         });
 
+        threadBox.valueProperty().addListener((obs, oldThread, thread) -> {
+            messagesObservable.clear();
+            olderBtn.setDisable(true);
+            if (thread == null) {
+                return;
+            }
+            messagesListView.setPlaceholder(AsyncData.loadingPlaceholder());
+            scope.load(() -> dbHelper.getThreadMessages(thread.getThreadId(), Integer.MAX_VALUE, MESSAGES_PER_PAGE), page -> {
+                if (!isSelected(threadBox, thread)) {
+                    return; // another thread was picked meanwhile
+                }
+                messagesObservable.setAll(page);
+                messagesListView.setPlaceholder(new Label("Nothing to show"));
+                olderBtn.setDisable(page.size() < MESSAGES_PER_PAGE);
+            });
+        });
+
+        olderBtn.setOnAction(e -> {
+            MessageThread thread = threadBox.getValue();
+            if (thread == null || messagesObservable.isEmpty()) {
+                return;
+            }
+            int oldestID = messagesObservable.get(0).getMessageId();
+            olderBtn.setDisable(true);
+            scope.load(() -> dbHelper.getThreadMessages(thread.getThreadId(), oldestID, MESSAGES_PER_PAGE), page -> {
+                if (!isSelected(threadBox, thread)) {
+                    return; // these belong to the thread that was selected before
+                }
+                messagesObservable.addAll(0, page);
+                olderBtn.setDisable(page.size() < MESSAGES_PER_PAGE);
+            });
+        });
+
+        scope.load(() -> dbHelper.getThreadsForQuestion(question.getQuestionID(), me), threads -> {
+            threadBox.getItems().setAll(threads);
+            if (!threads.isEmpty()) {
+                threadBox.setValue(threads.get(0));
+            }
+        });
+
         TextArea messageArea = new TextArea();
         messageArea.setPromptText("Write your private feedback here...");
 
         Button sendBtn = new Button("Send");
         sendBtn.setOnAction(e -> {
             String content = messageArea.getText();
-            if (!content.isBlank()) {
+            MessageThread thread = threadBox.getValue();
+            // The author replies in the selected thread; everyone else writes to the author
+            String recipient = isAuthor ? (thread == null ? null : thread.getOtherUser(me)) : question.getAuthor();
+            if (!content.isBlank() && recipient != null) {
                 Message newMsg = new Message();
-                newMsg.setFromUser(currentUser.getUserName());
-                newMsg.setToUser(question.getAuthor()); // or another recipient as needed
+                newMsg.setFromUser(me);
+                newMsg.setToUser(recipient);
                 newMsg.setQuestionId(question.getQuestionID());
                 newMsg.setContent(content);
-                dbHelper.addMessage(newMsg);
-                messagesObservable.setAll(dbHelper.getMessagesForQuestion(question.getQuestionID(), currentUser.getUserName()));
-                messageArea.clear();
+                scope.write(() -> {
+                    dbHelper.addMessage(newMsg);
+                    return newMsg;
+                }, sent -> {
+                    messageArea.clear();
+                    if (thread != null && thread.getThreadId() == sent.getThreadId()) {
+                        messagesObservable.add(sent);
+                    } else {
+                        // First message: the thread now exists, so list it and select it
+                        scope.load(() -> dbHelper.getThreadsForQuestion(question.getQuestionID(), me), threads -> {
+                            threadBox.getItems().setAll(threads);
+                            threads.stream().filter(t -> t.getThreadId() == sent.getThreadId())
+                                    .findFirst().ifPresent(threadBox::setValue);
+                        });
+                    }
+                });
             }
         });
 
         Button backBtn = new Button("Back");
         backBtn.setOnAction(e -> {
-            new QuestionDetailPage(question, StartCSE360.getQuestions(), StartCSE360.getAnswers(), currentUser)
-                    .show(primaryStage);
+            scope.load(() -> QuestionDetailPage.loadView(question.getQuestionID(), currentUser), view -> {
+                if (view != null) {
+                    new QuestionDetailPage(view, StartCSE360.getQuestions(), StartCSE360.getAnswers(), currentUser)
+                            .show(primaryStage);
+                }
+            });
         });
 
-        layout.getChildren().addAll(title, messagesListView, messageArea, sendBtn, backBtn);
+        layout.getChildren().addAll(title, threadBox, messagesListView, olderBtn, messageArea, sendBtn, backBtn);
         Scene scene = new Scene(layout, 600, 500);
+        scope.bindTo(primaryStage, scene);
         primaryStage.setScene(scene);
         primaryStage.setTitle("Private Feedback");
         primaryStage.show();
     }
-}
\ No newline at end of file
+
+    // True while thread, or the row that replaced it after a reload, is the selected thread.
+    private static boolean isSelected(ComboBox<MessageThread> threadBox, MessageThread thread) {
+        MessageThread selected = threadBox.getValue();
+        return selected != null && selected.getThreadId() == thread.getThreadId();
+    }
+}
@@ -1,13 +1,16 @@
 package application;
 
+import databasePart1.AnswerRanking;
+import databasePart1.QuestionDetailView;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
-import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Displays a single question's details plus its answers.
@@ -15,6 +18,17 @@ import java.util.List;
  * - Cloning a question.
  * - Sending private feedback.
  * - Reviewing answers (if the user is a reviewer).
+ *
+ * Answers are loaded and saved through AsyncData, so the page appears at once
+ * and fills in its answer list when the query returns. After that the list is
+ * kept current from Answers change events: a vote, edit or new answer only
+ * replaces or adds that one row.
+ *
+ * The list is shown best first for the current user (see AnswerRanking): a sorted
+ * view over the answers, which stay in posting order so change events can patch them.
+ *
+ * The answers and their review totals come from one QuestionDetailView. Pages that
+ * navigate back here load the view first and pass it in, so the page opens complete.
  */
 public class QuestionDetailPage extends BorderPane {
 
@@ -24,17 +38,34 @@ public class QuestionDetailPage extends BorderPane {
     private User currentUser;
 
     private ListView<Answer> answersListView;
-    private ObservableList<Answer> answersList;
+    private ObservableList<Answer> answersList;   // in answer ID order
+    private SortedList<Answer> rankedAnswers;
+    private AnswerRanking.Scores scores;
+    private final AsyncData.Scope scope = AsyncData.get().scope();
 
     public QuestionDetailPage(Question question, Questions questions, Answers answersManager, User currentUser) {
         this.question = question;
         this.questions = questions;
         this.answersManager = answersManager;
         this.currentUser = currentUser;
-        initializeUI();
+        initializeUI(null);
     }
 
-    private void initializeUI() {
+    // Opens the page with a view that is already loaded (see loadView).
+    public QuestionDetailPage(QuestionDetailView view, Questions questions, Answers answersManager, User currentUser) {
+        this.question = view.getQuestion();
+        this.questions = questions;
+        this.answersManager = answersManager;
+        this.currentUser = currentUser;
+        initializeUI(view);
+    }
+
+    // Reads the view for a question on the current user's behalf; null if the question is gone.
+    public static QuestionDetailView loadView(int questionID, User currentUser) {
+        return StartCSE360.getDatabaseHelper().getQuestionDetailView(currentUser.getUserName(), questionID);
+    }
+
+    private void initializeUI(QuestionDetailView view) {
         setPadding(new Insets(10));
 
         // --- Top Section: Question details
@@ -52,7 +83,7 @@ public class QuestionDetailPage extends BorderPane {
         Label solvedLabel = new Label(question.isSolved() ? "This question is answered." : "Not answered yet");
 
         // Allow editing if admin or if current user is the question author.
-        boolean canEditQuestion = "admin".equalsIgnoreCase(currentUser.getRole())
+        boolean canEditQuestion = currentUser.hasRole(Role.ADMIN)
                 || question.getAuthor().equals(currentUser.getUserName());
         if (canEditQuestion) {
             Button editQuestionBtn = new Button("Edit Question");
@@ -70,10 +101,23 @@ public class QuestionDetailPage extends BorderPane {
         setTop(questionDetails);
 
         // --- Center Section: List of Answers
-        List<Answer> loadedAnswers = answersManager.getAnswersByQuestionID(question.getQuestionID());
-        answersList = FXCollections.observableArrayList(loadedAnswers);
-        answersListView = new ListView<>(answersList);
+        answersList = FXCollections.observableArrayList();
+        rankedAnswers = new SortedList<>(answersList);
+        scores = AnswerRanking.Scores.none(currentUser.getUserName(), question.getQuestionID());
+        answersListView = new ListView<>(rankedAnswers);
         answersListView.setPrefHeight(300);
+        if (view != null) {
+            showView(view);
+        } else {
+            answersListView.setPlaceholder(AsyncData.loadingPlaceholder());
+            scope.load(() -> loadView(question.getQuestionID(), currentUser), loaded -> {
+                if (loaded != null) {
+                    showView(loaded);
+                } else {
+                    answersListView.setPlaceholder(new Label("This question no longer exists"));
+                }
+            });
+        }
 
         // Pass currentUser to the cell so we can show the Reviews button if appropriate.
         answersListView.setCellFactory(listView -> new AnswerListCell(answersManager, this, currentUser));
@@ -112,9 +156,17 @@ public class QuestionDetailPage extends BorderPane {
                 newAnswer.setAuthor(currentUser.getUserName());
                 newAnswer.setAnswerText(content);
 
-                answersManager.addAnswer(newAnswer);
-                refreshAnswerList();
-                txtAnswerContent.clear();
+                addAnswerBtn.setDisable(true);
+                scope.write(() -> {
+                    answersManager.addAnswer(newAnswer);
+                    return newAnswer;
+                }, added -> {
+                    addAnswerBtn.setDisable(false);
+                    txtAnswerContent.clear();
+                }, ex -> {
+                    addAnswerBtn.setDisable(false);
+                    ex.printStackTrace();
+                });
             });
 
             addAnswerPane.add(lblNewAnswer, 0, 0);
@@ -128,9 +180,11 @@ public class QuestionDetailPage extends BorderPane {
         Button cloneBtn = new Button("Clone Question");
         cloneBtn.setOnAction(e -> {
             Question newQ = new Question(question.getAuthor(), "[CLONE] " + question.getQuestionTitle(), question.getQuestionText());
-            questions.addQuestion(newQ);
-            new QuestionDetailPage(newQ, questions, answersManager, currentUser)
-                    .show((Stage) getScene().getWindow());
+            Stage stage = (Stage) getScene().getWindow();
+            scope.write(() -> {
+                questions.addQuestion(newQ);
+                return newQ;
+            }, cloned -> new QuestionDetailPage(cloned, questions, answersManager, currentUser).show(stage));
         });
         
         Button feedbackBtn = new Button("Private Feedback");
@@ -168,14 +222,14 @@ public class QuestionDetailPage extends BorderPane {
         saveBtn.setOnAction(e -> {
             question.setQuestionTitle(txtNewTitle.getText());
             question.setQuestionText(txtNewContent.getText());
-            questions.updateQuestion(question);
-            new QuestionDetailPage(question, questions, answersManager, currentUser)
-                    .show((Stage) getScene().getWindow());
+            Stage stage = (Stage) getScene().getWindow();
+            scope.write(() -> questions.updateQuestion(question), updated ->
+                    new QuestionDetailPage(question, questions, answersManager, currentUser).show(stage));
         });
     }
 
     private void handleAnswerAction(Answer answer) {
-        boolean isAdmin = "admin".equalsIgnoreCase(currentUser.getRole());
+        boolean isAdmin = currentUser.hasRole(Role.ADMIN);
         boolean isAuthorOfAnswer = answer.getAuthor().equals(currentUser.getUserName());
         boolean isAuthorOfQuestion = question.getAuthor().equals(currentUser.getUserName());
 
@@ -193,7 +247,7 @@ public class QuestionDetailPage extends BorderPane {
         if (!question.isSolved() && (isAdmin || isAuthorOfQuestion)) {
             dialog.getDialogPane().getButtonTypes().add(acceptBtnType);
         }
-        if (currentUser.getRoles().contains("reviewer")) {
+        if (currentUser.hasRole(Role.REVIEWER)) {
             dialog.getDialogPane().getButtonTypes().add(reviewBtnType);
         }
         dialog.getDialogPane().getButtonTypes().add(cancelBtnType);
@@ -218,28 +272,69 @@ public class QuestionDetailPage extends BorderPane {
         editDialog.setContentText("New Answer Text:");
         editDialog.showAndWait().ifPresent(newText -> {
             answer.setAnswerText(newText);
-            answersManager.updateAnswer(answer);
-            refreshAnswerList();
+            scope.write(() -> answersManager.updateAnswer(answer));
         });
     }
 
     private void acceptAnswer(Answer answer) {
         question.setSolved(true);
         question.setAcceptedAnswerID(answer.getAnswerID());
-        questions.updateQuestion(question);
         answer.setAccepted(true);
-        answersManager.updateAnswer(answer);
-        new QuestionDetailPage(question, questions, answersManager, currentUser)
-                .show((Stage) getScene().getWindow());
+        Stage stage = (Stage) getScene().getWindow();
+        scope.write(() -> {
+            questions.updateQuestion(question);
+            return answersManager.updateAnswer(answer);
+        }, updated -> new QuestionDetailPage(question, questions, answersManager, currentUser).show(stage));
+    }
+
+    // Records the vote in the background; the change event updates the row's counts.
+    void vote(Answer answer, int vote) {
+        scope.write(() -> answersManager.vote(answer, currentUser.getUserName(), vote));
+    }
+
+    // Score shown next to the votes, when trusted reviewers have rated the answer.
+    String describeTrustedScore(Answer answer) {
+        int reviews = scores.getTrustedReviewCount(answer.getAnswerID());
+        if (reviews == 0) {
+            return "";
+        }
+        return "  trusted " + scores.getTrustedScore(answer.getAnswerID()) + " (" + reviews + (reviews == 1 ? " review)" : " reviews)");
     }
 
-    void refreshAnswerList() {
-        List<Answer> updated = answersManager.getAnswersByQuestionID(question.getQuestionID());
-        answersList.setAll(updated);
+    // Fills the list from a loaded view; votes re-sort rows as they change.
+    private void showView(QuestionDetailView view) {
+        scores = view.getScores();
+        answersList.setAll(view.getAnswers());
+        rankedAnswers.setComparator(scores.comparator());
+        answersListView.setPlaceholder(new Label("Nothing to show"));
+        answersListView.refresh();
+    }
+
+    // Review count and average rating shown next to the votes, when the answer has reviews.
+    String describeReviews(Answer answer) {
+        ReviewStats stats = scores.getReviewStats(answer.getAnswerID());
+        if (stats.getReviewCount() == 0) {
+            return "";
+        }
+        return String.format("  %d %s, avg %.1f", stats.getReviewCount(),
+                stats.getReviewCount() == 1 ? "review" : "reviews", stats.getAverageRating());
+    }
+
+    // Applies a change to this question's answers; runs on the JavaFX thread.
+    private void onAnswerChanged(AnswerChangeEvent event) {
+        event.applyTo(answersList);
     }
 
     public void show(Stage primaryStage) {
         Scene scene = new Scene(this, 600, 500);
+        Consumer<AnswerChangeEvent> listener = event -> {
+            if (event.getQuestionID() == question.getQuestionID()) {
+                scope.post(() -> onAnswerChanged(event));
+            }
+        };
+        answersManager.addChangeListener(listener);
+        scope.onClose(() -> answersManager.removeChangeListener(listener));
+        scope.bindTo(primaryStage, scene);
         primaryStage.setScene(scene);
         primaryStage.setTitle("Question Detail");
         primaryStage.show();
@@ -270,9 +365,7 @@ public class QuestionDetailPage extends BorderPane {
             upvoteButton.setOnAction(e -> {
                 Answer ans = getItem();
                 if (ans != null) {
-                    ans.upvote();
-                    answersManager.updateAnswer(ans);
-                    parentPage.refreshAnswerList();
+                    parentPage.vote(ans, 1);
                 }
             });
 
@@ -280,9 +373,7 @@ public class QuestionDetailPage extends BorderPane {
             downvoteButton.setOnAction(e -> {
                 Answer ans = getItem();
                 if (ans != null) {
-                    ans.downvote();
-                    answersManager.updateAnswer(ans);
-                    parentPage.refreshAnswerList();
+                    parentPage.vote(ans, -1);
                 }
             });
 
@@ -295,7 +386,7 @@ public class QuestionDetailPage extends BorderPane {
                 }
             });
             HBox buttonsBox;
-            if (currentUser.getRoles().contains("reviewer")) {
+            if (currentUser.hasRole(Role.REVIEWER)) {
                 buttonsBox = new HBox(5, upvoteButton, downvoteButton, reviewsButton);
             } else {
                 buttonsBox = new HBox(5, upvoteButton, downvoteButton);
@@ -316,7 +407,8 @@ public class QuestionDetailPage extends BorderPane {
                 setGraphic(null);
             } else {
                 answerLabel.setText(answer.toString());
-                votesLabel.setText(answer.getUpvotes() + "▲, " + answer.getDownvotes() + "▼");
+                votesLabel.setText(answer.getUpvotes() + "▲, " + answer.getDownvotes() + "▼"
+                        + parentPage.describeReviews(answer) + parentPage.describeTrustedScore(answer));
                 setGraphic(rootLayout);
                 setText(null);
             }
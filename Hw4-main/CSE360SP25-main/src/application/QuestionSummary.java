@@ -0,0 +1,62 @@
+package application;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight view of a question for list displays.
+ * Carries everything the questions list needs without the question text.
+ */
+public class QuestionSummary {
+
+    /** Which questions a page of summaries should include. */
+    public enum Filter {
+        ALL, UNANSWERED, ANSWERED
+    }
+
+    private final int questionID;
+    private final String title;
+    private final boolean solved;
+    private final String author;
+    private final LocalDateTime creationTime;
+
+    public QuestionSummary(int questionID, String title, boolean solved, String author, LocalDateTime creationTime) {
+        this.questionID = questionID;
+        this.title = title;
+        this.solved = solved;
+        this.author = author;
+        this.creationTime = creationTime;
+    }
+
+    public static QuestionSummary of(Question q) {
+        return new QuestionSummary(q.getQuestionID(), q.getQuestionTitle(), q.isSolved(), q.getAuthor(), q.getCreationTime());
+    }
+
+    public int getQuestionID() {
+        return questionID;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public boolean isSolved() {
+        return solved;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public LocalDateTime getCreationTime() {
+        return creationTime;
+    }
+
+    @Override
+    public String toString() {
+        // Same display as Question.toString()
+        if (solved) {
+            return title + " (Answered)";
+        }
+        return title;
+    }
+}
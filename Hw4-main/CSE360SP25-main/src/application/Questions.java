@@ -31,6 +31,11 @@ public class Questions {
         return dbHelper.getAllQuestions();
     }
 
+    // Read (one page of summaries after the given ID, for scrolling lists)
+    public List<QuestionSummary> getQuestionsPage(int afterId, int limit, QuestionSummary.Filter filter) {
+        return dbHelper.getQuestionSummaries(afterId, limit, filter);
+    }
+
     // Read (by ID)
     public Question getQuestionByID(int questionID) {
         return dbHelper.getQuestionByID(questionID);
@@ -68,4 +73,9 @@ public class Questions {
             .filter(q -> q.getQuestionText().toLowerCase().contains(keyword.toLowerCase()))
             .collect(Collectors.toList());
     }
+
+    // Ranked search over question titles, question text and answers using the search index.
+    public List<Question> search(String keywords) {
+        return dbHelper.getQuestionsByIDs(dbHelper.searchQuestionIDs(keywords));
+    }
 }
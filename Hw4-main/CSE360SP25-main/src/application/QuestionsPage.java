@@ -1,18 +1,23 @@
 package application;
 
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A UI page that displays all questions from the DB,
  * combined searching (questions + answers), adding, and deleting.
  * Only an admin or the question's author can delete.
+ *
+ * The list is loaded one page at a time as the user scrolls, so only
+ * summaries for the rows near the viewport are ever fetched. All database
+ * calls run through AsyncData, off the JavaFX thread.
  */
 public class QuestionsPage {
 
@@ -20,6 +25,17 @@ public class QuestionsPage {
     private final Answers answers;      // DB-based
     private final User currentUser;     // admin or user
 
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_ROWS = 10; // load the next page this many rows before the end
+
+    private QuestionSummary.Filter filter = QuestionSummary.Filter.ALL;
+    private int lastLoadedID = 0;    // keyset cursor: highest question_id shown so far
+    private boolean hasMorePages = true;
+    private boolean pageRequested = false;
+    private boolean pageLoading = false;
+    private int listing = 0;         // bumped whenever the list is reloaded, so late pages are dropped
+    private AsyncData.Scope scope;
+
     public QuestionsPage(Questions questions, Answers answers, User currentUser) {
         this.questions = questions;
         this.answers = answers;
@@ -27,6 +43,7 @@ public class QuestionsPage {
     }
 
     public void show(Stage primaryStage) {
+        scope = AsyncData.get().scope();
         VBox layout = new VBox(10);
         layout.setPadding(new Insets(10));
 
@@ -37,8 +54,24 @@ public class QuestionsPage {
         Button btnSearch = new Button("Search");
         Button btnRefresh = new Button("Show All");
 
-        ListView<Question> listView = new ListView<>();
-        listView.getItems().addAll(questions.getAllQuestions());
+        ComboBox<QuestionSummary.Filter> cmbFilter = new ComboBox<>();
+        cmbFilter.getItems().addAll(QuestionSummary.Filter.values());
+        cmbFilter.setValue(filter);
+
+        ListView<QuestionSummary> listView = new ListView<>();
+        // When a row near the end of the loaded items is rendered, fetch the next page.
+        // ListView only creates cells for visible rows, so this fires as the user scrolls.
+        listView.setCellFactory(lv -> new ListCell<QuestionSummary>() {
+            @Override
+            protected void updateItem(QuestionSummary item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item.toString());
+                if (!empty && getIndex() >= lv.getItems().size() - PREFETCH_ROWS) {
+                    requestNextPage(lv);
+                }
+            }
+        });
+        reloadFirstPage(listView);
 
         // Fields to create a new question
         TextField txtQTitle = new TextField();
@@ -51,7 +84,7 @@ public class QuestionsPage {
 
         Button btnBack = new Button("Back to Home Page");
         btnBack.setOnAction(e -> {
-            if ("admin".equalsIgnoreCase(currentUser.getRole())) {
+            if (currentUser.hasRole(Role.ADMIN)) {
                 new AdminHomePage().show(primaryStage, currentUser);
             } else {
                 new UserHomePage().show(primaryStage, currentUser);
@@ -64,7 +97,9 @@ public class QuestionsPage {
         // Searching Q + A
         btnSearch.setOnAction(e -> {
             String keyword = txtSearch.getText();
+            listing++;
             listView.getItems().clear();
+            hasMorePages = false; // search results are not paged
             if (keyword != null && !keyword.isBlank()) {
                 combinedSearch(keyword, listView);
             }
@@ -72,42 +107,54 @@ public class QuestionsPage {
         });
 
         btnRefresh.setOnAction(e -> {
-            listView.getItems().clear();
-            listView.getItems().addAll(questions.getAllQuestions());
+            reloadFirstPage(listView);
             errorLabel.setText("");
         });
 
+        cmbFilter.setOnAction(e -> {
+            filter = cmbFilter.getValue();
+            reloadFirstPage(listView);
+        });
+
         // Add question
         btnAdd.setOnAction(e -> {
-            try {
-                String qTitle = txtQTitle.getText();
-                String qText = txtQText.getText();
+            String qTitle = txtQTitle.getText();
+            String qText = txtQText.getText();
 
-                Question newQ = new Question();
-                newQ.setAuthor(currentUser.getUserName());
-                newQ.setQuestionTitle(qTitle);
-                newQ.setQuestionText(qText);
+            Question newQ = new Question();
+            newQ.setAuthor(currentUser.getUserName());
+            newQ.setQuestionTitle(qTitle);
+            newQ.setQuestionText(qText);
 
+            btnAdd.setDisable(true);
+            scope.write(() -> {
                 questions.addQuestion(newQ);
-
+                return newQ;
+            }, added -> {
+                btnAdd.setDisable(false);
                 txtQTitle.clear();
                 txtQText.clear();
 
                 // Refresh from DB
-                listView.getItems().clear();
-                listView.getItems().addAll(questions.getAllQuestions());
+                reloadFirstPage(listView);
                 errorLabel.setText("");
-            } catch (Exception ex) {
+            }, ex -> {
+                btnAdd.setDisable(false);
                 System.out.println("Error adding question: " + ex.getMessage());
-            }
+            });
         });
 
         // Double-click -> question detail
         listView.setOnMouseClicked(event -> {
             if (event.getClickCount() == 2) {
-                Question selected = listView.getSelectionModel().getSelectedItem();
+                QuestionSummary selected = listView.getSelectionModel().getSelectedItem();
                 if (selected != null) {
-                    new QuestionDetailPage(selected, questions, answers, currentUser).show(primaryStage);
+                    // The list only holds summaries; load the question with its answers to open it
+                    scope.load(() -> QuestionDetailPage.loadView(selected.getQuestionID(), currentUser), view -> {
+                        if (view != null) {
+                            new QuestionDetailPage(view, questions, answers, currentUser).show(primaryStage);
+                        }
+                    });
                 }
                 errorLabel.setText("");
             }
@@ -115,21 +162,21 @@ public class QuestionsPage {
 
         // Delete question
         btnDelete.setOnAction(e -> {
-            Question selected = listView.getSelectionModel().getSelectedItem();
+            QuestionSummary selected = listView.getSelectionModel().getSelectedItem();
             if (selected == null) {
                 errorLabel.setText("No question selected!");
                 return;
             }
 
-            boolean isAdmin = "admin".equalsIgnoreCase(currentUser.getRole());
+            boolean isAdmin = currentUser.hasRole(Role.ADMIN);
             boolean isAuthor = selected.getAuthor().equals(currentUser.getUserName());
 
             if (isAdmin || isAuthor) {
                 errorLabel.setText("");
-                questions.deleteQuestion(selected.getQuestionID());
-                listView.getItems().clear();
-                listView.getItems().addAll(questions.getAllQuestions());
-                System.out.println("Question and related answers deleted successfully.");
+                scope.write(() -> questions.deleteQuestion(selected.getQuestionID()), deleted -> {
+                    listView.getItems().remove(selected);
+                    System.out.println("Question and related answers deleted successfully.");
+                });
             } else {
                 errorLabel.setText("You do not have permission to delete this question!");
             }
@@ -138,6 +185,7 @@ public class QuestionsPage {
         layout.getChildren().addAll(
             lblTitle,
             txtSearch, btnSearch, btnRefresh,
+            cmbFilter,
             listView,
             new Label("Create a New Question:"),
             txtQTitle, txtQText, btnAdd,
@@ -147,43 +195,83 @@ public class QuestionsPage {
         );
 
         Scene scene = new Scene(layout, 600, 550);
+        scope.bindTo(primaryStage, scene);
         primaryStage.setScene(scene);
         primaryStage.setTitle("Questions Management (DB-Backed)");
         primaryStage.show();
     }
 
     /**
-     * Combined search of questions + answers in memory.
-     * If you want to do it purely in SQL, you'd write a join-based query.
+     * Combined search of questions + answers through the search index.
+     * Results come back ranked, with questions matching in the title first.
      */
-    private void combinedSearch(String keyword, ListView<Question> listView) {
-        // 1) Search questions by text
-        List<Question> questionsFound = questions.searchByKeyword(keyword);
-
-        // 2) Search answers for the keyword
-        List<Answer> allAnswers = answers.getAllAnswers();
-        List<Answer> answersFound = allAnswers.stream()
-                .filter(a -> a.getAnswerText().toLowerCase().contains(keyword.toLowerCase()))
-                .collect(Collectors.toList());
-
-        // 3) Get question IDs from those answers
-        Set<Integer> questionIDs = answersFound.stream()
-                .map(Answer::getQuestionID)
-                .collect(Collectors.toSet());
-
-        // 4) For each questionID, retrieve that question
-        for (int qID : questionIDs) {
-            Question q = questions.getQuestionByID(qID);
-            if (q != null) {
-                questionsFound.add(q);
+    private void combinedSearch(String keyword, ListView<QuestionSummary> listView) {
+        int searchListing = listing;
+        listView.setPlaceholder(AsyncData.loadingPlaceholder());
+        scope.load(() -> {
+            List<QuestionSummary> results = new ArrayList<>();
+            for (Question q : questions.search(keyword)) {
+                results.add(QuestionSummary.of(q));
             }
-        }
+            return results;
+        }, results -> {
+            if (searchListing != listing) {
+                return; // another search or reload was started meanwhile
+            }
+            listView.getItems().setAll(results);
+            listView.setPlaceholder(new Label("No matching questions"));
+        });
+    }
+
+    // Clears the list and starts again from the first page.
+    private void reloadFirstPage(ListView<QuestionSummary> listView) {
+        listing++;
+        listView.getItems().clear();
+        listView.setPlaceholder(AsyncData.loadingPlaceholder());
+        lastLoadedID = 0;
+        hasMorePages = true;
+        pageLoading = false;
+        loadNextPage(listView);
+    }
 
-        // 5) Remove duplicates
-        List<Question> uniqueResults = questionsFound.stream()
-                .distinct()
-                .collect(Collectors.toList());
+    // Called from cell rendering, where the item list must not change, so defer the load.
+    private void requestNextPage(ListView<QuestionSummary> listView) {
+        if (!hasMorePages || pageRequested) {
+            return;
+        }
+        pageRequested = true;
+        Platform.runLater(() -> {
+            pageRequested = false;
+            loadNextPage(listView);
+        });
+    }
 
-        listView.getItems().addAll(uniqueResults);
+    private void loadNextPage(ListView<QuestionSummary> listView) {
+        if (!hasMorePages || pageLoading) {
+            return;
+        }
+        pageLoading = true;
+        int pageListing = listing;
+        int afterID = lastLoadedID;
+        QuestionSummary.Filter pageFilter = filter;
+        scope.load(() -> questions.getQuestionsPage(afterID, PAGE_SIZE, pageFilter), page -> {
+            if (pageListing != listing) {
+                return; // the list was reloaded while this page was loading
+            }
+            pageLoading = false;
+            if (!page.isEmpty()) {
+                lastLoadedID = page.get(page.size() - 1).getQuestionID();
+                listView.getItems().addAll(page);
+            }
+            hasMorePages = page.size() == PAGE_SIZE;
+            listView.setPlaceholder(new Label("No questions yet"));
+        }, ex -> {
+            if (pageListing == listing) {
+                pageLoading = false;
+                hasMorePages = false;
+                listView.setPlaceholder(new Label("Could not load questions: " + ex.getMessage()));
+            }
+            ex.printStackTrace();
+        });
     }
 }
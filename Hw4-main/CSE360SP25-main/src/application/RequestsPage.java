@@ -7,7 +7,6 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
-import java.util.List;
 
 public class RequestsPage {
 
@@ -20,13 +19,14 @@ public class RequestsPage {
     }
 
     public void show(Stage primaryStage) {
+        AsyncData.Scope scope = AsyncData.get().scope();
         VBox layout = new VBox(10);
         layout.setStyle("-fx-padding: 20; -fx-alignment: center;");
         Label title = new Label("Requests");
 
-        List<Request> requestList = dbHelper.getAllRequests();
-        ObservableList<Request> obsList = FXCollections.observableArrayList(requestList);
+        ObservableList<Request> obsList = FXCollections.observableArrayList();
         ListView<Request> listView = new ListView<>(obsList);
+        scope.loadInto(listView, dbHelper::getAllRequests);
         listView.setCellFactory(lv -> new ListCell<>() {
             @Override
             protected void updateItem(Request req, boolean empty) {
@@ -42,16 +42,20 @@ public class RequestsPage {
             }
         });
 
-        if (currentUser.getRoles().contains("instructor")) {
+        if (currentUser.hasRole(Role.INSTRUCTOR)) {
             TextArea requestDesc = new TextArea();
             requestDesc.setPromptText("Describe your request here...");
             Button createBtn = new Button("Create Request");
             createBtn.setOnAction(e -> {
                 String desc = requestDesc.getText();
                 if (!desc.isBlank()) {
-                    dbHelper.createRequest(currentUser.getUserName(), desc);
-                    obsList.setAll(dbHelper.getAllRequests());
-                    requestDesc.clear();
+                    scope.write(() -> {
+                        dbHelper.createRequest(currentUser.getUserName(), desc);
+                        return dbHelper.getAllRequests();
+                    }, requests -> {
+                        obsList.setAll(requests);
+                        requestDesc.clear();
+                    });
                 }
             });
 
@@ -59,20 +63,24 @@ public class RequestsPage {
             reopenBtn.setOnAction(e -> {
                 Request selected = listView.getSelectionModel().getSelectedItem();
                 if (selected != null && "CLOSED".equalsIgnoreCase(selected.getStatus())) {
-                    dbHelper.reopenRequest(selected.getRequestId(), "Reopened request with updated details.");
-                    obsList.setAll(dbHelper.getAllRequests());
+                    scope.write(() -> {
+                        dbHelper.reopenRequest(selected.getRequestId(), "Reopened request with updated details.");
+                        return dbHelper.getAllRequests();
+                    }, obsList::setAll);
                 }
             });
             layout.getChildren().addAll(requestDesc, createBtn, reopenBtn);
         }
 
-        if (currentUser.getRoles().contains("admin")) {
+        if (currentUser.hasRole(Role.ADMIN)) {
             Button closeBtn = new Button("Close Selected");
             closeBtn.setOnAction(e -> {
                 Request selected = listView.getSelectionModel().getSelectedItem();
                 if (selected != null && !"CLOSED".equalsIgnoreCase(selected.getStatus())) {
-                    dbHelper.closeRequest(selected.getRequestId(), "Admin closed the request.");
-                    obsList.setAll(dbHelper.getAllRequests());
+                    scope.write(() -> {
+                        dbHelper.closeRequest(selected.getRequestId(), "Admin closed the request.");
+                        return dbHelper.getAllRequests();
+                    }, obsList::setAll);
                 }
             });
             layout.getChildren().add(closeBtn);
@@ -80,17 +88,18 @@ public class RequestsPage {
 
         Button backBtn = new Button("Back");
         backBtn.setOnAction(e -> {
-            if (currentUser.getRoles().contains("admin")) {
+            if (currentUser.hasRole(Role.ADMIN)) {
                 new AdminHomePage().show(primaryStage, currentUser);
-            } else if (currentUser.getRoles().contains("instructor")) {
+            } else if (currentUser.hasRole(Role.INSTRUCTOR)) {
                 new InstructorHomePage(dbHelper, currentUser).show(primaryStage);
-            } else if (currentUser.getRoles().contains("staff")) {
+            } else if (currentUser.hasRole(Role.STAFF)) {
                 new StaffHomePage(dbHelper, currentUser).show(primaryStage);
             }
         });
 
         layout.getChildren().addAll(title, listView, backBtn);
         Scene scene = new Scene(layout, 600, 500);
+        scope.bindTo(primaryStage, scene);
         primaryStage.setScene(scene);
         primaryStage.setTitle("Requests");
         primaryStage.show();
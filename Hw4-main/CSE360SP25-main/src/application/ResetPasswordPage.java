@@ -15,6 +15,7 @@ public class ResetPasswordPage {
     }
 
     public void show(Stage primaryStage) {
+        AsyncData.Scope scope = AsyncData.get().scope();
         VBox layout = new VBox(10);
         layout.setPadding(new Insets(10));
         
@@ -28,12 +29,14 @@ public class ResetPasswordPage {
             String username = usernameField.getText();
             // Generate a temporary password (this is a simple example; use a secure method in production)
             String tempPassword = "TEMP" + System.currentTimeMillis();
-            boolean success = dbHelper.resetPassword(username, tempPassword);
-            if (success) {
-                infoLabel.setText("Temporary password for " + username + ": " + tempPassword);
-            } else {
-                infoLabel.setText("Failed to reset password for " + username);
-            }
+            // resetPassword hashes the new password, so run it off the FX thread
+            scope.write(() -> dbHelper.resetPassword(username, tempPassword), success -> {
+                if (success) {
+                    infoLabel.setText("Temporary password for " + username + ": " + tempPassword);
+                } else {
+                    infoLabel.setText("Failed to reset password for " + username);
+                }
+            });
         });
 
         Button backBtn = new Button("Back");
@@ -41,6 +44,7 @@ public class ResetPasswordPage {
 
         layout.getChildren().addAll(new Label("Reset Password"), usernameField, resetBtn, infoLabel, backBtn);
         Scene scene = new Scene(layout, 600, 400);
+        scope.bindTo(primaryStage, scene);
         primaryStage.setScene(scene);
         primaryStage.setTitle("Reset Password");
         primaryStage.show();
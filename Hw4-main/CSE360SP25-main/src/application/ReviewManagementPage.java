@@ -8,7 +8,6 @@ import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
-import java.util.List;
 
 public class ReviewManagementPage {
 
@@ -23,15 +22,16 @@ public class ReviewManagementPage {
     }
 
     public void show(Stage primaryStage) {
+        AsyncData.Scope scope = AsyncData.get().scope();
         VBox layout = new VBox(10);
         layout.setPadding(new Insets(10));
 
         Label title = new Label("Reviews for Answer ID: " + answer.getAnswerID());
 
         ListView<Review> reviewListView = new ListView<>();
-        ObservableList<Review> reviewsObs = FXCollections.observableArrayList(
-                dbHelper.getReviewsByAnswerId(answer.getAnswerID()));
+        ObservableList<Review> reviewsObs = FXCollections.observableArrayList();
         reviewListView.setItems(reviewsObs);
+        scope.loadInto(reviewListView, () -> dbHelper.getReviewsByAnswerId(answer.getAnswerID()));
 
         reviewListView.setCellFactory(lv -> new ListCell<>() {
             @Override
@@ -59,26 +59,35 @@ public class ReviewManagementPage {
                 newRev.setReviewerUserName(currentUser.getUserName());
                 newRev.setReviewText(text);
                 newRev.setRating(ratingSpinner.getValue());
-                dbHelper.addReview(newRev);
-                reviewsObs.setAll(dbHelper.getReviewsByAnswerId(answer.getAnswerID()));
-                reviewArea.clear();
+                scope.write(() -> {
+                    dbHelper.addReview(newRev);
+                    return dbHelper.getReviewsByAnswerId(answer.getAnswerID());
+                }, reviews -> {
+                    reviewsObs.setAll(reviews);
+                    reviewArea.clear();
+                });
             }
         });
 
         Button backBtn = new Button("Back");
         backBtn.setOnAction(e -> {
-            Question q = StartCSE360.getQuestions().getQuestionByID(answer.getQuestionID());
-            new QuestionDetailPage(q, StartCSE360.getQuestions(), StartCSE360.getAnswers(), currentUser)
-                    .show(primaryStage);
+            // Usually served from the caches the page filled when it was opened
+            scope.load(() -> QuestionDetailPage.loadView(answer.getQuestionID(), currentUser), view -> {
+                if (view != null) {
+                    new QuestionDetailPage(view, StartCSE360.getQuestions(), StartCSE360.getAnswers(), currentUser)
+                            .show(primaryStage);
+                }
+            });
         });
 
         layout.getChildren().addAll(title, reviewListView);
-        if (currentUser.getRoles().contains("reviewer")) {
+        if (currentUser.hasRole(Role.REVIEWER)) {
             layout.getChildren().addAll(reviewArea, ratingSpinner, addReviewBtn);
         }
         layout.getChildren().add(backBtn);
 
         Scene scene = new Scene(layout, 600, 500);
+        scope.bindTo(primaryStage, scene);
         primaryStage.setScene(scene);
         primaryStage.setTitle("Review Management");
         primaryStage.show();
@@ -0,0 +1,43 @@
+package application;
+
+/**
+ * Review aggregates for one answer, as seen by one viewer: how many reviews it has and
+ * their average rating, plus the average over the reviewers the viewer trusts,
+ * weighted by the viewer's trust weights.
+ */
+public class ReviewStats {
+    private int answerId;
+    private int reviewCount;
+    private double averageRating;     // 0 when there are no reviews
+    private int trustedReviewCount;   // reviews by reviewers the viewer trusts
+    private double trustedAverage;    // sum(weight * rating) / sum(weight); 0 when there are none
+
+    public ReviewStats() {
+    }
+
+    // An answer nobody has reviewed.
+    public ReviewStats(int answerId) {
+        this.answerId = answerId;
+    }
+
+    public int getAnswerId() { return answerId; }
+    public void setAnswerId(int answerId) { this.answerId = answerId; }
+
+    public int getReviewCount() { return reviewCount; }
+    public void setReviewCount(int reviewCount) { this.reviewCount = reviewCount; }
+
+    public double getAverageRating() { return averageRating; }
+    public void setAverageRating(double averageRating) { this.averageRating = averageRating; }
+
+    public int getTrustedReviewCount() { return trustedReviewCount; }
+    public void setTrustedReviewCount(int trustedReviewCount) { this.trustedReviewCount = trustedReviewCount; }
+
+    public double getTrustedAverage() { return trustedAverage; }
+    public void setTrustedAverage(double trustedAverage) { this.trustedAverage = trustedAverage; }
+
+    @Override
+    public String toString() {
+        return String.format("%d reviews, avg %.1f (trusted: %d, avg %.1f)",
+                reviewCount, averageRating, trustedReviewCount, trustedAverage);
+    }
+}
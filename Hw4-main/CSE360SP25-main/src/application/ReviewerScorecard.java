@@ -0,0 +1,45 @@
+package application;
+
+import java.time.LocalDateTime;
+
+/**
+ * One reviewer's row of the materialized scorecard table (cse360reviewer_scorecards).
+ * The totals cover every review the reviewer wrote; the score weighs them with the
+ * instructor's scorecard parameters.
+ */
+public class ReviewerScorecard {
+    private String reviewerUserName;
+    private int reviewCount;
+    private long ratingTotal;    // sum of the reviewer's ratings
+    private long upvoteTotal;    // upvotes on the answers they reviewed, once per review
+    private long downvoteTotal;
+    private long score;
+    private LocalDateTime updatedAt;
+
+    public String getReviewerUserName() { return reviewerUserName; }
+    public void setReviewerUserName(String reviewerUserName) { this.reviewerUserName = reviewerUserName; }
+
+    public int getReviewCount() { return reviewCount; }
+    public void setReviewCount(int reviewCount) { this.reviewCount = reviewCount; }
+
+    public long getRatingTotal() { return ratingTotal; }
+    public void setRatingTotal(long ratingTotal) { this.ratingTotal = ratingTotal; }
+
+    public long getUpvoteTotal() { return upvoteTotal; }
+    public void setUpvoteTotal(long upvoteTotal) { this.upvoteTotal = upvoteTotal; }
+
+    public long getDownvoteTotal() { return downvoteTotal; }
+    public void setDownvoteTotal(long downvoteTotal) { this.downvoteTotal = downvoteTotal; }
+
+    public long getScore() { return score; }
+    public void setScore(long score) { this.score = score; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    @Override
+    public String toString() {
+        return reviewerUserName + ": score " + score + " (" + reviewCount + " reviews, ratings " + ratingTotal
+                + ", " + upvoteTotal + "▲ " + downvoteTotal + "▼)";
+    }
+}
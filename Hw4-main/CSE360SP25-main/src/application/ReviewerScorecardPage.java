@@ -0,0 +1,64 @@
+package application;
+
+import databasePart1.DatabaseHelper;
+import databasePart1.ScorecardConfig;
+import java.util.function.Consumer;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+/**
+ * Reviewer scorecards for instructors, best score first. The list is read from the
+ * materialized scorecard table, which is kept current as reviews and votes come in;
+ * "Recompute All" rebuilds it from the reviews table.
+ */
+public class ReviewerScorecardPage {
+
+    private DatabaseHelper dbHelper;
+    private User currentUser;
+
+    public ReviewerScorecardPage(DatabaseHelper dbHelper, User currentUser) {
+        this.dbHelper = dbHelper;
+        this.currentUser = currentUser;
+    }
+
+    public void show(Stage primaryStage) {
+        AsyncData.Scope scope = AsyncData.get().scope();
+        VBox layout = new VBox(10);
+        layout.setPadding(new Insets(10));
+        Label title = new Label("Reviewer Scorecards");
+        Label statusLabel = new Label();
+
+        ListView<ReviewerScorecard> listView = new ListView<>();
+        scope.loadInto(listView, dbHelper::getReviewerScorecards);
+
+        // New weights rescore every scorecard; reload the list if they are saved while it is open
+        Consumer<ScorecardConfig> configListener = config ->
+                scope.post(() -> scope.loadInto(listView, dbHelper::getReviewerScorecards));
+        dbHelper.addScorecardConfigListener(configListener);
+        scope.onClose(() -> dbHelper.removeScorecardConfigListener(configListener));
+
+        Button recomputeBtn = new Button("Recompute All");
+        recomputeBtn.setOnAction(e -> {
+            recomputeBtn.setDisable(true);
+            statusLabel.setText("Recomputing...");
+            scope.write(dbHelper::recomputeScorecards, reviewers -> {
+                recomputeBtn.setDisable(false);
+                statusLabel.setText(reviewers < 0 ? "Recompute failed" : "Recomputed " + reviewers + " reviewers");
+                scope.loadInto(listView, dbHelper::getReviewerScorecards);
+            });
+        });
+
+        Button backBtn = new Button("Back");
+        backBtn.setOnAction(e -> new InstructorHomePage(dbHelper, currentUser).show(primaryStage));
+
+        layout.getChildren().addAll(title, listView, recomputeBtn, statusLabel, backBtn);
+        Scene scene = new Scene(layout, 600, 500);
+        scope.bindTo(primaryStage, scene);
+        primaryStage.setScene(scene);
+        primaryStage.setTitle("Reviewer Scorecards");
+        primaryStage.show();
+    }
+}
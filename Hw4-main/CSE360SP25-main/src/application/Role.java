@@ -0,0 +1,58 @@
+package application;
+
+import java.util.EnumSet;
+import java.util.Locale;
+
+/**
+ * The roles a user can hold. Each role owns one bit, so a user's roles fit in an int
+ * and a role check is a single mask test.
+ *
+ * getName() is the spelling stored in the database (cse360user_roles.role).
+ */
+public enum Role {
+    ADMIN,
+    USER,
+    STUDENT,
+    INSTRUCTOR,
+    STAFF,
+    REVIEWER;
+
+    private final String name = name().toLowerCase(Locale.ROOT);
+
+    public String getName() {
+        return name;
+    }
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    // The role with this name, ignoring case and surrounding spaces, or null if there is none.
+    public static Role fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        String key = name.trim().toLowerCase(Locale.ROOT);
+        for (Role role : values()) {
+            if (role.name.equals(key)) {
+                return role;
+            }
+        }
+        return null;
+    }
+
+    public static EnumSet<Role> fromBits(int bits) {
+        EnumSet<Role> roles = EnumSet.noneOf(Role.class);
+        for (Role role : values()) {
+            if ((bits & role.bit()) != 0) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
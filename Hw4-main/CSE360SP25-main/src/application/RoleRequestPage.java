@@ -27,10 +27,10 @@ public class RoleRequestPage {
 
         requestBtn.setOnAction(e -> {
             // For simplicity, immediately add the reviewer role.
+            // The session manager updates currentUser once the change is stored.
             dbHelper.addRoleToUser(currentUser.getUserName(), "reviewer");
-            statusLabel.setText("You are now a reviewer!");
-            // Update currentUser object.
-            currentUser.setRole(currentUser.getRole() + ",reviewer");
+            statusLabel.setText(currentUser.hasRole(Role.REVIEWER)
+                    ? "You are now a reviewer!" : "Could not add the reviewer role.");
         });
 
         Button backBtn = new Button("Back");
@@ -29,9 +29,8 @@ public class RoleSelectionPage {
         for (String r : roles) {
             Button btn = new Button(r);
             btn.setOnAction(e -> {
-                // Overwrite the user's roles with this single choice.
+                // Overwrite the user's roles with this single choice; the session manager updates user.
                 dbHelper.setSingleRoleForUser(user.getUserName(), r);
-                user.setRole(r);
                 // Navigate to the appropriate home page.
                 if (r.equalsIgnoreCase("admin")) {
                     new AdminHomePage().show(primaryStage, user);
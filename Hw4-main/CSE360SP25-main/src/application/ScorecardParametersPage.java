@@ -1,6 +1,7 @@
 package application;
 
 import databasePart1.DatabaseHelper;
+import databasePart1.ScorecardConfig;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
@@ -17,29 +18,41 @@ public class ScorecardParametersPage {
     }
 
     public void show(Stage primaryStage) {
+        AsyncData.Scope scope = AsyncData.get().scope();
         VBox layout = new VBox(10);
         layout.setStyle("-fx-padding: 20; -fx-alignment: center;");
 
         Label title = new Label("Set Reviewer Scorecard Parameters");
 
-        // Example parameters: upvoteWeight, downvoteWeight, ratingWeight.
-        TextField upvoteField = new TextField();
+        // Parameters: upvoteWeight, downvoteWeight, ratingWeight; filled in from the current snapshot.
+        ScorecardConfig current = dbHelper.getScorecardConfig();
+        TextField upvoteField = new TextField(String.valueOf(current.getUpvoteWeight()));
         upvoteField.setPromptText("Upvote Weight");
-        TextField downvoteField = new TextField();
+        TextField downvoteField = new TextField(String.valueOf(current.getDownvoteWeight()));
         downvoteField.setPromptText("Downvote Weight");
-        TextField ratingField = new TextField();
+        TextField ratingField = new TextField(String.valueOf(current.getRatingWeight()));
         ratingField.setPromptText("Rating Weight");
 
         Button saveBtn = new Button("Save");
         saveBtn.setOnAction(e -> {
-            int upvoteWeight = Integer.parseInt(upvoteField.getText());
-            int downvoteWeight = Integer.parseInt(downvoteField.getText());
-            int ratingWeight = Integer.parseInt(ratingField.getText());
-            dbHelper.setScorecardParam("upvoteWeight", upvoteWeight);
-            dbHelper.setScorecardParam("downvoteWeight", downvoteWeight);
-            dbHelper.setScorecardParam("ratingWeight", ratingWeight);
-            Alert alert = new Alert(Alert.AlertType.INFORMATION, "Parameters saved.");
-            alert.showAndWait();
+            ScorecardConfig config;
+            try {
+                config = new ScorecardConfig(Integer.parseInt(upvoteField.getText().trim()),
+                        Integer.parseInt(downvoteField.getText().trim()),
+                        Integer.parseInt(ratingField.getText().trim()));
+            } catch (NumberFormatException ex) {
+                new Alert(Alert.AlertType.ERROR, "Weights must be whole numbers.").showAndWait();
+                return;
+            }
+            // All three are saved, and the scorecards rescored, in one transaction off the FX thread
+            saveBtn.setDisable(true);
+            scope.write(() -> dbHelper.saveScorecardConfig(config), saved -> {
+                saveBtn.setDisable(false);
+                Alert alert = saved
+                        ? new Alert(Alert.AlertType.INFORMATION, "Parameters saved.")
+                        : new Alert(Alert.AlertType.ERROR, "Parameters could not be saved.");
+                alert.showAndWait();
+            });
         });
 
         Button backBtn = new Button("Back");
@@ -47,6 +60,7 @@ public class ScorecardParametersPage {
 
         layout.getChildren().addAll(title, upvoteField, downvoteField, ratingField, saveBtn, backBtn);
         Scene scene = new Scene(layout, 600, 400);
+        scope.bindTo(primaryStage, scene);
         primaryStage.setScene(scene);
         primaryStage.setTitle("Scorecard Parameters");
         primaryStage.show();
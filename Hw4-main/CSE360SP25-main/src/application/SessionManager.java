@@ -0,0 +1,74 @@
+package application;
+
+import databasePart1.DatabaseHelper;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps the User of every signed-in account, so pages can check roles with
+ * currentUser.hasRole(...) without going back to the database.
+ *
+ * The manager listens for role changes made through DatabaseHelper (addRoleToUser,
+ * setSingleRoleForUser, deleteUser) and updates the cached User in place. Pages all
+ * hold that same object, so none of them keeps seeing roles that were taken away.
+ */
+public class SessionManager {
+
+    private final DatabaseHelper dbHelper;
+    private final Map<String, User> sessions = new ConcurrentHashMap<>();
+    private final BiConsumer<String, String> listener = this::rolesChanged;
+
+    public SessionManager(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+        dbHelper.addRoleChangeListener(listener);
+    }
+
+    /**
+     * Starts (or replaces) the session of an authenticated or newly registered user.
+     * The returned User has no password and is the object pages should pass around.
+     */
+    public User start(User user) {
+        User session = new User(user.getUserName(), "", user.getRole());
+        sessions.put(user.getUserName(), session);
+        return session;
+    }
+
+    // The signed-in user with this name, or null if they have no session.
+    public User get(String userName) {
+        return sessions.get(userName);
+    }
+
+    public boolean isActive(String userName) {
+        return sessions.containsKey(userName);
+    }
+
+    public void end(String userName) {
+        sessions.remove(userName);
+    }
+
+    public int getActiveCount() {
+        return sessions.size();
+    }
+
+    // Stops listening to the DatabaseHelper; used when the helper outlives the manager (tests).
+    public void close() {
+        dbHelper.removeRoleChangeListener(listener);
+        sessions.clear();
+    }
+
+    private void rolesChanged(String userName, String roles) {
+        if (roles == null) {
+            // Deleted account: drop the session and leave the held User with no permissions
+            User removed = sessions.remove(userName);
+            if (removed != null) {
+                removed.setRole(null);
+            }
+            return;
+        }
+        User session = sessions.get(userName);
+        if (session != null) {
+            session.setRole(roles);
+        }
+    }
+}
@@ -6,8 +6,6 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 
-import java.sql.SQLException;
-
 import databasePart1.*;
 
 /**
@@ -60,75 +58,78 @@ public class SetupAccountPage {
             updatePasswordFeedback(newValue, labelUpperCase, labelLowerCase, labelNumeric, labelSpecial, labelLength);
         });
         
+        AsyncData.Scope scope = AsyncData.get().scope();
         setupButton.setOnAction(a -> {
         	// Retrieve user input
             String userName = userNameField.getText();
             String password = passwordField.getText();
             String code = inviteCodeField.getText();
             
-            String passwordValidationResult = PasswordEvaluator.evaluatePassword(password);
+            PasswordEvaluation passwordEvaluation = PasswordEvaluator.evaluate(password);
             
             // If user still tries to set up account with an invalid password,
             // we will push an errorLabel mentioning that it does not meet requirements. 
-            if (!passwordValidationResult.isEmpty()) {
+            if (!passwordEvaluation.isValid()) {
             	errorLabel.setText("Password does not meet the requirements!!!");
                 return;
             }
             
-            try {
-            	// Check if the user already exists
-            	if(!databaseHelper.doesUserExist(userName)) {
-            		
-            		// Checks whether user name is valid by cross checking if the error
-            		// output is empty
-            		if (UserNameRecognizer.checkForValidUserName(userName) == "") {
-            		
-	            		// Validate the invitation code
-	            		if(databaseHelper.validateInvitationCode(code)) {
-	            			
-	            			// Create a new user and register them in the database
-			            	User user=new User(userName, password, "user");
-			                databaseHelper.register(user);
-			                
-			             // Navigate to the Welcome Login Page
-			                new WelcomeLoginPage(databaseHelper).show(primaryStage,user);
-	            		}
-	            		else {
-	            			errorLabel.setText("Please enter a valid invitation code");
-	            		}
-            		} 
-            		else { // Else it will print the error message for invalid user name
-            			errorLabel.setText(UserNameRecognizer.checkForValidUserName(userName));
-            		}
+            // Checks whether user name is valid by cross checking if the error
+            // output is empty
+            UserNameValidation userNameValidation = UserNameRecognizer.recognize(userName);
+            if (!userNameValidation.isValid()) {
+            	errorLabel.setText(userNameValidation.getErrorMessage());
+            	return;
+            }
+            
+            // Create the user and redeem the invitation code together, so a failed
+            // registration does not use up the code. Hashing the password takes a
+            // moment, so this runs off the FX thread.
+            User user=new User(userName, password, "user");
+            setupButton.setDisable(true);
+            scope.write(() -> {
+            	if (databaseHelper.doesUserExist(userName)) {
+            		return "This useruserName is taken!!.. Please use another to setup an account";
             	}
-            	else {
-            		errorLabel.setText("This useruserName is taken!!.. Please use another to setup an account");
+            	if (!databaseHelper.registerWithInvitation(user, code)) {
+            		return "Please enter a valid invitation code";
             	}
-            	
-            } catch (SQLException e) {
-                System.err.println("Database error: " + e.getMessage());
-                e.printStackTrace();
-            }
+            	return null;
+            }, error -> {
+            	if (error != null) {
+            		setupButton.setDisable(false);
+            		errorLabel.setText(error);
+            		return;
+            	}
+            	// Navigate to the Welcome Login Page
+            	new WelcomeLoginPage(databaseHelper).show(primaryStage,StartCSE360.getSessionManager().start(user));
+            }, e -> {
+            	setupButton.setDisable(false);
+            	System.err.println("Database error: " + e.getMessage());
+            	e.printStackTrace();
+            });
         });
 
         VBox layout = new VBox(10);
         layout.setStyle("-fx-padding: 20; -fx-alignment: center;");
         layout.getChildren().addAll(userNameField, passwordField,inviteCodeField, labelRequirements, labelUpperCase, labelLowerCase, labelNumeric, labelSpecial, labelLength, setupButton, errorLabel);
 
-        primaryStage.setScene(new Scene(layout, 800, 400));
+        Scene scene = new Scene(layout, 800, 400);
+        scope.bindTo(primaryStage, scene);
+        primaryStage.setScene(scene);
         primaryStage.setTitle("Account Setup");
         primaryStage.show();
     }
     
     // This updates the feedback labels for the password requirements in real time as the user types
     private void updatePasswordFeedback(String password, Label labelUpperCase, Label labelLowerCase, Label labelNumeric, Label labelSpecial, Label labelLength) {
-		PasswordEvaluator.evaluatePassword(password);
+		PasswordEvaluation evaluation = PasswordEvaluator.evaluate(password);
 		
-		labelUpperCase.setTextFill(PasswordEvaluator.foundUpperCase ? Color.GREEN : Color.RED);
-		labelLowerCase.setTextFill(PasswordEvaluator.foundLowerCase ? Color.GREEN : Color.RED);
-		labelNumeric.setTextFill(PasswordEvaluator.foundNumericDigit ? Color.GREEN : Color.RED);
-		labelSpecial.setTextFill(PasswordEvaluator.foundSpecialChar ? Color.GREEN : Color.RED);
-		labelLength.setTextFill(PasswordEvaluator.foundLongEnough ? Color.GREEN : Color.RED);
+		labelUpperCase.setTextFill(evaluation.hasUpperCase() ? Color.GREEN : Color.RED);
+		labelLowerCase.setTextFill(evaluation.hasLowerCase() ? Color.GREEN : Color.RED);
+		labelNumeric.setTextFill(evaluation.hasNumericDigit() ? Color.GREEN : Color.RED);
+		labelSpecial.setTextFill(evaluation.hasSpecialChar() ? Color.GREEN : Color.RED);
+		labelLength.setTextFill(evaluation.isLongEnough() ? Color.GREEN : Color.RED);
 	}
 
 }
\ No newline at end of file
@@ -32,6 +32,7 @@ public class StaffHomePage {
 
         Button logoutBtn = new Button("Logout");
         logoutBtn.setOnAction(e -> {
+            StartCSE360.getSessionManager().end(currentUser.getUserName());
             new SetupLoginSelectionPage(dbHelper).show(primaryStage);
         });
 
@@ -17,6 +17,7 @@ public class StartCSE360 extends Application {
     // Database-backed managers for questions and answers
     private static Questions questions;
     private static Answers answers;
+    private static final SessionManager sessions = new SessionManager(databaseHelper);
 
     public static void main(String[] args) {
         launch(args);
@@ -28,6 +29,9 @@ public class StartCSE360 extends Application {
             // Connect to H2 database
             databaseHelper.connectToDatabase();
 
+            // Calibrate password hashing in the background while the first page is shown
+            AsyncData.get().supply(databaseHelper::getPasswordHasher);
+
             // Instantiate DB-based managers
             questions = new Questions(databaseHelper);
             answers = new Answers(databaseHelper);
@@ -57,6 +61,13 @@ public class StartCSE360 extends Application {
         return answers;
     }
 
+    /**
+     * Returns the sessions of the signed-in users.
+     */
+    public static SessionManager getSessionManager() {
+        return sessions;
+    }
+
     /**
      * Returns the singleton DatabaseHelper instance.
      */
@@ -8,7 +8,6 @@ import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
-import java.util.List;
 
 public class TrustedReviewersPage {
 
@@ -22,12 +21,13 @@ public class TrustedReviewersPage {
 
     public void show(Stage primaryStage) {
         // Ensure that only an admin can access this page.
-        if (!currentUser.getRoles().contains("admin")) {
+        if (!currentUser.hasRole(Role.ADMIN)) {
             Alert alert = new Alert(Alert.AlertType.ERROR, "You do not have permission to view this page.");
             alert.showAndWait();
             return;
         }
         
+        AsyncData.Scope scope = AsyncData.get().scope();
         VBox layout = new VBox(10);
         layout.setPadding(new Insets(10));
         Label title = new Label("Manage Trusted Reviewers for a Student");
@@ -58,8 +58,8 @@ public class TrustedReviewersPage {
             if (owner == null || owner.isBlank()) {
                 return;
             }
-            List<TrustedReviewer> list = dbHelper.getTrustedReviewers(owner);
-            observableList.setAll(list);
+            observableList.clear();
+            scope.loadInto(listView, () -> dbHelper.getTrustedReviewers(owner));
         });
 
         // UI to add a new trusted reviewer for the student.
@@ -74,17 +74,24 @@ public class TrustedReviewersPage {
             if (owner.isBlank() || reviewer.isBlank()) {
                 return;
             }
-            dbHelper.addOrUpdateTrustedReviewer(owner, reviewer, weight);
-            observableList.setAll(dbHelper.getTrustedReviewers(owner));
-            reviewerField.clear();
+            scope.write(() -> {
+                dbHelper.addOrUpdateTrustedReviewer(owner, reviewer, weight);
+                return dbHelper.getTrustedReviewers(owner);
+            }, reviewers -> {
+                observableList.setAll(reviewers);
+                reviewerField.clear();
+            });
         });
 
         Button removeBtn = new Button("Remove Selected");
         removeBtn.setOnAction(e -> {
             TrustedReviewer sel = listView.getSelectionModel().getSelectedItem();
             if (sel != null) {
-                dbHelper.removeTrustedReviewer(studentField.getText(), sel.getReviewerUserName());
-                observableList.setAll(dbHelper.getTrustedReviewers(studentField.getText()));
+                String owner = studentField.getText();
+                scope.write(() -> {
+                    dbHelper.removeTrustedReviewer(owner, sel.getReviewerUserName());
+                    return dbHelper.getTrustedReviewers(owner);
+                }, observableList::setAll);
             }
         });
 
@@ -95,6 +102,7 @@ public class TrustedReviewersPage {
 
         layout.getChildren().addAll(title, studentField, loadBtn, listView, reviewerField, weightSpinner, addBtn, removeBtn, backBtn);
         Scene scene = new Scene(layout, 600, 500);
+        scope.bindTo(primaryStage, scene);
         primaryStage.setScene(scene);
         primaryStage.setTitle("Trusted Reviewers Management");
         primaryStage.show();
@@ -1,19 +1,34 @@
 package application;
 
-import java.util.Arrays;
-import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
 
 public class User {
     private String userName;
     private String password;
-    // Roles stored as a comma-separated string (e.g., "admin,student")
-    private String role; 
+    // Roles stored as a comma-separated string (e.g., "admin,student"), parsed once
+    // whenever they change. One volatile snapshot, because SessionManager may refresh
+    // the roles from another thread while a page is checking them.
+    private volatile Roles roles;
+
+    private static final class Roles {
+        final String role;
+        final List<String> names;
+        final int bits;
+
+        Roles(String role, List<String> names, int bits) {
+            this.role = role;
+            this.names = names;
+            this.bits = bits;
+        }
+    }
 
     public User(String userName, String password, String role) {
         this.userName = userName;
         this.password = password;
-        this.role = role;
+        this.roles = parseRoles(role);
     }
     
     public String getUserName() {
@@ -24,26 +39,57 @@ public class User {
         return password;
     }
     
-    // Returns roles as a list.
+    // Returns roles as a read-only list, in the order they were stored.
     public List<String> getRoles() {
-        if (role == null || role.isEmpty()) {
-            return new ArrayList<>();
-        }
-        return Arrays.asList(role.split(","));
+        return roles.names;
     }
     
     // Returns the entire role string.
     public String getRole() { 
-        return role; 
+        return roles.role; 
+    }
+
+    // Returns the known roles as a set; names that are not a Role are left out.
+    public EnumSet<Role> getRoleSet() {
+        return Role.fromBits(roles.bits);
+    }
+
+    public boolean hasRole(Role r) {
+        return r != null && (roles.bits & r.bit()) != 0;
+    }
+
+    // Exact (case-insensitive) match on a role name, so "reviewer" does not match "superreviewer".
+    public boolean hasRole(String name) {
+        return hasRole(Role.fromName(name));
     }
     
     // Set roles from a list.
     public void setRoles(List<String> roles) {
-        this.role = String.join(",", roles);
+        setRole(String.join(",", roles));
     }
     
     // Convenience setter for a single role.
     public void setRole(String role) {
-        this.role = role;
+        this.roles = parseRoles(role);
+    }
+
+    // Splits the comma-separated role string, dropping blanks and repeats.
+    private static Roles parseRoles(String role) {
+        List<String> names = new ArrayList<>();
+        int bits = 0;
+        if (role != null) {
+            for (String part : role.split(",")) {
+                String name = part.trim();
+                if (name.isEmpty() || names.contains(name)) {
+                    continue;
+                }
+                names.add(name);
+                Role known = Role.fromName(name);
+                if (known != null) {
+                    bits |= known.bit();
+                }
+            }
+        }
+        return new Roles(role, Collections.unmodifiableList(names), bits);
     }
 }
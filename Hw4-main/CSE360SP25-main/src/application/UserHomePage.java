@@ -32,14 +32,23 @@ public class UserHomePage {
         messagingBtn.setOnAction(e -> {
             new MessagingPage(StartCSE360.getDatabaseHelper(), user).show(primaryStage);
         });
+        // Unread badge: one lookup in the unread counter table
+        AsyncData.Scope scope = AsyncData.get().scope();
+        scope.load(() -> StartCSE360.getDatabaseHelper().getUnreadCount(user.getUserName()), unread -> {
+            if (unread > 0) {
+                messagingBtn.setText("Messaging Center (" + unread + " unread)");
+            }
+        });
 
         Button logoutBtn = new Button("Logout");
         logoutBtn.setOnAction(e -> {
+            StartCSE360.getSessionManager().end(user.getUserName());
             new SetupLoginSelectionPage(StartCSE360.getDatabaseHelper()).show(primaryStage);
         });
 
         layout.getChildren().addAll(userLabel, manageQuestionsBtn, requestReviewerBtn, messagingBtn, logoutBtn);
         Scene userScene = new Scene(layout, 800, 400);
+        scope.bindTo(primaryStage, userScene);
         primaryStage.setScene(userScene);
         primaryStage.setTitle("HomePage");
     }
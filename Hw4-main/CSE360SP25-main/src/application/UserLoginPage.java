@@ -5,8 +5,6 @@ import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
-import java.sql.SQLException;
-
 import databasePart1.*;
 
 /**
@@ -38,43 +36,38 @@ public class UserLoginPage {
 
         Button loginButton = new Button("Login");
         
+        AsyncData.Scope scope = AsyncData.get().scope();
         loginButton.setOnAction(a -> {
         	// Retrieve user inputs
             String userName = userNameField.getText();
             String password = passwordField.getText();
-            try {
-            	User user=new User(userName, password, "");
-            	WelcomeLoginPage welcomeLoginPage = new WelcomeLoginPage(databaseHelper);
-            	
-            	// Retrieve the user's role from the database using userName
-            	String role = databaseHelper.getUserRole(userName);
-            	
-            	if(role!=null) {
-            		user.setRole(role);
-            		if(databaseHelper.login(user)) {
-            			welcomeLoginPage.show(primaryStage,user);
-            		}
-            		else {
-            			// Display an error if the login fails
-                        errorLabel.setText("Error logging in");
-            		}
+            loginButton.setDisable(true);
+            errorLabel.setText("");
+
+            // One query for the hash and roles; the slow hash check runs off the FX thread
+            scope.load(() -> databaseHelper.authenticate(userName, password), user -> {
+            	loginButton.setDisable(false);
+            	if(user!=null) {
+            		new WelcomeLoginPage(databaseHelper).show(primaryStage,StartCSE360.getSessionManager().start(user));
             	}
             	else {
-            		// Display an error if the account does not exist
-                    errorLabel.setText("user account doesn't exists");
+            		// Same message for unknown names and wrong passwords
+                    errorLabel.setText("Invalid user name or password");
             	}
-            	
-            } catch (SQLException e) {
+            }, e -> {
+            	loginButton.setDisable(false);
                 System.err.println("Database error: " + e.getMessage());
                 e.printStackTrace();
-            } 
+            });
         });
 
         VBox layout = new VBox(10);
         layout.setStyle("-fx-padding: 20; -fx-alignment: center;");
         layout.getChildren().addAll(userNameField, passwordField, loginButton, errorLabel);
 
-        primaryStage.setScene(new Scene(layout, 800, 400));
+        Scene scene = new Scene(layout, 800, 400);
+        scope.bindTo(primaryStage, scene);
+        primaryStage.setScene(scene);
         primaryStage.setTitle("User Login");
         primaryStage.show();
     }
@@ -7,7 +7,6 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
-import java.util.List;
 
 public class UserManagementPage {
 
@@ -18,15 +17,16 @@ public class UserManagementPage {
     }
 
     public void show(Stage primaryStage) {
+        AsyncData.Scope scope = AsyncData.get().scope();
         VBox layout = new VBox(10);
         layout.setPadding(new Insets(10));
         Label title = new Label("User Management");
 
-        // ListView to display users.
+        // ListView to display users, filled in once they have loaded.
         ListView<User> userListView = new ListView<>();
-        List<User> users = dbHelper.getAllUsers(); // Ensure getAllUsers() exists in DatabaseHelper.
-        ObservableList<User> userObservableList = FXCollections.observableArrayList(users);
+        ObservableList<User> userObservableList = FXCollections.observableArrayList();
         userListView.setItems(userObservableList);
+        scope.loadInto(userListView, dbHelper::getAllUsers);
 
         // Customize list cell to show username and roles.
         userListView.setCellFactory(listView -> new ListCell<User>() {
@@ -47,8 +47,8 @@ public class UserManagementPage {
             User selected = userListView.getSelectionModel().getSelectedItem();
             if (selected == null) return;
             // Prevent deletion of the only admin.
-            if (selected.getRole().contains("admin")) {
-                long adminCount = users.stream().filter(u -> u.getRole().contains("admin")).count();
+            if (selected.hasRole(Role.ADMIN)) {
+                long adminCount = userObservableList.stream().filter(u -> u.hasRole(Role.ADMIN)).count();
                 if (adminCount <= 1) {
                     Alert alert = new Alert(Alert.AlertType.ERROR, "Cannot delete the only admin!");
                     alert.showAndWait();
@@ -60,8 +60,10 @@ public class UserManagementPage {
                     ButtonType.YES, ButtonType.CANCEL);
             confirm.showAndWait().ifPresent(response -> {
                 if (response == ButtonType.YES) {
-                    dbHelper.deleteUser(selected.getUserName());
-                    userObservableList.remove(selected);
+                    scope.write(() -> {
+                        dbHelper.deleteUser(selected.getUserName());
+                        return selected;
+                    }, userObservableList::remove);
                 }
             });
         });
@@ -71,6 +73,7 @@ public class UserManagementPage {
 
         layout.getChildren().addAll(title, userListView, deleteBtn, backBtn);
         Scene scene = new Scene(layout, 600, 400);
+        scope.bindTo(primaryStage, scene);
         primaryStage.setScene(scene);
         primaryStage.setTitle("User Management");
         primaryStage.show();
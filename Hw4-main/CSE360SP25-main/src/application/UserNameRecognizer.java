@@ -16,6 +16,7 @@ public class UserNameRecognizer {
 	 * @version 1.00		2024-09-13	Initial baseline derived from the Even Recognizer
 	 * @version 1.01		2024-09-17	Correction to address UNChar coding error, improper error
 	 * 									message, and improve internal documentation
+	 * @version 1.10		2026-10-18	Reentrant table-driven recognize() returning a UserNameValidation
 	 * 
 	 */
 
@@ -24,243 +25,137 @@ public class UserNameRecognizer {
 	 * Result attributes to be used for GUI applications where a detailed error message and a 
 	 * pointer to the character of the error will enhance the user experience.
 	 * 
+	 * These are only set by the compatibility method checkForValidUserName and are shared by
+	 * every caller.  New code should use recognize, which returns a UserNameValidation.
+	 * 
 	 */
 
 	public static String userNameRecognizerErrorMessage = "";	// The error message text
 	public static String userNameRecognizerInput = "";			// The input being processed
 	public static int userNameRecognizerIndexofError = -1;		// The index of error location
-	private static int state = 0;						// The current state value
-	private static int nextState = 0;					// The next state value
-	private static boolean finalState = false;			// Is this state a final state?
-	private static String inputLine = "";				// The input line
-	private static char currentChar;					// The current character in the line
-	private static int currentCharNdx;					// The index of the current character
-	private static boolean running;						// The flag that specifies if the FSM is 
-														// running
-	private static int userNameSize = 0;			// A numeric value may not exceed 16 characters
 
-	// Private method to display debugging data
-	private static void displayDebuggingInfo() {
-		// Display the current state of the FSM as part of an execution trace
-		if (currentCharNdx >= inputLine.length())
-			// display the line with the current state numbers aligned
-			System.out.println(((state > 99) ? " " : (state > 9) ? "  " : "   ") + state + 
-					((finalState) ? "       F   " : "           ") + "None");
-		else
-			System.out.println(((state > 99) ? " " : (state > 9) ? "  " : "   ") + state + 
-				((finalState) ? "       F   " : "           ") + "  " + currentChar + " " + 
-				((nextState > 99) ? "" : (nextState > 9) || (nextState == -1) ? "   " : "    ") + 
-				nextState + "     " + userNameSize);
-	}
-	
-	// Private method to move to the next character within the limits of the input line
-	private static void moveToNextCharacter() {
-		currentCharNdx++;
-		if (currentCharNdx < inputLine.length())
-			currentChar = inputLine.charAt(currentCharNdx);
-		else {
-			currentChar = ' ';
-			running = false;
-		}
+	private static final int MIN_SIZE = 4;				// A UserName needs at least 4 characters
+	private static final int MAX_SIZE = 16;				// and may not exceed 16 characters
+
+	/**********************************************************************************************
+	 * 
+	 * The Finite State Machine as tables.  Every input character is first mapped to a character
+	 * class, and the transition table gives the next state for each (state, class) pair.
+	 * 
+	 * 	State 0: start (not final)		A-Z, a-z -> 1
+	 * 	State 1: in a name (final)		A-Z, a-z, 0-9 -> 1		. - _ -> 2
+	 * 	State 2: after a separator		A-Z, a-z, 0-9 -> 1
+	 * 
+	 */
+
+	private static final int LETTER = 0;
+	private static final int DIGIT = 1;
+	private static final int SEPARATOR = 2;
+	private static final int OTHER = 3;
+
+	private static final int HALT = -1;
+
+	private static final int[][] TRANSITIONS = {
+		//	LETTER	DIGIT	SEPARATOR	OTHER
+		{	1,		HALT,	HALT,		HALT },		// State 0
+		{	1,		1,		2,			HALT },		// State 1
+		{	1,		1,		HALT,		HALT },		// State 2
+	};
+
+	// Character class of every ASCII character; anything else is OTHER
+	private static final byte[] CHAR_CLASS = new byte[128];
+
+	static {
+		java.util.Arrays.fill(CHAR_CLASS, (byte) OTHER);
+		for (char c = 'A'; c <= 'Z'; c++) CHAR_CLASS[c] = LETTER;
+		for (char c = 'a'; c <= 'z'; c++) CHAR_CLASS[c] = LETTER;
+		for (char c = '0'; c <= '9'; c++) CHAR_CLASS[c] = DIGIT;
+		CHAR_CLASS['.'] = SEPARATOR;
+		CHAR_CLASS['-'] = SEPARATOR;
+		CHAR_CLASS['_'] = SEPARATOR;
 	}
 
 	/**********
-	 * This method is a mechanical transformation of a Finite State Machine diagram into a Java
-	 * method.
+	 * Runs the Finite State Machine over the input using the transition table.  All of the state
+	 * is local, so this can be called from any number of threads at once, and a valid user name
+	 * is checked without allocating anything.
 	 * 
 	 * @param input		The input string for the Finite State Machine
-	 * @return			An output string that is empty if every things is okay or it is a String
-	 * 						with a helpful description of the error
+	 * @return			UserNameValidation.VALID, or the reason and index of the error
 	 */
-	public static String checkForValidUserName(String input) {
+	public static UserNameValidation recognize(String input) {
 		// Check to ensure that there is input to process
-		if(input.length() <= 0) {
-			userNameRecognizerIndexofError = 0;	// Error at first character;
-			return "\n*** ERROR *** The input is empty";
-		}
-		
-		// The local variables used to perform the Finite State Machine simulation
-		state = 0;							// This is the FSM state number
-		inputLine = input;					// Save the reference to the input line as a global
-		currentCharNdx = 0;					// The index of the current character
-		currentChar = input.charAt(0);		// The current character from above indexed position
-
-		// The Finite State Machines continues until the end of the input is reached or at some 
-		// state the current character does not match any valid transition to a next state
-
-		userNameRecognizerInput = input;	// Save a copy of the input
-		running = true;						// Start the loop
-		nextState = -1;						// There is no next state
-		System.out.println("\nCurrent Final Input  Next  Date\nState   State Char  State  Size");
-		
-		// This is the place where semantic actions for a transition to the initial state occur
-		
-		userNameSize = 0;					// Initialize the UserName size
-
-		// The Finite State Machines continues until the end of the input is reached or at some 
-		// state the current character does not match any valid transition to a next state
-		while (running) {
-			// The switch statement takes the execution to the code for the current state, where
-			// that code sees whether or not the current character is valid to transition to a
-			// next state
-			switch (state) {
-			case 0: 
-				// State 0 has 1 valid transition that is addressed by an if statement.
-				
-				// The current character is checked against A-Z, a-z. If any are matched
-				// the FSM goes to state 1
-				
-				// A-Z, a-z -> State 1
-				if ((currentChar >= 'A' && currentChar <= 'Z' ) ||		// Check for A-Z
-						(currentChar >= 'a' && currentChar <= 'z' )) {	// Check for a-z
-					nextState = 1;
-					
-					// Count the character 
-					userNameSize++;
-					
-					// This only occurs once, so there is no need to check for the size getting
-					// too large.
-				}
-				// If it is none of those characters, the FSM halts
-				else 
-					running = false;
-				
-				// The execution of this state is finished
+		if (input == null || input.length() <= 0)
+			return new UserNameValidation(UserNameValidation.Code.EMPTY, 0);
+
+		int state = 0;
+		int currentCharNdx = 0;
+		int length = input.length();
+		while (currentCharNdx < length) {
+			char currentChar = input.charAt(currentCharNdx);
+			int charClass = currentChar < 128 ? CHAR_CLASS[currentChar] : OTHER;
+			int nextState = TRANSITIONS[state][charClass];
+			if (nextState == HALT)
 				break;
-			
-			case 1: 
-				// State 1 has two valid transitions, 
-				//	1: a A-Z, a-z, 0-9 that transitions back to state 1
-				//  2: a period that transitions to state 2 
-
-				
-				// A-Z, a-z, 0-9 -> State 1
-				if ((currentChar >= 'A' && currentChar <= 'Z' ) ||		// Check for A-Z
-						(currentChar >= 'a' && currentChar <= 'z' ) ||	// Check for a-z
-						(currentChar >= '0' && currentChar <= '9' )) {	// Check for 0-9
-					nextState = 1;
-					
-					// Count the character
-					userNameSize++;
-				}
-				// '.' or '-' or '_' -> State 2
-				else if (currentChar == '.' || currentChar == '_' || currentChar == '-') {							// Check for /
-					nextState = 2;
-					
-					// Count the .
-					userNameSize++;
-				}				
-				// If it is none of those characters, the FSM halts
-				else
-					running = false;
-				
-				// The execution of this state is finished
-				// If the size is larger than 16, the loop must stop
-				if (userNameSize > 16)
-					running = false;
-				break;			
-				
-			case 2: 
-				// State 2 deals with a character after a period in the name.
-				
-				// A-Z, a-z, 0-9 -> State 1
-				if ((currentChar >= 'A' && currentChar <= 'Z' ) ||		// Check for A-Z
-						(currentChar >= 'a' && currentChar <= 'z' ) ||	// Check for a-z
-						(currentChar >= '0' && currentChar <= '9' )) {	// Check for 0-9
-					nextState = 1;
-					
-					// Count the odd digit
-					userNameSize++;
-					
-				}
-				// If it is none of those characters, the FSM halts
-				else 
-					running = false;
-
-				// The execution of this state is finished
-				// If the size is larger than 16, the loop must stop
-				if (userNameSize > 16)
-					running = false;
-				break;			
-			}
-			
-			if (running) {
-				displayDebuggingInfo();
-				// When the processing of a state has finished, the FSM proceeds to the next
-				// character in the input and if there is one, it fetches that character and
-				// updates the currentChar.  If there is no next character the currentChar is
-				// set to a blank.
-				moveToNextCharacter();
-
-				// Move to the next state
-				state = nextState;
-				
-				// Is the new state a final state?  If so, signal this fact.
-				if (state == 1) finalState = true;
-
-				// Ensure that one of the cases sets this to a valid value
-				nextState = -1;
-			}
-			// Should the FSM get here, the loop starts again
-	
+			// Every transition counts one character, so the size so far is currentCharNdx + 1.
+			// The FSM halts in its current state on the character that makes the name too long.
+			if (currentCharNdx >= MAX_SIZE)
+				break;
+			state = nextState;
+			currentCharNdx++;
 		}
-		displayDebuggingInfo();
-		
-		System.out.println("The loop has ended.");
-		
-		// When the FSM halts, we must determine if the situation is an error or not.  That depends
-		// of the current state of the FSM and whether or not the whole string has been consumed.
-		// This switch directs the execution to separate code for each of the FSM states and that
-		// makes it possible for this code to display a very specific error message to improve the
-		// user experience.
-		userNameRecognizerIndexofError = currentCharNdx;	// Set index of a possible error;
-		userNameRecognizerErrorMessage = "\n*** ERROR *** ";
-		
-		// The following code is a slight variation to support just console output.
+
+		// When the FSM halts, the state and the number of characters consumed decide whether the
+		// situation is an error and which specific error message to give
 		switch (state) {
 		case 0:
-			// State 0 is not a final state, so we can return a very specific error message
-			userNameRecognizerErrorMessage += "A UserName must start with A-Z or a-z.\n";
-			return userNameRecognizerErrorMessage;
-
+			// State 0 is not a final state
+			return new UserNameValidation(UserNameValidation.Code.INVALID_START, currentCharNdx);
 		case 1:
-			// State 1 is a final state.  Check to see if the UserName length is valid.  If so we
-			// we must ensure the whole string has been consumed.
-
-			if (userNameSize < 4) {
-				// UserName is too small
-				userNameRecognizerErrorMessage += "A UserName must have at least 4 characters.\n";
-				return userNameRecognizerErrorMessage;
-			}
-			else if (userNameSize > 16) {
-				// UserName is too long
-				userNameRecognizerErrorMessage += 
-					"A UserName must have no more than 16 character.\n";
-				return userNameRecognizerErrorMessage;
-			}
-			else if (currentCharNdx < input.length()) {
-				// There are characters remaining in the input, so the input is not valid
-				userNameRecognizerErrorMessage += 
-					"A UserName character may only contain the characters A-Z, a-z, 0-9.\n";
-				return userNameRecognizerErrorMessage;
-			}
-			else {
-					// UserName is valid
-					userNameRecognizerIndexofError = -1;
-					userNameRecognizerErrorMessage = "";
-					return userNameRecognizerErrorMessage;
-			}
-
-		case 2:
-			// State 2 is not a final state, so we can return a very specific error message
-			userNameRecognizerErrorMessage +=
-				"A UserName character after a period (.), dash (-), or underscore (_), must be A-Z, a-z, 0-9.\n";
-			return userNameRecognizerErrorMessage;
-			
+			// State 1 is a final state.  Check the size, then that the whole string was consumed
+			if (currentCharNdx < MIN_SIZE)
+				return new UserNameValidation(UserNameValidation.Code.TOO_SHORT, currentCharNdx);
+			if (currentCharNdx >= MAX_SIZE && currentCharNdx < length && isNameChar(input.charAt(currentCharNdx)))
+				return new UserNameValidation(UserNameValidation.Code.TOO_LONG, currentCharNdx);
+			if (currentCharNdx < length)
+				return new UserNameValidation(UserNameValidation.Code.INVALID_CHARACTER, currentCharNdx);
+			return UserNameValidation.VALID;
 		default:
-			// This is for the case where we have a state that is outside of the valid range.
-			// This should not happen
-			return "";
+			// State 2 is not a final state
+			return new UserNameValidation(UserNameValidation.Code.INVALID_AFTER_SEPARATOR, currentCharNdx);
 		}
 	}
-}
\ No newline at end of file
+
+	// True for a character that state 1 would accept (letter, digit or separator)
+	private static boolean isNameChar(char c) {
+		return c < 128 && CHAR_CLASS[c] != OTHER;
+	}
+
+	/**********
+	 * Checks many user names, e.g. an imported class roster.  Since recognize is reentrant,
+	 * large lists are checked in parallel.
+	 * 
+	 * @param inputs	The user names to check
+	 * @return			One result per input, in the same order
+	 */
+	public static java.util.List<UserNameValidation> recognizeAll(java.util.List<String> inputs) {
+		java.util.stream.Stream<String> stream = inputs.size() >= 10_000 ? inputs.parallelStream() : inputs.stream();
+		return stream.map(UserNameRecognizer::recognize).collect(java.util.stream.Collectors.toList());
+	}
+
+	/**********
+	 * Compatibility wrapper for code written against the original static API.  It checks the
+	 * input with recognize and copies the result into the public static attributes above.
+	 * 
+	 * @param input		The input string for the Finite State Machine
+	 * @return			An output string that is empty if every things is okay or it is a String
+	 * 						with a helpful description of the error
+	 */
+	public static String checkForValidUserName(String input) {
+		UserNameValidation result = recognize(input);
+		userNameRecognizerInput = input;
+		userNameRecognizerIndexofError = result.errorIndex();
+		userNameRecognizerErrorMessage = result.getErrorMessage();
+		return userNameRecognizerErrorMessage;
+	}
+}
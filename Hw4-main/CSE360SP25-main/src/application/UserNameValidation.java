@@ -0,0 +1,43 @@
+package application;
+
+/**
+ * Result of checking a user name with UserNameRecognizer.recognize.
+ *
+ * @param code        why the user name was rejected, or Code.VALID
+ * @param errorIndex  index of the character where the recognizer stopped, or -1 when valid
+ */
+public record UserNameValidation(Code code, int errorIndex) {
+
+    /** The result for every valid user name. */
+    public static final UserNameValidation VALID = new UserNameValidation(Code.VALID, -1);
+
+    /** Reasons a user name can be rejected, with the message shown to the user. */
+    public enum Code {
+        VALID(""),
+        EMPTY("\n*** ERROR *** The input is empty"),
+        INVALID_START("\n*** ERROR *** A UserName must start with A-Z or a-z.\n"),
+        TOO_SHORT("\n*** ERROR *** A UserName must have at least 4 characters.\n"),
+        TOO_LONG("\n*** ERROR *** A UserName must have no more than 16 character.\n"),
+        INVALID_CHARACTER("\n*** ERROR *** A UserName character may only contain the characters A-Z, a-z, 0-9.\n"),
+        INVALID_AFTER_SEPARATOR("\n*** ERROR *** A UserName character after a period (.), dash (-), or underscore (_), must be A-Z, a-z, 0-9.\n");
+
+        private final String message;
+
+        Code(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    public boolean isValid() {
+        return code == Code.VALID;
+    }
+
+    // Empty when the user name is valid
+    public String getErrorMessage() {
+        return code.getMessage();
+    }
+}
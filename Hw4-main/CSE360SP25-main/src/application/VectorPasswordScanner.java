@@ -0,0 +1,100 @@
+package application;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API version of the PasswordEvaluator character scan.
+ * Each step loads SPECIES.length() characters (16 with AVX2, 32 with AVX-512) and classifies
+ * all of them at once with lane-wise range compares, instead of one cascade of ifs per character.
+ *
+ * Only PasswordEvaluator uses this class, and only after checking that the incubator module is
+ * present, so nothing here is loaded when jdk.incubator.vector is missing.
+ */
+final class VectorPasswordScanner {
+
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+    // Reused per thread so that scanning does not allocate a char[] for every password
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[256]);
+
+    private VectorPasswordScanner() {
+    }
+
+    static int laneCount() {
+        return SPECIES.length();
+    }
+
+    static PasswordEvaluation evaluate(String input) {
+        int length = input.length();
+        char[] chars = BUFFER.get();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+            BUFFER.set(chars);
+        }
+        input.getChars(0, length, chars, 0);
+
+        boolean upperCase = false;
+        boolean lowerCase = false;
+        boolean numericDigit = false;
+        boolean specialChar = false;
+
+        for (int i = 0; i < length; i += SPECIES.length()) {
+            VectorMask<Short> inRange = SPECIES.indexInRange(i, length);
+            // Lanes past the end load as 0, which matches none of the classes below
+            ShortVector v = ShortVector.fromCharArray(SPECIES, chars, i, inRange);
+
+            VectorMask<Short> upper = between(v, 'A', 'Z');
+            VectorMask<Short> lower = between(v, 'a', 'z');
+            VectorMask<Short> digit = between(v, '0', '9');
+            VectorMask<Short> special = special(v);
+            VectorMask<Short> invalid = upper.or(lower).or(digit).or(special).not().and(inRange);
+
+            if (invalid.anyTrue()) {
+                // Like the scalar scan, only the characters before the invalid one count
+                int lane = invalid.firstTrue();
+                VectorMask<Short> before = SPECIES.indexInRange(0, lane);
+                int index = i + lane;
+                return new PasswordEvaluation(PasswordEvaluator.INVALID_CHAR_MESSAGE, index,
+                        upperCase || upper.and(before).anyTrue(),
+                        lowerCase || lower.and(before).anyTrue(),
+                        numericDigit || digit.and(before).anyTrue(),
+                        specialChar || special.and(before).anyTrue(),
+                        index >= PasswordEvaluator.MIN_LENGTH, true);
+            }
+            upperCase |= upper.anyTrue();
+            lowerCase |= lower.anyTrue();
+            numericDigit |= digit.anyTrue();
+            specialChar |= special.anyTrue();
+        }
+        return PasswordEvaluator.result(upperCase, lowerCase, numericDigit, specialChar,
+                length >= PasswordEvaluator.MIN_LENGTH, length);
+    }
+
+    private static VectorMask<Short> between(ShortVector v, char low, char high) {
+        return v.compare(VectorOperators.GE, (short) low).and(v.compare(VectorOperators.LE, (short) high));
+    }
+
+    /*
+     * PasswordEvaluator.SPECIAL_CHARS as code-point ranges:
+     *   33-47 except 34 (") and 39 (')   ! # $ % & ( ) * + , - . /
+     *   58                                :
+     *   63-64                             ? @
+     *   91                                [
+     *   93-96                             ] ^ _ `
+     *   123-126                           { | } ~
+     */
+    private static VectorMask<Short> special(ShortVector v) {
+        VectorMask<Short> punctuation = between(v, '!', '/')
+                .and(v.compare(VectorOperators.NE, (short) '"'))
+                .and(v.compare(VectorOperators.NE, (short) '\''));
+        return punctuation
+                .or(v.compare(VectorOperators.EQ, (short) ':'))
+                .or(between(v, '?', '@'))
+                .or(v.compare(VectorOperators.EQ, (short) '['))
+                .or(between(v, ']', '`'))
+                .or(between(v, '{', '~'));
+    }
+}
@@ -43,7 +43,7 @@ public class WelcomeLoginPage {
             databaseHelper.closeConnection();
             Platform.exit();
         });
-        if (user.getRoles().contains("admin")) {
+        if (user.hasRole(Role.ADMIN)) {
             Button inviteButton = new Button("Invite");
             inviteButton.setOnAction(a -> {
                 new InvitationPage().show(databaseHelper, primaryStage);
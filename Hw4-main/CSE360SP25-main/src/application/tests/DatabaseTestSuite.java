@@ -0,0 +1,1071 @@
+package application.tests;
+
+import application.*;
+import databasePart1.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Tests for the database layer, run against a private in-memory H2 database.
+ */
+public class DatabaseTestSuite {
+
+    private static int dbCounter = 0;
+    private String dbUrl;
+    private DatabaseHelper db;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        dbUrl = "jdbc:h2:mem:cse360test" + (dbCounter++) + ";DB_CLOSE_DELAY=-1";
+        db = new DatabaseHelper(dbUrl);
+        db.setPasswordHasher(new PasswordHasher(1_000)); // calibrated cost would slow the suite down
+        db.connectToDatabase();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        db.closeConnection();
+    }
+
+    // ConnectionPool tests
+    @Test
+    public void testPool_connectionReturnedAfterUse() throws SQLException {
+        ConnectionPool pool = db.getConnectionPool();
+        try (PooledConnection conn = pool.borrow()) {
+            assertNotNull(conn.getConnection());
+            assertEquals(1, pool.getActiveCount());
+        }
+        assertEquals(0, pool.getActiveCount());
+        assertTrue(pool.getIdleCount() >= 1);
+    }
+
+    @Test
+    public void testPool_timesOutWhenExhausted() throws SQLException {
+        ConnectionPool pool = new ConnectionPool("jdbc:h2:mem:pooltest;DB_CLOSE_DELAY=-1", "sa", "", 1, 100, 60000);
+        try (PooledConnection held = pool.borrow()) {
+            assertNotNull(held.getConnection());
+            assertThrows(SQLException.class, pool::borrow);
+            assertEquals(1, pool.getTimeoutCount());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testPool_crudGoesThroughPool() throws SQLException {
+        Question q = new Question("alice", "Pool", "Does the pool work?");
+        db.createQuestion(q);
+        assertNotNull(db.getQuestionByID(q.getQuestionID()));
+        assertEquals(0, db.getConnectionPool().getActiveCount());
+        assertTrue(db.getConnectionPool().getBorrowCount() >= 2);
+    }
+
+    // StatementCache tests
+    @Test
+    public void testStatementCache_reusesStatementForSameSql() throws SQLException {
+        ConnectionPool pool = new ConnectionPool("jdbc:h2:mem:stmtcache;DB_CLOSE_DELAY=-1", "sa", "", 1, 1000, 60000);
+        try (PooledConnection conn = pool.borrow()) {
+            for (int i = 0; i < 3; i++) {
+                try (PreparedStatement ps = conn.prepareStatement("SELECT ?")) {
+                    ps.setInt(1, i);
+                    ps.executeQuery();
+                }
+            }
+            StatementCache cache = conn.getStatementCache();
+            assertEquals(1, cache.getMissCount());
+            assertEquals(2, cache.getHitCount());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testStatementCache_evictsLeastRecentlyUsed() throws SQLException {
+        try (Connection c = DriverManager.getConnection("jdbc:h2:mem:stmtevict", "sa", "")) {
+            StatementCache cache = new StatementCache(c, 2);
+            cache.prepare("SELECT 1").close();
+            cache.prepare("SELECT 2").close();
+            cache.prepare("SELECT 1").close();
+            cache.prepare("SELECT 3").close();
+            assertEquals(2, cache.size());
+            assertEquals(1, cache.getEvictionCount());
+            cache.prepare("SELECT 1").close();
+            assertEquals(2, cache.getHitCount()); // "SELECT 1" was most recently used, so it survived
+        }
+    }
+
+    // SearchIndex tests
+    @Test
+    public void testSearch_findsQuestionByAnswerTextAndPrefix() throws SQLException {
+        Question q1 = new Question("alice", "Java Basics", "How do I start?");
+        Question q2 = new Question("bob", "Spring", "Config question");
+        db.createQuestion(q1);
+        db.createQuestion(q2);
+        Answer a = new Answer();
+        a.setQuestionID(q2.getQuestionID());
+        a.setAuthor("carol");
+        a.setAnswerText("Use a properties file");
+        db.createAnswer(a);
+
+        assertEquals(List.of(q2.getQuestionID()), db.searchQuestionIDs("propert"));
+        assertEquals(List.of(q1.getQuestionID()), db.searchQuestionIDs("JAVA start"));
+        assertTrue(db.searchQuestionIDs("java spring").isEmpty());
+    }
+
+    @Test
+    public void testSearch_ranksTitleMatchFirstAndFollowsDeletes() throws SQLException {
+        Question inText = new Question("alice", "Collections", "Is a HashMap ordered?");
+        Question inTitle = new Question("bob", "HashMap internals", "How does it resize?");
+        db.createQuestion(inText);
+        db.createQuestion(inTitle);
+
+        assertEquals(List.of(inTitle.getQuestionID(), inText.getQuestionID()), db.searchQuestionIDs("hashmap"));
+
+        db.deleteQuestion(inTitle.getQuestionID());
+        assertEquals(List.of(inText.getQuestionID()), db.searchQuestionIDs("hashmap"));
+
+        inText.setQuestionText("Is a TreeMap ordered?");
+        db.updateQuestion(inText);
+        assertTrue(db.searchQuestionIDs("hashmap").isEmpty());
+    }
+
+    @Test
+    public void testSearch_reindexesEditWithCollidingHashCode() throws SQLException {
+        Question q = new Question("alice", "Strings", "Which one?");
+        db.createQuestion(q);
+        Answer a = new Answer(0, q.getQuestionID(), "bob", "pick Aa");
+        db.createAnswer(a);
+        assertEquals("pick Aa".hashCode(), "pick BB".hashCode());
+
+        a.setAnswerText("pick BB");
+        db.updateAnswer(a);
+        assertEquals(List.of(q.getQuestionID()), db.searchQuestionIDs("bb"));
+        assertTrue(db.searchQuestionIDs("aa").isEmpty());
+    }
+
+    @Test
+    public void testGetQuestionsByIDs_keepsRequestedOrder() throws SQLException {
+        Question q1 = new Question("alice", "First", "one");
+        Question q2 = new Question("alice", "Second", "two");
+        db.createQuestion(q1);
+        db.createQuestion(q2);
+        List<Question> found = db.getQuestionsByIDs(List.of(q2.getQuestionID(), q1.getQuestionID()));
+        assertEquals("Second", found.get(0).getQuestionTitle());
+        assertEquals("First", found.get(1).getQuestionTitle());
+    }
+
+    // SchemaMigrations tests
+    @Test
+    public void testMigrations_appliedOnceAndRecorded() throws SQLException {
+        try (PooledConnection conn = db.getConnectionPool().borrow()) {
+            assertEquals(SchemaMigrations.getLatestVersion(), SchemaMigrations.getCurrentVersion(conn));
+            // Running again is a no-op
+            assertEquals(SchemaMigrations.getLatestVersion(), SchemaMigrations.migrate(conn));
+        }
+    }
+
+    @Test
+    public void testMigrations_deleteQuestionCascadesToAnswersAndReviews() throws SQLException {
+        Question q = new Question("alice", "Cascade", "Will my answers go away?");
+        db.createQuestion(q);
+        Answer a = new Answer(0, q.getQuestionID(), "bob", "Yes");
+        db.createAnswer(a);
+        Review r = new Review();
+        r.setAnswerId(a.getAnswerID());
+        r.setReviewerUserName("carol");
+        r.setReviewText("Correct");
+        db.addReview(r);
+
+        db.deleteQuestion(q.getQuestionID());
+        assertNull(db.getAnswerByID(a.getAnswerID()));
+        assertTrue(db.getReviewsByAnswerId(a.getAnswerID()).isEmpty());
+    }
+
+    // Vote tests
+    private Answer createAnswerForVoting() throws SQLException {
+        Question q = new Question("alice", "Votes", "Vote on my answer");
+        db.createQuestion(q);
+        Answer a = new Answer(0, q.getQuestionID(), "bob", "An answer");
+        db.createAnswer(a);
+        return a;
+    }
+
+    @Test
+    public void testCastVote_sameUserCannotVoteTwice() throws SQLException {
+        Answer a = createAnswerForVoting();
+        assertTrue(db.castVote(a.getAnswerID(), "carol", 1));
+        assertFalse(db.castVote(a.getAnswerID(), "carol", 1));
+        assertTrue(db.castVote(a.getAnswerID(), "dave", 1));
+        assertEquals(2, db.getAnswerByID(a.getAnswerID()).getUpvotes());
+    }
+
+    @Test
+    public void testCastVote_switchingVoteMovesCount() throws SQLException {
+        Answer a = createAnswerForVoting();
+        db.castVote(a.getAnswerID(), "carol", 1);
+        assertTrue(db.castVote(a.getAnswerID(), "carol", -1));
+        Answer reloaded = db.getAnswerByID(a.getAnswerID());
+        assertEquals(0, reloaded.getUpvotes());
+        assertEquals(1, reloaded.getDownvotes());
+    }
+
+    @Test
+    public void testIncrementVote_concurrentVotesAreNotLost() throws Exception {
+        Answer a = createAnswerForVoting();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 25; i++) {
+                    try {
+                        db.incrementVote(a.getAnswerID(), 1);
+                    } catch (SQLException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(100, db.getAnswerByID(a.getAnswerID()).getUpvotes());
+    }
+
+    @Test
+    public void testUpdateAnswer_doesNotOverwriteVotes() throws SQLException {
+        Answer a = createAnswerForVoting();
+        db.castVote(a.getAnswerID(), "carol", 1);
+        a.setAnswerText("Edited with a stale vote count");
+        db.updateAnswer(a);
+        assertEquals(1, db.getAnswerByID(a.getAnswerID()).getUpvotes());
+    }
+
+    @Test
+    public void testWriteBehindVotes_visibleBeforeAndAfterFlush() throws SQLException {
+        Answer a = createAnswerForVoting();
+        db.enableWriteBehindVotes(60000);
+        db.castVote(a.getAnswerID(), "carol", 1);
+        db.incrementVote(a.getAnswerID(), 1);
+        assertEquals(2, db.getAnswerByID(a.getAnswerID()).getUpvotes());
+
+        db.getVoteAggregator().flush();
+        assertEquals(0, db.getVoteAggregator().getPendingCount());
+        assertEquals(1, db.getVoteAggregator().getRowsWritten());
+        assertEquals(2, db.getAnswerByID(a.getAnswerID()).getUpvotes());
+    }
+
+    @Test
+    public void testWriteBehindVotes_readsDuringFlushNeverMissOrDoubleCount() throws Exception {
+        Answer a = createAnswerForVoting();
+        db.enableWriteBehindVotes(60000);
+        int votes = 200;
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < votes; i++) {
+                    db.incrementVote(a.getAnswerID(), 1);
+                    db.getVoteAggregator().flush();
+                }
+                return null;
+            });
+            int last = 0;
+            while (!writer.isDone()) {
+                int seen = db.getAnswerByID(a.getAnswerID()).getUpvotes();
+                assertTrue(seen >= last && seen <= votes, "read " + seen + " after " + last);
+                last = seen;
+            }
+            writer.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(votes, db.getAnswerByID(a.getAnswerID()).getUpvotes());
+    }
+
+    // Keyset pagination tests
+    @Test
+    public void testQuestionSummaries_pagesWithoutGapsOrDuplicates() throws SQLException {
+        for (int i = 0; i < 7; i++) {
+            Question q = new Question("alice", "Question " + i, "text " + i);
+            q.setSolved(i % 2 == 0);
+            db.createQuestion(q);
+        }
+
+        List<QuestionSummary> first = db.getQuestionSummaries(0, 3, QuestionSummary.Filter.ALL);
+        List<QuestionSummary> second = db.getQuestionSummaries(first.get(2).getQuestionID(), 3, QuestionSummary.Filter.ALL);
+        List<QuestionSummary> last = db.getQuestionSummaries(second.get(2).getQuestionID(), 3, QuestionSummary.Filter.ALL);
+        assertEquals("Question 0", first.get(0).getTitle());
+        assertEquals("Question 3", second.get(0).getTitle());
+        assertEquals(1, last.size());
+        assertEquals("Question 6", last.get(0).getTitle());
+
+        List<QuestionSummary> answered = db.getQuestionSummaries(0, 10, QuestionSummary.Filter.ANSWERED);
+        assertEquals(4, answered.size());
+        assertTrue(answered.stream().allMatch(QuestionSummary::isSolved));
+        assertEquals(3, db.getQuestionSummaries(0, 10, QuestionSummary.Filter.UNANSWERED).size());
+    }
+
+    // EntityCache tests
+    @Test
+    public void testEntityCache_repeatedReadsHitAndUpdatesInvalidate() throws SQLException {
+        Question q = new Question("alice", "Cached", "Read me twice");
+        db.createQuestion(q);
+        db.getQuestionByID(q.getQuestionID());
+        db.getQuestionByID(q.getQuestionID());
+        assertEquals(1, db.getQuestionCache().getMissCount());
+        assertEquals(1, db.getQuestionCache().getHitCount());
+
+        // Editing a returned copy must not change the cache
+        db.getQuestionByID(q.getQuestionID()).setQuestionTitle("Not saved");
+        assertEquals("Cached", db.getQuestionByID(q.getQuestionID()).getQuestionTitle());
+
+        q.setQuestionTitle("Renamed");
+        db.updateQuestion(q);
+        assertEquals("Renamed", db.getQuestionByID(q.getQuestionID()).getQuestionTitle());
+    }
+
+    @Test
+    public void testEntityCache_answerListFollowsVotesAndDeletes() throws SQLException {
+        Answer a = createAnswerForVoting();
+        Answer b = new Answer(0, a.getQuestionID(), "carol", "Another answer");
+        db.createAnswer(b);
+        assertEquals(2, db.getAnswersByQuestionID(a.getQuestionID()).size());
+
+        db.castVote(a.getAnswerID(), "dave", 1);
+        List<Answer> answers = db.getAnswersByQuestionID(a.getQuestionID());
+        assertEquals(1, answers.get(0).getUpvotes());
+
+        db.deleteAnswer(b.getAnswerID());
+        assertEquals(1, db.getAnswersByQuestionID(a.getQuestionID()).size());
+        db.deleteQuestion(a.getQuestionID());
+        assertTrue(db.getAnswersByQuestionID(a.getQuestionID()).isEmpty());
+        assertNull(db.getAnswerByID(a.getAnswerID()));
+    }
+
+    @Test
+    public void testEntityCache_writeBehindFlushRefreshesCachedCounts() throws SQLException {
+        Answer a = createAnswerForVoting();
+        db.enableWriteBehindVotes(60000);
+        db.getAnswerByID(a.getAnswerID()); // cache the stored counts
+        db.incrementVote(a.getAnswerID(), 1);
+        assertEquals(1, db.getAnswerByID(a.getAnswerID()).getUpvotes());
+        db.getVoteAggregator().flush();
+        assertEquals(1, db.getAnswerByID(a.getAnswerID()).getUpvotes());
+    }
+
+    @Test
+    public void testEntityCache_evictsLeastRecentlyUsed() {
+        EntityCache<Integer, String> cache = new EntityCache<>("test", 2, v -> v);
+        cache.get(1, k -> "one");
+        cache.get(2, k -> "two");
+        cache.get(1, k -> "one");
+        cache.get(3, k -> "three");
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals("one", cache.getIfPresent(1));
+        assertNull(cache.getIfPresent(2));
+        assertEquals(2.0 / 6, cache.getHitRate(), 0.001); // 2 hits, 4 misses
+    }
+
+    // Bulk import tests
+    @Test
+    public void testImport_batchesReturnKeysInStreamOrder() throws SQLException {
+        List<Integer> questionIDs = db.importQuestions(
+                IntStream.range(0, 7).mapToObj(i -> new Question("alice", "Imported " + i, "Body " + i)), 3);
+        assertEquals(7, questionIDs.size());
+        assertEquals("Imported 4", db.getQuestionByID(questionIDs.get(4)).getQuestionTitle());
+        assertEquals(List.of(questionIDs.get(6)), db.searchQuestionIDs("imported body 6"));
+
+        int target = questionIDs.get(2);
+        List<Integer> answerIDs = db.importAnswers(
+                IntStream.range(0, 4).mapToObj(i -> new Answer(0, target, "bob", "Reply " + i)), 3);
+        assertEquals(4, answerIDs.size());
+        assertEquals(4, db.getAnswersByQuestionID(target).size());
+        assertEquals("Reply 3", db.getAnswerByID(answerIDs.get(3)).getAnswerText());
+    }
+
+    @Test
+    public void testImport_failedBatchRollsBackOnlyThatBatch() {
+        List<Answer> answers = List.of(
+                new Answer(0, 999999, "bob", "No such question")); // violates the foreign key
+        assertThrows(SQLException.class, () -> db.importAnswers(answers.stream(), 10));
+        assertTrue(db.getAllAnswers().isEmpty());
+    }
+
+    @Test
+    public void testBulkImportCli_readsCsvAndJsonLines(@TempDir Path dir) throws IOException {
+        Path questionsFile = dir.resolve("questions.csv");
+        Files.writeString(questionsFile, "id,author,title,text,solved\n"
+                + "10,alice,\"Loops, again\",\"Why does \"\"for\"\" skip?\",true\n"
+                + "11,bob,Streams,How do I collect?,false\n");
+        Path answersFile = dir.resolve("answers.jsonl");
+        Files.writeString(answersFile, "{\"question_id\": 11, \"author\": \"carol\", \"text\": \"Use Collectors.toList()\"}\n"
+                + "{\"question_id\": 10, \"author\": \"dave\", \"text\": \"Check the \\\"i++\\\"\", \"accepted\": true}\n");
+
+        BulkImport.main(new String[] { "--batch-size", "1", "--db", dbUrl,
+                questionsFile.toString(), answersFile.toString() });
+
+        List<Question> imported = db.getAllQuestions();
+        assertEquals(2, imported.size());
+        Question loops = imported.stream().filter(q -> q.getQuestionTitle().equals("Loops, again")).findFirst().orElseThrow();
+        assertEquals("Why does \"for\" skip?", loops.getQuestionText());
+        assertTrue(loops.isSolved());
+        List<Answer> answers = db.getAnswersByQuestionID(loops.getQuestionID());
+        assertEquals(1, answers.size());
+        assertEquals("Check the \"i++\"", answers.get(0).getAnswerText());
+        assertTrue(answers.get(0).isAccepted());
+    }
+
+    // Answers change events
+    @Test
+    public void testAnswers_reportEachChangeOnce() throws SQLException {
+        Question q = new Question("alice", "Events", "Which answers changed?");
+        db.createQuestion(q);
+        Answers answers = new Answers(db);
+        List<AnswerChangeEvent> events = new ArrayList<>();
+        answers.addChangeListener(events::add);
+
+        Answer a = new Answer(0, q.getQuestionID(), "bob", "First try");
+        answers.addAnswer(a);
+        assertTrue(answers.vote(a, "carol", 1));
+        assertFalse(answers.vote(a, "carol", 1)); // same vote again: nothing changed, no event
+        answers.deleteAnswer(a.getAnswerID());
+
+        assertEquals(3, events.size());
+        assertEquals(AnswerChangeEvent.Type.INSERTED, events.get(0).getType());
+        assertEquals(a.getAnswerID(), events.get(0).getAnswerID());
+        assertEquals(AnswerChangeEvent.Type.UPDATED, events.get(1).getType());
+        assertEquals(1, events.get(1).getAnswer().getUpvotes());
+        assertEquals(AnswerChangeEvent.Type.DELETED, events.get(2).getType());
+        assertEquals(q.getQuestionID(), events.get(2).getQuestionID());
+    }
+
+    // Inbox tests
+    private Message message(String from, String to, String content, int minute) {
+        Message m = new Message();
+        m.setFromUser(from);
+        m.setToUser(to);
+        m.setContent(content);
+        m.setCreationTime(LocalDateTime.of(2025, 3, 1, 12, minute));
+        db.addMessage(m);
+        return m;
+    }
+
+    @Test
+    public void testInbox_unreadCounterFollowsAddReadAndDelete() {
+        Message first = message("bob", "alice", "Hi", 0);
+        Message second = message("carol", "alice", "Hello", 1);
+        message("alice", "bob", "Reply", 2);
+        assertEquals(2, db.getUnreadCount("alice"));
+        assertEquals(1, db.getUnreadCount("bob"));
+
+        // bob cannot mark alice's messages; already-read ones are not counted twice
+        assertEquals(0, db.markMessagesRead("bob", List.of(first.getMessageId())));
+        assertEquals(1, db.markMessagesRead("alice", List.of(first.getMessageId())));
+        assertEquals(0, db.markMessagesRead("alice", List.of(first.getMessageId())));
+        assertEquals(1, db.getUnreadCount("alice"));
+
+        assertTrue(db.deleteMessage(second.getMessageId()));
+        assertEquals(0, db.getUnreadCount("alice"));
+        assertTrue(db.deleteMessage(first.getMessageId())); // already read: counter unchanged
+        assertEquals(0, db.getUnreadCount("alice"));
+        assertEquals(0, db.getUnreadCount("nobody"));
+    }
+
+    @Test
+    public void testInbox_conversationsArePagedByLastActivity() {
+        for (int i = 0; i < 5; i++) {
+            message("user" + i, "alice", "From user" + i, i);
+        }
+        message("alice", "user0", "Latest reply", 30); // makes user0 the most recent conversation
+        message("alice", "alice", "Note to self", 10);
+
+        List<Conversation> first = db.getConversations("alice", null, 3);
+        assertEquals(List.of("user0", "alice", "user4"), first.stream().map(Conversation::getOtherUser).toList());
+        assertEquals(2, first.get(0).getMessageCount());
+        assertEquals(1, first.get(0).getUnreadCount());
+        assertEquals(1, first.get(1).getMessageCount()); // a note to self is counted once
+
+        List<Conversation> rest = db.getConversations("alice", first.get(2), 3);
+        assertEquals(List.of("user3", "user2", "user1"), rest.stream().map(Conversation::getOtherUser).toList());
+        assertEquals(7, db.getMessagesForUser("alice").size());
+    }
+
+    @Test
+    public void testInbox_conversationMessagesLoadOlderPages() {
+        for (int i = 0; i < 7; i++) {
+            message(i % 2 == 0 ? "bob" : "alice", i % 2 == 0 ? "alice" : "bob", "Message " + i, i);
+        }
+        message("carol", "alice", "Other conversation", 20);
+
+        List<Message> newest = db.getConversationMessages("alice", "bob", Integer.MAX_VALUE, 3);
+        assertEquals(List.of("Message 4", "Message 5", "Message 6"), newest.stream().map(Message::getContent).toList());
+        List<Message> older = db.getConversationMessages("alice", "bob", newest.get(0).getMessageId(), 3);
+        assertEquals(List.of("Message 1", "Message 2", "Message 3"), older.stream().map(Message::getContent).toList());
+        assertEquals(1, db.getConversationMessages("bob", "alice", older.get(0).getMessageId(), 3).size());
+    }
+
+    // Private feedback thread tests
+    private Message feedback(int questionId, String from, String to, String content, int minute) {
+        Message m = new Message();
+        m.setQuestionId(questionId);
+        m.setFromUser(from);
+        m.setToUser(to);
+        m.setContent(content);
+        m.setCreationTime(LocalDateTime.of(2025, 3, 2, 9, minute));
+        db.addMessage(m);
+        return m;
+    }
+
+    @Test
+    public void testThreads_maintainedOnInsertAndDelete() {
+        Message first = feedback(1, "bob", "alice", "Unclear title", 0);
+        Message reply = feedback(1, "alice", "bob", "Fixed, thanks", 5);
+        feedback(1, "carol", "alice", "Typo in the text", 3);
+        feedback(2, "bob", "alice", "Other question", 9);
+        assertEquals(first.getThreadId(), reply.getThreadId());
+
+        List<MessageThread> aliceThreads = db.getThreadsForQuestion(1, "alice");
+        assertEquals(2, aliceThreads.size());
+        MessageThread withBob = aliceThreads.get(0); // most recent first
+        assertEquals("bob", withBob.getOtherUser("alice"));
+        assertEquals(2, withBob.getMessageCount());
+        assertEquals(LocalDateTime.of(2025, 3, 2, 9, 5), withBob.getLastMessageTime());
+        assertEquals(1, db.getThreadsForQuestion(1, "bob").size());
+
+        assertTrue(db.deleteMessage(reply.getMessageId()));
+        withBob = db.getThreadsForQuestion(1, "bob").get(0);
+        assertEquals(1, withBob.getMessageCount());
+        assertEquals(LocalDateTime.of(2025, 3, 2, 9, 0), withBob.getLastMessageTime());
+    }
+
+    @Test
+    public void testThreads_loadOlderMessagesByPage() {
+        int threadId = 0;
+        for (int i = 0; i < 25; i++) {
+            threadId = feedback(3, i % 2 == 0 ? "bob" : "alice", i % 2 == 0 ? "alice" : "bob", "Note " + i, i).getThreadId();
+        }
+        List<Message> newest = db.getThreadMessages(threadId, Integer.MAX_VALUE, 10);
+        assertEquals("Note 15", newest.get(0).getContent());
+        assertEquals("Note 24", newest.get(9).getContent());
+        List<Message> older = db.getThreadMessages(threadId, newest.get(0).getMessageId(), 10);
+        assertEquals("Note 5", older.get(0).getContent());
+        List<Message> oldest = db.getThreadMessages(threadId, older.get(0).getMessageId(), 10);
+        assertEquals(5, oldest.size());
+        assertEquals("Note 0", oldest.get(0).getContent());
+    }
+
+    // Authentication tests
+    @Test
+    public void testPasswordHasher_saltedAndVerifiable() {
+        PasswordHasher hasher = new PasswordHasher(1_000);
+        String first = hasher.hash("Secret#123");
+        String second = hasher.hash("Secret#123");
+        assertTrue(first.startsWith(PasswordHasher.PREFIX + "1000$"));
+        assertNotEquals(first, second); // different salts
+        assertTrue(hasher.verify("Secret#123", first));
+        assertFalse(hasher.verify("secret#123", first));
+        assertFalse(hasher.verify("Secret#123", PasswordHasher.PREFIX + "1000$broken"));
+
+        assertFalse(hasher.needsRehash(first));
+        assertTrue(new PasswordHasher(2_000).needsRehash(first)); // cost was raised since
+        assertTrue(hasher.needsRehash("Secret#123"));              // plain text
+        assertEquals(PasswordHasher.MIN_ITERATIONS, PasswordHasher.calibrate(0).getIterations());
+    }
+
+    @Test
+    public void testAuthenticate_storesHashAndReturnsRoles() throws SQLException {
+        db.register(new User("alice", "Secret#123", "admin,reviewer"));
+
+        User stored = db.getAllUsers().get(0);
+        assertTrue(PasswordHasher.isHashed(stored.getPassword()));
+        User alice = db.authenticate("alice", "Secret#123");
+        assertNotNull(alice);
+        assertEquals("admin,reviewer", alice.getRole());
+        assertNull(db.authenticate("alice", "wrong"));
+        assertNull(db.authenticate("nobody", "Secret#123"));
+        assertTrue(db.login(new User("alice", "Secret#123", "admin,reviewer")));
+        assertFalse(db.login(new User("alice", "Secret#123", "admin")));
+    }
+
+    @Test
+    public void testAuthenticate_upgradesPlainTextPasswords() throws SQLException {
+        try (Connection c = DriverManager.getConnection(dbUrl, "sa", "");
+             PreparedStatement ps = c.prepareStatement("INSERT INTO cse360users (userName, password, role) VALUES (?, ?, ?)")) {
+            ps.setString(1, "legacy");
+            ps.setString(2, "Old#pass1");
+            ps.setString(3, "user");
+            ps.executeUpdate();
+        }
+        assertNull(db.authenticate("legacy", "wrong"));
+        assertEquals("Old#pass1", db.getAllUsers().get(0).getPassword()); // failed login changes nothing
+
+        assertNotNull(db.authenticate("legacy", "Old#pass1"));
+        String upgraded = db.getAllUsers().get(0).getPassword();
+        assertTrue(PasswordHasher.isHashed(upgraded));
+        assertNotNull(db.authenticate("legacy", "Old#pass1"));
+        assertEquals(upgraded, db.getAllUsers().get(0).getPassword()); // no further rehash
+    }
+
+    @Test
+    public void testUserRoles_normalizedTableFollowsChanges() throws SQLException {
+        db.register(new User("alice", "Secret#123", "admin"));
+        db.register(new User("bob", "Secret#123", "superreviewer"));
+
+        db.addRoleToUser("bob", "reviewer"); // "superreviewer" must not count as already holding it
+        db.addRoleToUser("alice", "reviewer");
+        db.addRoleToUser("alice", "reviewer");
+        assertEquals("superreviewer,reviewer", db.getUserRole("bob"));
+        assertEquals("admin,reviewer", db.getUserRole("alice"));
+        assertEquals(List.of("alice", "bob"), db.getUsersWithRole(Role.REVIEWER));
+
+        db.setSingleRoleForUser("alice", "admin");
+        assertEquals(List.of("bob"), db.getUsersWithRole(Role.REVIEWER));
+        assertEquals(List.of("alice"), db.getUsersWithRole(Role.ADMIN));
+
+        db.deleteUser("bob");
+        assertTrue(db.getUsersWithRole(Role.REVIEWER).isEmpty());
+    }
+
+    @Test
+    public void testUserRoles_addRoleIgnoresCase() throws SQLException {
+        db.register(new User("carol", "Secret#123", "Reviewer"));
+
+        db.addRoleToUser("carol", "reviewer");
+        db.addRoleToUser("carol", " REVIEWER ");
+        assertEquals("Reviewer", db.getUserRole("carol"));
+
+        db.addRoleToUser("carol", "Student");
+        assertEquals("Reviewer,student", db.getUserRole("carol"));
+        assertEquals(List.of("carol"), db.getUsersWithRole(Role.STUDENT));
+    }
+
+    @Test
+    public void testUserRoles_lowercasedIndependentOfDefaultLocale() throws SQLException {
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR")); // "ADMIN".toLowerCase() would be "admın"
+        try {
+            db.register(new User("dave", "Secret#123", "ADMIN"));
+            db.addRoleToUser("dave", "REVIEWER");
+        } finally {
+            Locale.setDefault(previous);
+        }
+        assertEquals(List.of("dave"), db.getUsersWithRole(Role.ADMIN));
+        assertEquals(List.of("dave"), db.getUsersWithRole(Role.REVIEWER));
+    }
+
+    @Test
+    public void testMigrations_userRolesBackfilledFromRoleColumn() throws SQLException {
+        try (Connection c = DriverManager.getConnection(dbUrl, "sa", "")) {
+            try (PreparedStatement ps = c.prepareStatement("INSERT INTO cse360users (userName, password, role) VALUES (?, ?, ?)")) {
+                ps.setString(1, "legacy");
+                ps.setString(2, "pw");
+                ps.setString(3, "Student, reviewer,,");
+                ps.executeUpdate();
+            }
+            c.createStatement().execute("DELETE FROM schema_version WHERE version >= 6");
+        }
+        try (PooledConnection conn = db.getConnectionPool().borrow()) {
+            SchemaMigrations.migrate(conn);
+        }
+        assertEquals(List.of("legacy"), db.getUsersWithRole(Role.STUDENT));
+        assertEquals(List.of("legacy"), db.getUsersWithRole(Role.REVIEWER));
+        assertTrue(db.getUsersWithRole(Role.ADMIN).isEmpty());
+    }
+
+    @Test
+    public void testSessions_followRoleChangesWithoutReloading() throws SQLException {
+        SessionManager sessions = new SessionManager(db);
+        db.register(new User("alice", "Secret#123", "student"));
+        db.register(new User("bob", "Secret#123", "student"));
+        User alice = sessions.start(db.authenticate("alice", "Secret#123"));
+        assertEquals("", alice.getPassword());
+        assertSame(alice, sessions.get("alice"));
+
+        db.addRoleToUser("alice", "reviewer");
+        assertTrue(alice.hasRole(Role.REVIEWER));
+        db.setSingleRoleForUser("alice", "admin");
+        assertTrue(alice.hasRole(Role.ADMIN));
+        assertFalse(alice.hasRole(Role.REVIEWER));
+        db.addRoleToUser("bob", "reviewer"); // no session, nothing to refresh
+        assertNull(sessions.get("bob"));
+
+        db.deleteUser("alice");
+        assertFalse(sessions.isActive("alice"));
+        assertFalse(alice.hasRole(Role.ADMIN));
+
+        User bob = sessions.start(db.authenticate("bob", "Secret#123"));
+        sessions.close();
+        db.setSingleRoleForUser("bob", "admin");
+        assertFalse(bob.hasRole(Role.ADMIN)); // closed managers stop listening
+    }
+
+    // InvitationService tests
+    @Test
+    public void testInvitations_batchMintedCodesRedeemOnce() throws Exception {
+        List<String> codes = db.generateInvitationCodes(50);
+        assertEquals(50, new HashSet<>(codes).size());
+        assertTrue(codes.stream().allMatch(c -> c.length() == InvitationService.CODE_LENGTH));
+
+        String code = codes.get(0);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String user = "user" + i;
+            attempts.add(pool.submit(() -> db.validateInvitationCode(code, user)));
+        }
+        int redeemed = 0;
+        for (Future<Boolean> attempt : attempts) {
+            redeemed += attempt.get() ? 1 : 0;
+        }
+        pool.shutdown();
+        assertEquals(1, redeemed);
+        assertFalse(db.validateInvitationCode(code));
+        assertFalse(db.validateInvitationCode("NOSUCHCODE"));
+        assertTrue(db.validateInvitationCode(" " + codes.get(1) + " "));
+    }
+
+    @Test
+    public void testInvitations_expireAndArePurged() throws SQLException {
+        Instant start = Instant.parse("2025-03-01T12:00:00Z");
+        InvitationService minted = new InvitationService(db.getConnectionPool(), Clock.fixed(start, ZoneOffset.UTC));
+        String code = minted.mint(Duration.ofDays(7));
+        String never = minted.mint(null);
+
+        InvitationService later = new InvitationService(db.getConnectionPool(),
+                Clock.fixed(start.plus(Duration.ofDays(8)), ZoneOffset.UTC));
+        assertFalse(later.redeem(code, "late"));
+        assertEquals(1, later.purgeExpired());
+        assertTrue(later.redeem(never, "alice"));
+        assertEquals(1, minted.mint(1, Duration.ofDays(1)).size());
+        assertThrows(IllegalArgumentException.class, () -> minted.mint(0, Duration.ofDays(1)));
+    }
+
+    @Test
+    public void testInvitations_failedRegistrationKeepsCode() throws SQLException {
+        String code = db.generateInvitationCode();
+        db.register(new User("taken", "Passw0rd!", "user"));
+
+        // The insert fails on the duplicate name, so the code is not used up
+        assertThrows(SQLException.class, () -> db.registerWithInvitation(new User("taken", "Passw0rd!", "user"), code));
+        assertFalse(db.registerWithInvitation(new User("nocode", "Passw0rd!", "user"), "NOSUCHCODE"));
+        assertFalse(db.doesUserExist("nocode"));
+
+        assertTrue(db.registerWithInvitation(new User("newbie", "Passw0rd!", "user"), code));
+        assertTrue(db.doesUserExist("newbie"));
+        assertFalse(db.registerWithInvitation(new User("second", "Passw0rd!", "user"), code));
+        assertFalse(db.doesUserExist("second"));
+    }
+
+    // AnswerRanking tests
+    private void review(Answer a, String reviewer, int rating) {
+        Review r = new Review();
+        r.setAnswerId(a.getAnswerID());
+        r.setReviewerUserName(reviewer);
+        r.setReviewText("Rated " + rating);
+        r.setRating(rating);
+        db.addReview(r);
+    }
+
+    @Test
+    public void testRanking_trustedRatingsWeightedPerViewer() throws SQLException {
+        Question q = new Question("alice", "Ranking", "Which answer is best?");
+        db.createQuestion(q);
+        Answer first = new Answer(0, q.getQuestionID(), "bob", "First");
+        Answer second = new Answer(0, q.getQuestionID(), "carol", "Second");
+        Answer third = new Answer(0, q.getQuestionID(), "dave", "Third");
+        db.createAnswer(first);
+        db.createAnswer(second);
+        db.createAnswer(third);
+        db.addOrUpdateTrustedReviewer("alice", "rev1", 2);
+        db.addOrUpdateTrustedReviewer("alice", "rev2", 1);
+        review(second, "rev1", 3);       // 2 * 3 = 6 for alice
+        review(third, "rev2", 4);        // 1 * 4 = 4 for alice
+        review(first, "stranger", 5);    // not trusted by anyone
+        db.castVote(first.getAnswerID(), "u1", 1);
+
+        assertEquals(List.of(second.getAnswerID(), third.getAnswerID(), first.getAnswerID()),
+                db.getRankedAnswers("alice", q.getQuestionID()).stream().map(Answer::getAnswerID).toList());
+        // Nobody trusted: votes alone, ties in posting order
+        assertEquals(List.of(first.getAnswerID(), second.getAnswerID(), third.getAnswerID()),
+                db.getRankedAnswers("bob", q.getQuestionID()).stream().map(Answer::getAnswerID).toList());
+        AnswerRanking.Scores scores = db.getAnswerScores("alice", q.getQuestionID());
+        assertEquals(6, scores.getTrustedScore(second.getAnswerID()));
+        assertEquals(1, scores.getTrustedReviewCount(third.getAnswerID()));
+    }
+
+    @Test
+    public void testRanking_cachedUntilReviewsOrTrustChange() throws SQLException {
+        Answer a = createAnswerForVoting();
+        int questionID = a.getQuestionID();
+        db.addOrUpdateTrustedReviewer("alice", "rev1", 2);
+        EntityCache<String, AnswerRanking.Scores> cache = db.getAnswerRanking().getCache();
+
+        assertEquals(0, db.getAnswerScores("alice", questionID).getTrustedScore(a.getAnswerID()));
+        db.getAnswerScores("alice", questionID);
+        assertEquals(1, cache.getHitCount());
+
+        review(a, "rev1", 5);
+        assertEquals(10, db.getAnswerScores("alice", questionID).getTrustedScore(a.getAnswerID()));
+        db.addOrUpdateTrustedReviewer("alice", "rev1", 3);
+        assertEquals(15, db.getAnswerScores("alice", questionID).getTrustedScore(a.getAnswerID()));
+        db.removeTrustedReviewer("alice", "rev1");
+        assertEquals(0, db.getAnswerScores("alice", questionID).getTrustedScore(a.getAnswerID()));
+
+        // Votes are read from the answers, so they need no invalidation
+        AnswerRanking.Scores cached = db.getAnswerScores("alice", questionID);
+        db.castVote(a.getAnswerID(), "u1", -1);
+        assertEquals(-1, cached.score(db.getAnswerByID(a.getAnswerID())));
+    }
+
+    // ScorecardEngine tests
+    private Map<String, Long> scoresByReviewer() {
+        Map<String, Long> scores = new HashMap<>();
+        for (ReviewerScorecard s : db.getReviewerScorecards()) {
+            scores.put(s.getReviewerUserName(), s.getScore());
+        }
+        return scores;
+    }
+
+    @Test
+    public void testScorecards_incrementalMatchesFullRecompute() throws SQLException {
+        Answer a = createAnswerForVoting();
+        Answer b = new Answer(0, a.getQuestionID(), "carol", "Another answer");
+        db.createAnswer(b);
+        db.setScorecardParam(ScorecardConfig.UPVOTE_WEIGHT, 2);
+        db.setScorecardParam(ScorecardConfig.DOWNVOTE_WEIGHT, 3);
+        db.setScorecardParam(ScorecardConfig.RATING_WEIGHT, 10);
+
+        db.castVote(a.getAnswerID(), "u1", 1);
+        review(a, "rev1", 4);            // 10*4 + 2*1 = 42
+        review(b, "rev1", 2);            // 10*2 = 20
+        review(b, "rev2", 5);            // 10*5 = 50
+        db.castVote(a.getAnswerID(), "u2", 1);
+        db.castVote(b.getAnswerID(), "u1", -1); // rev1 and rev2 each -3
+
+        Map<String, Long> incremental = scoresByReviewer();
+        assertEquals(42L + 2 + 20 - 3, incremental.get("rev1"));
+        assertEquals(47L, incremental.get("rev2"));
+        assertEquals(2, db.recomputeScorecards());
+        assertEquals(incremental, scoresByReviewer());
+
+        // New weights rescore the stored totals
+        db.setScorecardParam(ScorecardConfig.RATING_WEIGHT, 1);
+        assertEquals(6L + 4 - 3, scoresByReviewer().get("rev1"));
+
+        // Deleting an answer takes its reviews out of the scorecards
+        db.deleteAnswer(b.getAnswerID());
+        Map<String, Long> afterDelete = scoresByReviewer();
+        assertEquals(4L + 4, afterDelete.get("rev1"));
+        assertFalse(afterDelete.containsKey("rev2"));
+    }
+
+    @Test
+    public void testScorecards_failedReviewInsertLeavesScorecardUntouched() throws SQLException {
+        Answer a = createAnswerForVoting();
+        Review invalid = new Review();
+        invalid.setAnswerId(a.getAnswerID());
+        invalid.setReviewerUserName("rev1");
+        invalid.setRating(5); // no text: the insert violates NOT NULL
+        db.addReview(invalid);
+        assertTrue(db.getReviewsByAnswerId(a.getAnswerID()).isEmpty());
+        assertFalse(scoresByReviewer().containsKey("rev1"));
+    }
+
+    @Test
+    public void testScorecards_concurrentVotersDoNotExhaustPool() throws Exception {
+        Answer a = createAnswerForVoting();
+        review(a, "rev1", 1);
+        int voters = db.getConnectionPool().getMaxSize() * 8;
+        ExecutorService pool = Executors.newFixedThreadPool(voters);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> votes = new ArrayList<>();
+        for (int i = 0; i < voters; i++) {
+            String user = "voter" + i;
+            votes.add(pool.submit(() -> {
+                start.await();
+                return db.castVote(a.getAnswerID(), user, 1);
+            }));
+        }
+        start.countDown();
+        for (Future<Boolean> vote : votes) {
+            assertTrue(vote.get());
+        }
+        pool.shutdown();
+        assertEquals(voters, db.getAnswerByID(a.getAnswerID()).getUpvotes());
+        // Default weights of 1: the rating plus one point per upvote
+        assertEquals(1L + voters, scoresByReviewer().get("rev1"));
+    }
+
+    @Test
+    public void testScorecards_fullRecomputeOverManyChunks() throws SQLException {
+        Answer a = createAnswerForVoting();
+        db.castVote(a.getAnswerID(), "u1", 1);
+        int reviews = 10_000; // several streaming chunks
+        try (Connection c = DriverManager.getConnection(dbUrl, "sa", "");
+             PreparedStatement ps = c.prepareStatement(
+                     "INSERT INTO cse360reviews (answer_id, reviewer_user, review_text, rating) VALUES (?, ?, 'bulk', ?)")) {
+            for (int i = 0; i < reviews; i++) {
+                ps.setInt(1, a.getAnswerID());
+                ps.setString(2, "rev" + (i % 7));
+                ps.setInt(3, i % 5 + 1);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        assertEquals(7, db.recomputeScorecards());
+        List<ReviewerScorecard> cards = db.getReviewerScorecards();
+        assertEquals(reviews, cards.stream().mapToInt(ReviewerScorecard::getReviewCount).sum());
+        long ratingTotal = IntStream.range(0, reviews).map(i -> i % 5 + 1).sum();
+        assertEquals(ratingTotal, cards.stream().mapToLong(ReviewerScorecard::getRatingTotal).sum());
+        // Default weights of 1: rating total plus one upvote per review
+        assertEquals(ratingTotal + reviews, cards.stream().mapToLong(ReviewerScorecard::getScore).sum());
+        assertTrue(cards.get(0).getScore() >= cards.get(cards.size() - 1).getScore());
+    }
+
+    @Test
+    public void testScorecardConfig_savedAsOneSnapshotAndAnnounced() throws SQLException {
+        assertEquals(ScorecardConfig.DEFAULTS, db.getScorecardConfig());
+        List<ScorecardConfig> announced = new ArrayList<>();
+        db.addScorecardConfigListener(announced::add);
+
+        ScorecardConfig config = new ScorecardConfig(2, 3, 10);
+        assertTrue(db.saveScorecardConfig(config));
+        assertSame(config, db.getScorecardConfig());
+        assertEquals(List.of(config), announced);
+
+        // Reads come from the snapshot, not the table
+        try (Connection c = DriverManager.getConnection(dbUrl, "sa", "")) {
+            c.createStatement().executeUpdate("UPDATE cse360scorecard_params SET param_value = 99");
+        }
+        assertEquals(10, db.getScorecardParam(ScorecardConfig.RATING_WEIGHT));
+
+        // A new helper loads the stored parameters once on connect
+        db.setScorecardParam(ScorecardConfig.UPVOTE_WEIGHT, 5);
+        assertEquals(new ScorecardConfig(5, 3, 10), announced.get(1));
+        DatabaseHelper other = new DatabaseHelper(dbUrl);
+        other.connectToDatabase();
+        try {
+            assertEquals(new ScorecardConfig(5, 3, 10), other.getScorecardConfig());
+        } finally {
+            other.closeConnection();
+        }
+    }
+
+    // Batched review queries
+    @Test
+    public void testReviewBatches_groupedPerAnswerInOneCall() throws SQLException {
+        Answer a = createAnswerForVoting();
+        Answer b = new Answer(0, a.getQuestionID(), "carol", "Another answer");
+        db.createAnswer(b);
+        Answer unreviewed = new Answer(0, a.getQuestionID(), "dave", "No reviews yet");
+        db.createAnswer(unreviewed);
+        db.addOrUpdateTrustedReviewer("alice", "rev1", 3);
+        db.addOrUpdateTrustedReviewer("alice", "rev2", 1);
+        review(a, "rev1", 5);
+        review(a, "rev2", 1);
+        review(a, "rev3", 3);
+        review(b, "rev3", 4);
+
+        List<Integer> ids = List.of(a.getAnswerID(), b.getAnswerID(), unreviewed.getAnswerID());
+        Map<Integer, List<Review>> reviews = db.getReviewsForAnswers(ids);
+        assertEquals(ids, new ArrayList<>(reviews.keySet()));
+        assertEquals(List.of("rev1", "rev2", "rev3"), reviews.get(a.getAnswerID()).stream()
+                .map(Review::getReviewerUserName).collect(Collectors.toList()));
+        assertEquals(1, reviews.get(b.getAnswerID()).size());
+        assertTrue(reviews.get(unreviewed.getAnswerID()).isEmpty());
+        assertEquals(3, db.getReviewsByAnswerId(a.getAnswerID()).size());
+
+        Map<Integer, ReviewStats> stats = db.getReviewStatsForAnswers("alice", ids);
+        ReviewStats sa = stats.get(a.getAnswerID());
+        assertEquals(3, sa.getReviewCount());
+        assertEquals(3.0, sa.getAverageRating(), 1e-9);
+        assertEquals(2, sa.getTrustedReviewCount());
+        assertEquals((3 * 5 + 1 * 1) / 4.0, sa.getTrustedAverage(), 1e-9);
+        assertEquals(0, stats.get(b.getAnswerID()).getTrustedReviewCount());
+        assertEquals(0, stats.get(unreviewed.getAnswerID()).getReviewCount());
+
+        // Another viewer trusts nobody: same counts, no trusted part
+        ReviewStats forBob = db.getReviewStatsForAnswers("bob", ids).get(a.getAnswerID());
+        assertEquals(3, forBob.getReviewCount());
+        assertEquals(0.0, forBob.getTrustedAverage(), 1e-9);
+        assertTrue(db.getReviewStatsForAnswers("alice", List.of()).isEmpty());
+    }
+
+    // QuestionDetailView tests
+    @Test
+    public void testQuestionDetailView_oneQueryThenServedFromCaches() throws SQLException {
+        Answer a = createAnswerForVoting();
+        Answer b = new Answer(0, a.getQuestionID(), "carol", "Another answer");
+        db.createAnswer(b);
+        db.addOrUpdateTrustedReviewer("alice", "rev1", 2);
+        review(a, "rev1", 5);
+        review(a, "rev2", 2);
+        db.castVote(b.getAnswerID(), "u1", 1);
+        db.getQuestionCache().clear();
+        db.getAnswerCache().clear();
+
+        QuestionDetailView view = db.getQuestionDetailView("alice", a.getQuestionID());
+        assertEquals("Votes", view.getQuestion().getQuestionTitle());
+        assertEquals(List.of(a.getAnswerID(), b.getAnswerID()),
+                view.getAnswers().stream().map(Answer::getAnswerID).collect(Collectors.toList()));
+        assertEquals(1, view.getAnswers().get(1).getUpvotes());
+        ReviewStats stats = view.getReviewStats(a.getAnswerID());
+        assertEquals(2, stats.getReviewCount());
+        assertEquals(3.5, stats.getAverageRating(), 1e-9);
+        assertEquals(5.0, stats.getTrustedAverage(), 1e-9);
+        assertEquals(0, view.getReviewStats(b.getAnswerID()).getReviewCount());
+        // The batched stats come from the same aggregate as the view's
+        ReviewStats batched = db.getReviewStatsForAnswers("alice", List.of(a.getAnswerID())).get(a.getAnswerID());
+        assertEquals(stats.toString(), batched.toString());
+        // Trusted 2*5 beats b's single upvote
+        assertEquals(a.getAnswerID(), view.getRankedAnswers().get(0).getAnswerID());
+
+        // Reopening is assembled from the caches the first load filled
+        long misses = db.getQuestionCache().getMissCount() + db.getAnswerCache().getMissCount();
+        try (Connection c = DriverManager.getConnection(dbUrl, "sa", "")) {
+            c.createStatement().executeUpdate("UPDATE cse360questions SET question_title = 'Changed behind the cache'");
+        }
+        QuestionDetailView again = db.getQuestionDetailView("alice", a.getQuestionID());
+        assertEquals("Votes", again.getQuestion().getQuestionTitle());
+        assertEquals(misses, db.getQuestionCache().getMissCount() + db.getAnswerCache().getMissCount());
+
+        // Votes and reviews made through the helper show up on the next open
+        db.castVote(b.getAnswerID(), "u2", 1);
+        review(b, "rev2", 4);
+        QuestionDetailView updated = db.getQuestionDetailView("alice", a.getQuestionID());
+        assertEquals(2, updated.getAnswers().get(1).getUpvotes());
+        assertEquals(1, updated.getReviewStats(b.getAnswerID()).getReviewCount());
+
+        Question unanswered = new Question("alice", "Unanswered", "Nobody has answered yet");
+        db.createQuestion(unanswered);
+        assertTrue(db.getQuestionDetailView("alice", unanswered.getQuestionID()).getAnswers().isEmpty());
+        assertNull(db.getQuestionDetailView("alice", -1));
+    }
+}
@@ -4,6 +4,17 @@ import application.*;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
 public class TP3TestSuite {
 
     // Answer.java tests
@@ -143,6 +154,71 @@ public class TP3TestSuite {
         assertEquals("", result); 
     }
 
+    @Test
+    public void testPasswordEvaluateValidReturnsSharedResult() {
+        PasswordEvaluation result = PasswordEvaluator.evaluate("Valid123!");
+        assertTrue(result.isValid());
+        assertSame(PasswordEvaluation.VALID, result);
+    }
+
+    @Test
+    public void testPasswordEvaluateReportsMissingRulesAndInvalidChar() {
+        PasswordEvaluation missing = PasswordEvaluator.evaluate("lower1!");
+        assertFalse(missing.isValid());
+        assertFalse(missing.hasUpperCase());
+        assertFalse(missing.isLongEnough());
+        assertTrue(missing.hasLowerCase());
+        assertEquals("*** ERROR *** Upper case; Long Enough; conditions were not satisfied", missing.getErrorMessage());
+
+        PasswordEvaluation invalid = PasswordEvaluator.evaluate("Abc def1!");
+        assertTrue(invalid.hasInvalidChar());
+        assertEquals(3, invalid.getIndexOfError());
+    }
+
+    @Test
+    public void testPasswordEvaluateMatchesScalarScanForLongInputs() {
+        // Long enough for the Vector API scan; every character 0-255 at several positions
+        String base = "Aa1!Bb2@Cc3#Dd4$Ee5%Ff6^Gg7&Hh8*Ii9(Jj0)Kk";
+        for (char c = 0; c < 256; c++) {
+            for (int pos : new int[] { 0, 5, 31, 40 }) {
+                String input = base.substring(0, pos) + c + base.substring(pos);
+                PasswordEvaluation vector = PasswordEvaluator.evaluate(input);
+                PasswordEvaluation scalar = PasswordEvaluator.evaluateScalar(input);
+                assertEquals(scalar.getErrorMessage(), vector.getErrorMessage(), "char " + (int) c + " at " + pos);
+                assertEquals(scalar.getIndexOfError(), vector.getIndexOfError());
+                assertEquals(scalar.hasUpperCase(), vector.hasUpperCase());
+                assertEquals(scalar.hasSpecialChar(), vector.hasSpecialChar());
+                assertEquals(scalar.isLongEnough(), vector.isLongEnough());
+            }
+        }
+        PasswordEvaluation missing = PasswordEvaluator.evaluate("abcdefghijklmnopqrstuvwxyzabcdefghijklmnop");
+        assertEquals(PasswordEvaluator.evaluateScalar("abcdefghijklmnopqrstuvwxyzabcdefghijklmnop").getErrorMessage(),
+                missing.getErrorMessage());
+    }
+
+    @Test
+    public void testPasswordEvaluateIsThreadSafe() throws InterruptedException {
+        String[] passwords = { "Valid123!", "short", "NoDigits!!", "Another9$pass" };
+        boolean[] expected = { true, false, false, true };
+        java.util.concurrent.atomic.AtomicInteger wrong = new java.util.concurrent.atomic.AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int mine = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    if (PasswordEvaluator.evaluate(passwords[mine]).isValid() != expected[mine]) {
+                        wrong.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(0, wrong.get());
+    }
+
     @Test
     public void testStartCSE360Singletons() {
         assertNotNull(StartCSE360.getDatabaseHelper());
@@ -181,6 +257,31 @@ public class TP3TestSuite {
         assertTrue(result.contains("must start with A-Z or a-z"));
     }
 
+    @Test
+    public void testRecognizeReturnsCodeAndErrorIndex() {
+        assertSame(UserNameValidation.VALID, UserNameRecognizer.recognize("first.last_2"));
+        assertEquals(new UserNameValidation(UserNameValidation.Code.INVALID_CHARACTER, 5),
+                UserNameRecognizer.recognize("alice!"));
+        assertEquals(new UserNameValidation(UserNameValidation.Code.INVALID_AFTER_SEPARATOR, 6),
+                UserNameRecognizer.recognize("alice..b"));
+        assertEquals(new UserNameValidation(UserNameValidation.Code.TOO_LONG, 16),
+                UserNameRecognizer.recognize("abcdefghijklmnopq"));
+        assertEquals(UserNameValidation.Code.EMPTY, UserNameRecognizer.recognize("").code());
+    }
+
+    @Test
+    public void testRecognizeAllKeepsOrderForLargeRoster() {
+        java.util.List<String> roster = new java.util.ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            roster.add(i % 2 == 0 ? "student" + i : "9student" + i);
+        }
+        java.util.List<UserNameValidation> results = UserNameRecognizer.recognizeAll(roster);
+        assertEquals(roster.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i % 2 == 0, results.get(i).isValid());
+        }
+    }
+
     @Test
     public void testUserNameRetrieval() {
         User u = new User("maxwell", "pw", "staff");
@@ -217,4 +318,120 @@ public class TP3TestSuite {
         q.setAuthor("sunyen");
         assertEquals("sunyen", q.getAuthor());
     }
+
+    // AsyncData tests: callbacks run inline instead of on the JavaFX thread
+    @Test
+    public void testAsyncLoad_runsOffCallerThread() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AsyncData.Scope scope = new AsyncData(executor, Runnable::run).scope();
+        AtomicReference<Thread> loadThread = new AtomicReference<>();
+        AtomicReference<String> loaded = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        scope.load(() -> {
+            loadThread.set(Thread.currentThread());
+            return "answers";
+        }, value -> {
+            loaded.set(value);
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals("answers", loaded.get());
+        assertNotSame(Thread.currentThread(), loadThread.get());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testAsyncLoad_cancelledBeforeStartNeverRuns() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AsyncData data = new AsyncData(executor, Runnable::run);
+        CountDownLatch release = new CountDownLatch(1);
+        data.supply(() -> release.await(5, TimeUnit.SECONDS)); // occupies the only thread
+        AtomicBoolean ran = new AtomicBoolean(false);
+
+        CompletableFuture<String> future = data.supply(() -> {
+            ran.set(true);
+            return "late";
+        });
+        assertTrue(future.cancel(false));
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertFalse(ran.get());
+    }
+
+    @Test
+    public void testAsyncScopeClose_dropsLoadsButKeepsWrites() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AsyncData.Scope scope = new AsyncData(executor, Runnable::run).scope();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean loadRan = new AtomicBoolean(false);
+        AtomicBoolean callbackRan = new AtomicBoolean(false);
+        AtomicBoolean writeRan = new AtomicBoolean(false);
+
+        scope.load(() -> release.await(5, TimeUnit.SECONDS), v -> callbackRan.set(true));
+        scope.load(() -> loadRan.getAndSet(true), v -> callbackRan.set(true));
+        scope.write(() -> writeRan.getAndSet(true), v -> callbackRan.set(true));
+        scope.close(); // the user navigated away
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertTrue(scope.isClosed());
+        assertEquals(0, scope.getPendingCount());
+        assertFalse(loadRan.get());
+        assertTrue(writeRan.get());
+        assertFalse(callbackRan.get());
+    }
+
+    // AnswerChangeEvent tests: the list stays ordered by answer ID and only one element changes
+    @Test
+    public void testAnswerChange_updateReplacesOnlyThatAnswer() {
+        List<Answer> list = new ArrayList<>();
+        for (int id = 1; id <= 3; id++) {
+            list.add(new Answer(id, 7, "author" + id, "Answer " + id));
+        }
+        Answer first = list.get(0);
+        Answer voted = new Answer(2, 7, "author2", "Answer 2");
+        voted.upvote();
+
+        new AnswerChangeEvent(AnswerChangeEvent.Type.UPDATED, 7, 2, voted).applyTo(list);
+
+        assertEquals(3, list.size());
+        assertSame(first, list.get(0));
+        assertSame(voted, list.get(1));
+        assertEquals(1, list.get(1).getUpvotes());
+    }
+
+    @Test
+    public void testAnswerChange_insertAndDeleteKeepOrder() {
+        List<Answer> list = new ArrayList<>();
+        list.add(new Answer(1, 7, "a", "First"));
+        list.add(new Answer(5, 7, "b", "Fifth"));
+
+        new AnswerChangeEvent(AnswerChangeEvent.Type.INSERTED, 7, 3, new Answer(3, 7, "c", "Third")).applyTo(list);
+        new AnswerChangeEvent(AnswerChangeEvent.Type.INSERTED, 7, 9, new Answer(9, 7, "d", "Ninth")).applyTo(list);
+        new AnswerChangeEvent(AnswerChangeEvent.Type.DELETED, 7, 1, null).applyTo(list);
+        new AnswerChangeEvent(AnswerChangeEvent.Type.DELETED, 7, 4, null).applyTo(list); // not in the list
+
+        assertEquals(List.of(3, 5, 9), list.stream().map(Answer::getAnswerID).toList());
+    }
+
+    @Test
+    public void testUserRoles_exactBitChecks() {
+        User u = new User("carol", "pw", "admin, superreviewer,admin");
+        assertTrue(u.hasRole(Role.ADMIN));
+        assertFalse(u.hasRole(Role.REVIEWER)); // no substring match
+        assertFalse(u.hasRole("reviewer"));
+        assertEquals(List.of("admin", "superreviewer"), u.getRoles());
+        assertEquals(EnumSet.of(Role.ADMIN), u.getRoleSet());
+
+        u.setRoles(List.of("Reviewer", "student"));
+        assertTrue(u.hasRole(Role.REVIEWER));
+        assertTrue(u.hasRole(Role.STUDENT));
+        assertFalse(u.hasRole(Role.ADMIN));
+        assertNull(Role.fromName("superreviewer"));
+    }
 }
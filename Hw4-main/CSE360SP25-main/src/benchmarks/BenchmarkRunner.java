@@ -0,0 +1,157 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Minimal JMH-style harness: each benchmark is run for a number of warmup iterations
+ * (results discarded, so the JIT can compile it) and then measured iterations, and the
+ * mean time per operation is reported with its standard deviation.
+ *
+ * The project has no build tool to pull in JMH, so the benchmarks are plain main programs
+ * on top of this class. Return values are consumed by a volatile sink so that the JIT
+ * cannot remove the work being measured. Results can be written to a JSON file so runs
+ * can be compared across commits.
+ */
+public class BenchmarkRunner {
+
+    /** One measured piece of work, run operations times per call. */
+    public interface Benchmark {
+        Object run(int operations) throws Exception;
+    }
+
+    /** The measurement for one benchmark. */
+    public static class Result {
+        private final String name;
+        private final double meanNanosPerOp;
+        private final double stdDevNanosPerOp;
+        private final int iterations;
+        private final int operationsPerIteration;
+
+        Result(String name, double meanNanosPerOp, double stdDevNanosPerOp, int iterations, int operationsPerIteration) {
+            this.name = name;
+            this.meanNanosPerOp = meanNanosPerOp;
+            this.stdDevNanosPerOp = stdDevNanosPerOp;
+            this.iterations = iterations;
+            this.operationsPerIteration = operationsPerIteration;
+        }
+
+        public String getName() { return name; }
+        public double getMeanNanosPerOp() { return meanNanosPerOp; }
+        public double getStdDevNanosPerOp() { return stdDevNanosPerOp; }
+        public int getIterations() { return iterations; }
+        public int getOperationsPerIteration() { return operationsPerIteration; }
+
+        public double getOpsPerSecond() {
+            return meanNanosPerOp == 0 ? 0 : 1_000_000_000.0 / meanNanosPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-45s %12.1f ns/op  +/- %8.1f  %14.0f ops/s",
+                    name, meanNanosPerOp, stdDevNanosPerOp, getOpsPerSecond());
+        }
+    }
+
+    private static volatile Object sink;
+
+    private final int warmupIterations;
+    private final int measuredIterations;
+    private final PrintStream report;
+    private final List<Result> results = new ArrayList<>();
+
+    public BenchmarkRunner(int warmupIterations, int measuredIterations) {
+        this(warmupIterations, measuredIterations, System.out);
+    }
+
+    // report receives one line per result, so System.out can be silenced while measuring
+    public BenchmarkRunner(int warmupIterations, int measuredIterations, PrintStream report) {
+        this.warmupIterations = warmupIterations;
+        this.measuredIterations = measuredIterations;
+        this.report = report;
+    }
+
+    /** Defaults that are quick enough to run by hand: 5 warmup and 10 measured iterations. */
+    public BenchmarkRunner() {
+        this(5, 10);
+    }
+
+    public Result run(String name, int operationsPerIteration, Benchmark benchmark) throws Exception {
+        for (int i = 0; i < warmupIterations; i++) {
+            sink = benchmark.run(operationsPerIteration);
+        }
+        double[] nanosPerOp = new double[measuredIterations];
+        for (int i = 0; i < measuredIterations; i++) {
+            long start = System.nanoTime();
+            sink = benchmark.run(operationsPerIteration);
+            nanosPerOp[i] = (double) (System.nanoTime() - start) / operationsPerIteration;
+        }
+
+        double mean = 0;
+        for (double n : nanosPerOp) {
+            mean += n;
+        }
+        mean /= nanosPerOp.length;
+        double variance = 0;
+        for (double n : nanosPerOp) {
+            variance += (n - mean) * (n - mean);
+        }
+        double stdDev = nanosPerOp.length > 1 ? Math.sqrt(variance / (nanosPerOp.length - 1)) : 0;
+
+        Result result = new Result(name, mean, stdDev, measuredIterations, operationsPerIteration);
+        results.add(result);
+        report.println(result);
+        return result;
+    }
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    /**
+     * Writes every result so far as JSON: {"metadata": {...}, "results": [{"name": ..., ...}]}.
+     * metadata is for the run as a whole, e.g. the Java version and dataset seed.
+     */
+    public void writeJson(Path file, Map<String, String> metadata) throws IOException {
+        StringBuilder json = new StringBuilder("{\n  \"metadata\": {");
+        String separator = "\n";
+        for (Map.Entry<String, String> e : metadata.entrySet()) {
+            json.append(separator).append("    ").append(quote(e.getKey())).append(": ").append(quote(e.getValue()));
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"results\": [");
+        separator = "\n";
+        for (Result r : results) {
+            json.append(separator).append(String.format(Locale.ROOT,
+                    "    {\"name\": %s, \"meanNanosPerOp\": %.3f, \"stdDevNanosPerOp\": %.3f, "
+                            + "\"opsPerSecond\": %.1f, \"iterations\": %d, \"operationsPerIteration\": %d}",
+                    quote(r.getName()), r.getMeanNanosPerOp(), r.getStdDevNanosPerOp(),
+                    r.getOpsPerSecond(), r.getIterations(), r.getOperationsPerIteration()));
+            separator = ",\n";
+        }
+        json.append("\n  ]\n}\n");
+        Files.writeString(file, json, StandardCharsets.UTF_8);
+    }
+
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
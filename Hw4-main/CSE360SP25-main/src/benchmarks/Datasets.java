@@ -0,0 +1,116 @@
+package benchmarks;
+
+import application.Answer;
+import application.Question;
+import databasePart1.DatabaseHelper;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Reproducible benchmark data. Everything is generated from a seed, so two runs with the
+ * same seed load the same rows and issue the same queries.
+ */
+public class Datasets {
+
+    public static final long DEFAULT_SEED = 360L;
+
+    private static final String[] SYLLABLES = {
+        "ja", "va", "lo", "op", "ar", "ray", "str", "ing", "map", "set", "in", "dex", "que", "ry",
+        "clas", "ses", "thr", "ead", "pool", "db", "sql", "fx", "node", "tree", "hash", "sort",
+    };
+
+    private final long seed;
+    private final String[] vocabulary;
+
+    public Datasets(long seed) {
+        this.seed = seed;
+        Random random = new Random(seed);
+        vocabulary = new String[2000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            StringBuilder word = new StringBuilder();
+            int parts = 2 + random.nextInt(3);
+            for (int p = 0; p < parts; p++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            vocabulary[i] = word.toString();
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Picks words with a skew towards the front of the vocabulary, like real text.
+    private String words(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            double skewed = random.nextDouble() * random.nextDouble();
+            sb.append(vocabulary[(int) (skewed * vocabulary.length)]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Imports questionCount questions, and an answer for every other question,
+     * through the bulk import API. Returns the new question IDs.
+     */
+    public List<Integer> load(DatabaseHelper db, int questionCount) throws SQLException {
+        Random random = new Random(seed);
+        List<Integer> questionIDs = db.importQuestions(IntStream.range(0, questionCount).mapToObj(i ->
+                new Question("user" + random.nextInt(500), words(random, 4 + random.nextInt(5)),
+                        words(random, 20 + random.nextInt(20)))));
+        db.importAnswers(IntStream.range(0, questionCount / 2).mapToObj(i ->
+                new Answer(0, questionIDs.get(i * 2), "user" + random.nextInt(500),
+                        words(random, 10 + random.nextInt(20)))));
+        return questionIDs;
+    }
+
+    // Search queries of one or two words, the way people type into the questions page.
+    public String[] searchQueries(int count) {
+        Random random = new Random(seed + 1);
+        String[] queries = new String[count];
+        for (int i = 0; i < count; i++) {
+            queries[i] = words(random, 1 + random.nextInt(2));
+        }
+        return queries;
+    }
+
+    // A mix of valid and invalid passwords, like users typing them.
+    public String[] passwords(int count) {
+        Random random = new Random(seed + 2);
+        String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789!@#$%^&*() ";
+        String[] passwords = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = 4 + random.nextInt(16);
+            for (int c = 0; c < length; c++) {
+                sb.append(chars.charAt(random.nextInt(chars.length())));
+            }
+            passwords[i] = sb.toString();
+        }
+        return passwords;
+    }
+
+    // A class roster: mostly valid user names with some typical mistakes.
+    public String[] userNames(int count) {
+        Random random = new Random(seed + 3);
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            String name = vocabulary[random.nextInt(vocabulary.length)];
+            switch (random.nextInt(10)) {
+                case 0: name = random.nextInt(10) + name; break;      // starts with a digit
+                case 1: name = name + ".."; break;                    // separator not followed by a letter
+                case 2: name = name + name + name + name; break;      // probably too long
+                default: name = name + (random.nextBoolean() ? "_" : "") + random.nextInt(1000);
+            }
+            names[i] = name;
+        }
+        return names;
+    }
+}
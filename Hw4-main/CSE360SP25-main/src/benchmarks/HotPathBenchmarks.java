@@ -0,0 +1,193 @@
+package benchmarks;
+
+import application.Answer;
+import application.PasswordEvaluator;
+import application.Question;
+import application.QuestionSummary;
+import application.UserNameRecognizer;
+import databasePart1.DatabaseHelper;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmarks for the application's hot paths: the validators, DatabaseHelper CRUD,
+ * the QuestionsPage combined search and voting, each against a fresh in-memory H2
+ * database loaded with a seeded dataset of every requested size.
+ *
+ * Usage:
+ *   java --add-modules jdk.incubator.vector benchmarks.HotPathBenchmarks
+ *        [--sizes 1000,10000,100000] [--seed N] [--warmup N] [--iterations N] [--json results.json]
+ *
+ * Compare the JSON output of two commits to catch regressions before deploying.
+ */
+public class HotPathBenchmarks {
+
+    private static final int OPS_PER_ITERATION = 200;
+    private static final int VALIDATIONS_PER_ITERATION = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = { 1_000, 10_000, 100_000 };
+        long seed = Datasets.DEFAULT_SEED;
+        int warmup = 5;
+        int iterations = 10;
+        String jsonFile = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--sizes":
+                    String[] parts = args[i + 1].split(",");
+                    sizes = new int[parts.length];
+                    for (int p = 0; p < parts.length; p++) {
+                        sizes[p] = Integer.parseInt(parts[p].trim());
+                    }
+                    break;
+                case "--seed": seed = Long.parseLong(args[i + 1]); break;
+                case "--warmup": warmup = Integer.parseInt(args[i + 1]); break;
+                case "--iterations": iterations = Integer.parseInt(args[i + 1]); break;
+                case "--json": jsonFile = args[i + 1]; break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        // DatabaseHelper logs every call to System.out; keep that out of the measurements.
+        PrintStream report = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        BenchmarkRunner runner = new BenchmarkRunner(warmup, iterations, report);
+        Datasets data = new Datasets(seed);
+        benchmarkValidators(runner, data);
+        for (int size : sizes) {
+            report.println("--- " + size + " questions ---");
+            benchmarkDatabase(runner, data, size);
+        }
+
+        if (jsonFile != null) {
+            Map<String, String> metadata = new LinkedHashMap<>();
+            metadata.put("timestamp", LocalDateTime.now().toString());
+            metadata.put("javaVersion", System.getProperty("java.version"));
+            metadata.put("availableProcessors", String.valueOf(Runtime.getRuntime().availableProcessors()));
+            metadata.put("seed", String.valueOf(seed));
+            metadata.put("vectorScan", String.valueOf(PasswordEvaluator.isVectorScanEnabled()));
+            runner.writeJson(Paths.get(jsonFile), metadata);
+            report.println("Results written to " + jsonFile);
+        }
+        System.setOut(report);
+    }
+
+    static void benchmarkValidators(BenchmarkRunner runner, Datasets data) throws Exception {
+        String[] passwords = data.passwords(VALIDATIONS_PER_ITERATION);
+        String[] userNames = data.userNames(VALIDATIONS_PER_ITERATION);
+        runner.run("validators.passwordEvaluate", passwords.length, ops -> {
+            int valid = 0;
+            for (String p : passwords) {
+                if (PasswordEvaluator.evaluate(p).isValid()) {
+                    valid++;
+                }
+            }
+            return valid;
+        });
+        runner.run("validators.userNameRecognize", userNames.length, ops -> {
+            int valid = 0;
+            for (String n : userNames) {
+                if (UserNameRecognizer.recognize(n).isValid()) {
+                    valid++;
+                }
+            }
+            return valid;
+        });
+    }
+
+    static void benchmarkDatabase(BenchmarkRunner runner, Datasets data, int size) throws Exception {
+        // No DB_CLOSE_DELAY: the database is dropped when the pool closes its connections.
+        DatabaseHelper db = new DatabaseHelper("jdbc:h2:mem:bench" + size);
+        db.connectToDatabase();
+        try {
+            List<Integer> questionIDs = data.load(db, size);
+            List<Integer> answerIDs = new ArrayList<>();
+            for (int i = 0; i < Math.min(size, 400); i += 2) {
+                for (Answer a : db.getAnswersByQuestionID(questionIDs.get(i))) {
+                    answerIDs.add(a.getAnswerID());
+                }
+            }
+            String[] queries = data.searchQueries(OPS_PER_ITERATION);
+            Random random = new Random(data.getSeed());
+            String prefix = size + ".";
+
+            // QuestionsPage combined search: ranked IDs from the index, then one query for the rows
+            runner.run(prefix + "search.combined", queries.length, ops -> {
+                int found = 0;
+                for (String q : queries) {
+                    found += db.getQuestionsByIDs(db.searchQuestionIDs(q)).size();
+                }
+                return found;
+            });
+
+            runner.run(prefix + "crud.getQuestionByID", OPS_PER_ITERATION, ops -> {
+                Question last = null;
+                for (int i = 0; i < ops; i++) {
+                    last = db.getQuestionByID(questionIDs.get(random.nextInt(questionIDs.size())));
+                }
+                return last;
+            });
+
+            runner.run(prefix + "crud.getQuestionSummariesPage", OPS_PER_ITERATION, ops -> {
+                int rows = 0;
+                for (int i = 0; i < ops; i++) {
+                    int after = questionIDs.get(random.nextInt(questionIDs.size()));
+                    rows += db.getQuestionSummaries(after, 50, QuestionSummary.Filter.ALL).size();
+                }
+                return rows;
+            });
+
+            runner.run(prefix + "crud.getAnswersByQuestionID", OPS_PER_ITERATION, ops -> {
+                int rows = 0;
+                for (int i = 0; i < ops; i++) {
+                    rows += db.getAnswersByQuestionID(questionIDs.get(random.nextInt(questionIDs.size()))).size();
+                }
+                return rows;
+            });
+
+            // Create, edit and delete a question: the table size stays the same across iterations
+            runner.run(prefix + "crud.createUpdateDeleteQuestion", OPS_PER_ITERATION, ops -> {
+                for (int i = 0; i < ops; i++) {
+                    Question q = new Question("bench", "Benchmark question " + i, "Created to be deleted");
+                    db.createQuestion(q);
+                    q.setQuestionText("Edited");
+                    db.updateQuestion(q);
+                    db.deleteQuestion(q.getQuestionID());
+                }
+                return ops;
+            });
+
+            int[] voter = { 0 };
+            runner.run(prefix + "votes.castVote", OPS_PER_ITERATION, ops -> {
+                int changed = 0;
+                for (int i = 0; i < ops; i++) {
+                    int answerID = answerIDs.get(random.nextInt(answerIDs.size()));
+                    if (db.castVote(answerID, "voter" + (voter[0]++), random.nextBoolean() ? 1 : -1)) {
+                        changed++;
+                    }
+                }
+                return changed;
+            });
+
+            runner.run(prefix + "votes.incrementVote", OPS_PER_ITERATION, ops -> {
+                for (int i = 0; i < ops; i++) {
+                    db.incrementVote(answerIDs.get(random.nextInt(answerIDs.size())), 1);
+                }
+                return ops;
+            });
+        } finally {
+            db.closeConnection();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package databasePart1;
+
+import application.Answer;
+import application.ReviewStats;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ranks a question's answers for one viewer.
+ *
+ * An answer's score is its net votes (upvotes - downvotes) plus, for every review of it
+ * written by someone the viewer trusts, that reviewer's trust weight times the review's
+ * rating. The review part comes from one aggregate query per (viewer, question) and is
+ * cached; DatabaseHelper invalidates it when a review is added to the question or the
+ * viewer's trust weights change. The vote part is read from the Answer objects at
+ * ranking time, so votes never make a cached ranking stale.
+ *
+ * The same query also counts every review of each answer, so the scores double as the
+ * review badges of the question page (see QuestionDetailView).
+ */
+public class AnswerRanking {
+
+    // The aggregate columns read by readTotals, grouped by r.answer_id; t is the viewer's trusted reviewers.
+    private static final String TOTALS_COLUMNS =
+            "SELECT r.answer_id, COUNT(*) AS review_count, SUM(r.rating) AS rating_total, "
+            + "COUNT(t.weight) AS trusted_reviews, SUM(t.weight * r.rating) AS trusted_score, SUM(t.weight) AS trusted_weight ";
+
+    /**
+     * Per-answer review totals of one question for one viewer; parameters are the viewer
+     * and the question ID. Also used as a derived table by DatabaseHelper's question view
+     * loader, which reads the columns with readTotals.
+     */
+    static final String REVIEW_TOTALS_SQL =
+            TOTALS_COLUMNS
+            + "FROM cse360answers a "
+            + "JOIN cse360reviews r ON r.answer_id = a.answer_id "
+            + "LEFT JOIN cse360trusted_reviewers t ON t.reviewer_user = r.reviewer_user AND t.owner_user = ? "
+            + "WHERE a.question_id = ? "
+            + "GROUP BY r.answer_id";
+
+    // The same totals for a set of answers; parameters are the viewer and an INTEGER array of answer IDs.
+    private static final String ANSWER_TOTALS_SQL =
+            TOTALS_COLUMNS
+            + "FROM cse360reviews r "
+            + "LEFT JOIN cse360trusted_reviewers t ON t.reviewer_user = r.reviewer_user AND t.owner_user = ? "
+            + "WHERE r.answer_id = ANY(?) "
+            + "GROUP BY r.answer_id";
+
+    // One answer's row of REVIEW_TOTALS_SQL.
+    static final class Totals {
+        final int reviewCount;
+        final long ratingTotal;
+        final int trustedReviews;
+        final int trustedScore;
+        final long trustedWeight;
+
+        Totals(int reviewCount, long ratingTotal, int trustedReviews, int trustedScore, long trustedWeight) {
+            this.reviewCount = reviewCount;
+            this.ratingTotal = ratingTotal;
+            this.trustedReviews = trustedReviews;
+            this.trustedScore = trustedScore;
+            this.trustedWeight = trustedWeight;
+        }
+
+        // Count and averages for the answer; totals is null for an answer with no reviews.
+        static ReviewStats toStats(int answerId, Totals totals) {
+            ReviewStats stats = new ReviewStats(answerId);
+            if (totals != null) {
+                stats.setReviewCount(totals.reviewCount);
+                stats.setAverageRating((double) totals.ratingTotal / totals.reviewCount);
+                stats.setTrustedReviewCount(totals.trustedReviews);
+                if (totals.trustedWeight != 0) {
+                    stats.setTrustedAverage((double) totals.trustedScore / totals.trustedWeight);
+                }
+            }
+            return stats;
+        }
+    }
+
+    /** The review part of the scores of one question's answers, as seen by one viewer. */
+    public static final class Scores {
+        private final String viewer;
+        private final int questionId;
+        private final Map<Integer, Totals> totals;
+
+        Scores(String viewer, int questionId, Map<Integer, Totals> totals) {
+            this.viewer = viewer;
+            this.questionId = questionId;
+            this.totals = Collections.unmodifiableMap(totals);
+        }
+
+        public static Scores none(String viewer, int questionId) {
+            return new Scores(viewer, questionId, new HashMap<>());
+        }
+
+        public String getViewer() {
+            return viewer;
+        }
+
+        public int getQuestionId() {
+            return questionId;
+        }
+
+        // Sum of weight * rating over the answer's reviews by trusted reviewers.
+        public int getTrustedScore(int answerId) {
+            Totals t = totals.get(answerId);
+            return t == null ? 0 : t.trustedScore;
+        }
+
+        public int getTrustedReviewCount(int answerId) {
+            Totals t = totals.get(answerId);
+            return t == null ? 0 : t.trustedReviews;
+        }
+
+        // Count and averages of all the answer's reviews; a new object each call.
+        public ReviewStats getReviewStats(int answerId) {
+            return Totals.toStats(answerId, totals.get(answerId));
+        }
+
+        public int score(Answer a) {
+            return a.getUpvotes() - a.getDownvotes() + getTrustedScore(a.getAnswerID());
+        }
+
+        // Highest score first; equal scores keep the order the answers were posted in.
+        public Comparator<Answer> comparator() {
+            return Comparator.comparingInt(this::score).reversed().thenComparingInt(Answer::getAnswerID);
+        }
+
+        // Returns a new list of the answers, best first.
+        public List<Answer> rank(List<Answer> answers) {
+            List<Answer> ranked = new ArrayList<>(answers);
+            ranked.sort(comparator());
+            return ranked;
+        }
+    }
+
+    private final ConnectionPool pool;
+    // viewer + question -> scores; values are immutable, so they are shared rather than copied
+    private final EntityCache<String, Scores> cache = new EntityCache<>("answerScores", 2000, scores -> scores);
+
+    public AnswerRanking(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    static String key(String viewer, int questionId) {
+        return viewer + "\n" + questionId;
+    }
+
+    public Scores getScores(String viewer, int questionId) {
+        Scores scores = cache.get(key(viewer, questionId), key -> load(viewer, questionId));
+        return scores != null ? scores : Scores.none(viewer, questionId);
+    }
+
+    // The cached scores, or null; never queries.
+    public Scores getScoresIfPresent(String viewer, int questionId) {
+        return cache.getIfPresent(key(viewer, questionId));
+    }
+
+    private Scores load(String viewer, int questionId) {
+        Map<Integer, Totals> totals = new HashMap<>();
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(REVIEW_TOTALS_SQL)) {
+            pstmt.setString(1, viewer);
+            pstmt.setInt(2, questionId);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                totals.put(rs.getInt("answer_id"), readTotals(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null; // not cached; the caller ranks by votes alone
+        }
+        return new Scores(viewer, questionId, totals);
+    }
+
+    /**
+     * Review stats for answers that need not belong to one question, from one grouped
+     * query (not cached). Every requested answer has an entry; one with no reviews has all zeros.
+     */
+    public Map<Integer, ReviewStats> getReviewStats(String viewer, Collection<Integer> answerIds) throws SQLException {
+        Map<Integer, Totals> totals = new HashMap<>();
+        Set<Integer> ids = new LinkedHashSet<>(answerIds);
+        if (!ids.isEmpty()) {
+            try (PooledConnection conn = pool.borrow();
+                 PreparedStatement pstmt = conn.prepareStatement(ANSWER_TOTALS_SQL)) {
+                pstmt.setString(1, viewer);
+                pstmt.setArray(2, conn.getConnection().createArrayOf("INTEGER", ids.toArray()));
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    totals.put(rs.getInt("answer_id"), readTotals(rs));
+                }
+            }
+        }
+        Map<Integer, ReviewStats> stats = new LinkedHashMap<>();
+        for (int id : ids) {
+            stats.put(id, Totals.toStats(id, totals.get(id)));
+        }
+        return stats;
+    }
+
+    // Reads the aggregate columns of REVIEW_TOTALS_SQL from the current row; null if the answer has no reviews.
+    static Totals readTotals(ResultSet rs) throws SQLException {
+        int reviewCount = rs.getInt("review_count");
+        if (reviewCount == 0) {
+            return null;
+        }
+        return new Totals(reviewCount, rs.getLong("rating_total"), rs.getInt("trusted_reviews"),
+                rs.getInt("trusted_score"), rs.getLong("trusted_weight"));
+    }
+
+    // A review on one of the question's answers was added or removed: every viewer's scores change.
+    public void invalidateQuestion(int questionId) {
+        cache.invalidateIf(scores -> scores.questionId == questionId);
+    }
+
+    // The viewer's trusted reviewers or their weights changed.
+    public void invalidateViewer(String viewer) {
+        cache.invalidateIf(scores -> scores.viewer.equals(viewer));
+    }
+
+    public EntityCache<String, Scores> getCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,275 @@
+package databasePart1;
+
+import application.Answer;
+import application.Question;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Command-line bulk import of questions and answers into the database.
+ *
+ * Usage:
+ *   java databasePart1.BulkImport [--batch-size N] [--db jdbc-url] questions-file [answers-file]
+ *
+ * Files are CSV with a header row (.csv) or JSON Lines, one flat object per line (.jsonl / .json).
+ * Question records: id, author, title, text, and optionally creation_time (ISO-8601) and solved.
+ * Answer records: question_id (the id used in the questions file), author, text, and optionally
+ * creation_time and accepted. Each record must be on one line.
+ *
+ * Files are read one line at a time. The only thing kept in memory is the map
+ * from dump question IDs to the new database IDs.
+ */
+public class BulkImport {
+
+    public static void main(String[] args) {
+        int batchSize = DatabaseHelper.DEFAULT_IMPORT_BATCH_SIZE;
+        String dbUrl = DatabaseHelper.DB_URL;
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--batch-size".equals(args[i]) && i + 1 < args.length) {
+                batchSize = Integer.parseInt(args[++i]);
+            } else if ("--db".equals(args[i]) && i + 1 < args.length) {
+                dbUrl = args[++i];
+            } else {
+                files.add(args[i]);
+            }
+        }
+        if (files.isEmpty() || files.size() > 2) {
+            System.err.println("Usage: java databasePart1.BulkImport [--batch-size N] [--db jdbc-url] questions-file [answers-file]");
+            System.exit(1);
+        }
+
+        DatabaseHelper db = new DatabaseHelper(dbUrl);
+        try {
+            db.connectToDatabase();
+            long start = System.nanoTime();
+            Map<Integer, Integer> questionIDs = importQuestions(db, Paths.get(files.get(0)), batchSize);
+            int answers = files.size() > 1 ? importAnswers(db, Paths.get(files.get(1)), questionIDs, batchSize) : 0;
+            System.out.printf("Imported %d questions and %d answers in %d ms%n",
+                    questionIDs.size(), answers, (System.nanoTime() - start) / 1_000_000);
+        } catch (SQLException | IOException | UncheckedIOException | IllegalArgumentException e) {
+            System.err.println("Import failed: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            db.closeConnection();
+        }
+    }
+
+    // Imports the questions file and returns dump ID -> new question ID.
+    static Map<Integer, Integer> importQuestions(DatabaseHelper db, Path file, int batchSize)
+            throws IOException, SQLException {
+        List<Integer> dumpIDs = new ArrayList<>();
+        List<Integer> newIDs;
+        try (Stream<Map<String, String>> records = readRecords(file)) {
+            newIDs = db.importQuestions(records.map(r -> {
+                dumpIDs.add(Integer.parseInt(required(r, "id")));
+                return toQuestion(r);
+            }), batchSize);
+        }
+        Map<Integer, Integer> mapping = new HashMap<>();
+        for (int i = 0; i < newIDs.size(); i++) {
+            mapping.put(dumpIDs.get(i), newIDs.get(i));
+        }
+        return mapping;
+    }
+
+    static int importAnswers(DatabaseHelper db, Path file, Map<Integer, Integer> questionIDs, int batchSize)
+            throws IOException, SQLException {
+        try (Stream<Map<String, String>> records = readRecords(file)) {
+            return db.importAnswers(records.map(r -> toAnswer(r, questionIDs)), batchSize).size();
+        }
+    }
+
+    static Question toQuestion(Map<String, String> r) {
+        Question q = new Question(required(r, "author"), required(r, "title"), required(r, "text"));
+        if (r.get("creation_time") != null && !r.get("creation_time").isBlank()) {
+            q.setCreationTime(LocalDateTime.parse(r.get("creation_time")));
+        }
+        q.setSolved(Boolean.parseBoolean(r.get("solved")));
+        return q;
+    }
+
+    static Answer toAnswer(Map<String, String> r, Map<Integer, Integer> questionIDs) {
+        int dumpQuestionID = Integer.parseInt(required(r, "question_id"));
+        Integer questionID = questionIDs.get(dumpQuestionID);
+        if (questionID == null) {
+            throw new IllegalArgumentException("Answer refers to unknown question id " + dumpQuestionID);
+        }
+        Answer a = new Answer(0, questionID, required(r, "author"), required(r, "text"));
+        if (r.get("creation_time") != null && !r.get("creation_time").isBlank()) {
+            a.setCreationTime(LocalDateTime.parse(r.get("creation_time")));
+        }
+        a.setAccepted(Boolean.parseBoolean(r.get("accepted")));
+        return a;
+    }
+
+    private static String required(Map<String, String> r, String field) {
+        String value = r.get(field);
+        if (value == null) {
+            throw new IllegalArgumentException("Record is missing field '" + field + "': " + r);
+        }
+        return value;
+    }
+
+    // --------------------- Parsing ---------------------
+
+    // Streams the records of a CSV or JSON Lines file. Close the stream to close the file.
+    static Stream<Map<String, String>> readRecords(Path file) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        Stream<String> lines = reader.lines().onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).filter(line -> !line.isBlank());
+
+        if (file.toString().toLowerCase().endsWith(".csv")) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                return lines.map(line -> new LinkedHashMap<>()); // empty file: no records
+            }
+            List<String> header = parseCsvLine(headerLine);
+            return lines.map(line -> {
+                List<String> values = parseCsvLine(line);
+                Map<String, String> record = new LinkedHashMap<>();
+                for (int i = 0; i < header.size() && i < values.size(); i++) {
+                    record.put(header.get(i).trim(), values.get(i));
+                }
+                return record;
+            });
+        }
+        return lines.map(BulkImport::parseJsonLine);
+    }
+
+    // Splits one CSV line. Fields may be quoted, with "" for a quote inside a quoted field.
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (ch == '"') {
+                    quoted = false;
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(ch);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Parses one flat JSON object such as {"id": 3, "title": "Loops", "solved": false}.
+     * Values may be strings, numbers, booleans or null; nested objects and arrays are not supported.
+     */
+    static Map<String, String> parseJsonLine(String line) {
+        Map<String, String> record = new LinkedHashMap<>();
+        int[] pos = { skipSpace(line, 0) };
+        expect(line, pos, '{');
+        if (peek(line, pos) == '}') {
+            return record;
+        }
+        while (true) {
+            String key = readJsonString(line, pos);
+            expect(line, pos, ':');
+            String value;
+            if (peek(line, pos) == '"') {
+                value = readJsonString(line, pos);
+            } else {
+                int start = pos[0];
+                while (pos[0] < line.length() && ",} \t".indexOf(line.charAt(pos[0])) < 0) {
+                    pos[0]++;
+                }
+                value = line.substring(start, pos[0]);
+                if ("null".equals(value)) {
+                    value = null;
+                }
+            }
+            record.put(key, value);
+            char next = peek(line, pos);
+            pos[0]++;
+            if (next == '}') {
+                return record;
+            }
+            if (next != ',') {
+                throw new IllegalArgumentException("Expected ',' or '}' in JSON line: " + line);
+            }
+        }
+    }
+
+    private static String readJsonString(String line, int[] pos) {
+        expect(line, pos, '"');
+        StringBuilder sb = new StringBuilder();
+        while (pos[0] < line.length()) {
+            char ch = line.charAt(pos[0]++);
+            if (ch == '"') {
+                return sb.toString();
+            }
+            if (ch == '\\' && pos[0] < line.length()) {
+                char esc = line.charAt(pos[0]++);
+                switch (esc) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        sb.append((char) Integer.parseInt(line.substring(pos[0], pos[0] + 4), 16));
+                        pos[0] += 4;
+                        break;
+                    default: sb.append(esc); // \" \\ \/
+                }
+            } else {
+                sb.append(ch);
+            }
+        }
+        throw new IllegalArgumentException("Unterminated string in JSON line: " + line);
+    }
+
+    private static void expect(String line, int[] pos, char ch) {
+        if (peek(line, pos) != ch) {
+            throw new IllegalArgumentException("Expected '" + ch + "' at position " + pos[0] + " in JSON line: " + line);
+        }
+        pos[0] = skipSpace(line, pos[0] + 1);
+    }
+
+    // Skips whitespace and returns the next character without consuming it (0 at end of line).
+    private static char peek(String line, int[] pos) {
+        pos[0] = skipSpace(line, pos[0]);
+        return pos[0] < line.length() ? line.charAt(pos[0]) : 0;
+    }
+
+    private static int skipSpace(String line, int i) {
+        while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,316 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small bounded pool of JDBC connections shared by every DatabaseHelper method.
+ * Connections are created lazily up to maxSize, validated when borrowed, and handed
+ * out as PooledConnection objects that go back to the pool when closed.
+ * A background check reports connections that have been held longer than the leak threshold.
+ * The report names the borrowing thread; the borrower's stack trace is only recorded when
+ * leak debugging is on (-Dpool.traceBorrows=true or setTraceBorrows), since capturing it
+ * on every borrow is expensive.
+ */
+public class ConnectionPool {
+
+    static final int DEFAULT_MAX_SIZE = 8;
+    static final long DEFAULT_BORROW_TIMEOUT_MILLIS = 5000;
+    static final long DEFAULT_LEAK_THRESHOLD_MILLIS = 30000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    static final boolean TRACE_BORROWS_DEFAULT = Boolean.getBoolean("pool.traceBorrows");
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long leakThresholdMillis;
+
+    private final BlockingQueue<PooledConnection> idle;
+    private final Set<PooledConnection> leased = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService leakDetector;
+    private volatile boolean closed = false;
+    private volatile boolean traceBorrows = TRACE_BORROWS_DEFAULT;
+
+    // Pool metrics
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong invalidatedCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+
+    public ConnectionPool(String url, String user, String password) {
+        this(url, user, password, DEFAULT_MAX_SIZE, DEFAULT_BORROW_TIMEOUT_MILLIS, DEFAULT_LEAK_THRESHOLD_MILLIS);
+    }
+
+    public ConnectionPool(String url, String user, String password, int maxSize,
+                          long borrowTimeoutMillis, long leakThresholdMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive.");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.idle = new ArrayBlockingQueue<>(maxSize);
+
+        this.leakDetector = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-leak-detector");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1, leakThresholdMillis / 2);
+        leakDetector.scheduleAtFixedRate(this::detectLeaks, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // --------------------- Borrow / Release ---------------------
+
+    /**
+     * Borrows a validated connection, waiting up to the borrow timeout if the pool is exhausted.
+     * The caller must close the returned PooledConnection (try-with-resources) to give it back.
+     */
+    public PooledConnection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed.");
+        }
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+
+        PooledConnection pc = null;
+        while (pc == null) {
+            pc = idle.poll();
+            if (pc == null) {
+                pc = tryCreate();
+            }
+            if (pc == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    timeoutCount.incrementAndGet();
+                    throw new SQLException("Timed out after " + borrowTimeoutMillis
+                            + " ms waiting for a database connection (" + getStatistics() + ")");
+                }
+                try {
+                    pc = idle.poll(remaining, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a database connection.", e);
+                }
+                if (pc == null) {
+                    continue;
+                }
+            }
+            if (!isValid(pc)) {
+                discard(pc);
+                pc = null;
+            }
+        }
+
+        totalWaitNanos.addAndGet(System.nanoTime() - start);
+        borrowCount.incrementAndGet();
+        pc.markBorrowed(traceBorrows);
+        leased.add(pc);
+        return pc;
+    }
+
+    // Called by PooledConnection.close()
+    void release(PooledConnection pc) {
+        if (!leased.remove(pc)) {
+            return; // already released
+        }
+        if (closed) {
+            discard(pc);
+            return;
+        }
+        try {
+            Connection c = pc.getConnection();
+            if (c.isClosed()) {
+                discard(pc);
+                return;
+            }
+            if (!c.getAutoCommit()) {
+                // Never hand out a connection with a half-finished transaction.
+                c.rollback();
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            discard(pc);
+            return;
+        }
+        if (!idle.offer(pc)) {
+            discard(pc);
+        }
+    }
+
+    private PooledConnection tryCreate() throws SQLException {
+        while (true) {
+            int current = totalConnections.get();
+            if (current >= maxSize) {
+                return null;
+            }
+            if (totalConnections.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+        try {
+            Connection c = DriverManager.getConnection(url, user, password);
+            createdCount.incrementAndGet();
+            return new PooledConnection(this, c);
+        } catch (SQLException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private boolean isValid(PooledConnection pc) {
+        try {
+            return pc.getConnection().isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(PooledConnection pc) {
+        invalidatedCount.incrementAndGet();
+        totalConnections.decrementAndGet();
+        pc.closePhysical();
+    }
+
+    // --------------------- Leak Detection ---------------------
+
+    private void detectLeaks() {
+        long now = System.currentTimeMillis();
+        for (PooledConnection pc : leased) {
+            if (!pc.isLeakReported() && now - pc.getBorrowedAt() > leakThresholdMillis) {
+                pc.setLeakReported(true);
+                leakCount.incrementAndGet();
+                System.err.println("Possible connection leak: connection held for "
+                        + (now - pc.getBorrowedAt()) + " ms by thread " + pc.getBorrowerThread());
+                if (pc.getBorrowTrace() != null) {
+                    pc.getBorrowTrace().printStackTrace();
+                } else {
+                    System.err.println("(enable -Dpool.traceBorrows=true to see where it was borrowed)");
+                }
+            }
+        }
+    }
+
+    // --------------------- Shutdown ---------------------
+
+    public void close() {
+        closed = true;
+        leakDetector.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.poll()) != null) {
+            totalConnections.decrementAndGet();
+            pc.closePhysical();
+        }
+        // Leased connections are closed when they are released.
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    // --------------------- Metrics ---------------------
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getActiveCount() {
+        return leased.size();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    public long getInvalidatedCount() {
+        return invalidatedCount.get();
+    }
+
+    public long getLeakCount() {
+        return leakCount.get();
+    }
+
+    // Leak debugging: record the stack trace of every borrow from now on.
+    public void setTraceBorrows(boolean traceBorrows) {
+        this.traceBorrows = traceBorrows;
+    }
+
+    public boolean isTraceBorrows() {
+        return traceBorrows;
+    }
+
+    public double getAverageWaitMillis() {
+        long borrows = borrowCount.get();
+        return borrows == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / borrows;
+    }
+
+    // Statement cache counters, summed over the connections currently in the pool.
+    public long getStatementCacheHits() {
+        long total = 0;
+        for (PooledConnection pc : allConnections()) {
+            total += pc.getStatementCache().getHitCount();
+        }
+        return total;
+    }
+
+    public long getStatementCacheMisses() {
+        long total = 0;
+        for (PooledConnection pc : allConnections()) {
+            total += pc.getStatementCache().getMissCount();
+        }
+        return total;
+    }
+
+    public long getStatementCacheEvictions() {
+        long total = 0;
+        for (PooledConnection pc : allConnections()) {
+            total += pc.getStatementCache().getEvictionCount();
+        }
+        return total;
+    }
+
+    private List<PooledConnection> allConnections() {
+        List<PooledConnection> all = new ArrayList<>(idle);
+        all.addAll(leased);
+        return all;
+    }
+
+    public String getStatistics() {
+        return String.format("active=%d, idle=%d, max=%d, created=%d, borrows=%d, timeouts=%d, invalidated=%d, leaks=%d, avgWait=%.3fms, stmtCacheHits=%d, stmtCacheMisses=%d, stmtCacheEvictions=%d",
+                getActiveCount(), getIdleCount(), maxSize, getCreatedCount(), getBorrowCount(),
+                getTimeoutCount(), getInvalidatedCount(), getLeakCount(), getAverageWaitMillis(),
+                getStatementCacheHits(), getStatementCacheMisses(), getStatementCacheEvictions());
+    }
+}
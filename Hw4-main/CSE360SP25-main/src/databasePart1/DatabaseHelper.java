@@ -1,10 +1,16 @@
 package databasePart1;
 
 import application.Answer;
+import application.Conversation;
 import application.Question;
+import application.QuestionSummary;
+import application.Role;
 import application.User;
 import application.Message;
+import application.MessageThread;
 import application.Review;
+import application.ReviewStats;
+import application.ReviewerScorecard;
 import application.TrustedReviewer;
 import application.Request;  // Assuming you have a Request.java in your application package
 
@@ -12,8 +18,21 @@ import java.sql.*;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public class DatabaseHelper {
 
@@ -25,8 +44,37 @@ public class DatabaseHelper {
     static final String USER = "sa"; 
     static final String PASS = ""; 
 
-    private Connection connection = null;
-    private Statement statement = null; 
+    private final String dbUrl;
+    private ConnectionPool pool = null;
+    private final SearchIndex searchIndex = new SearchIndex();
+    private VoteAggregator voteAggregator = null;
+    private PasswordHasher passwordHasher = null; // calibrated default unless set
+    private InvitationService invitationService = null;
+    private AnswerRanking answerRanking = null;
+    private ScorecardEngine scorecardEngine = null;
+    // Loaded once on connect and replaced as a whole on save; readers never query the params table
+    private volatile ScorecardConfig scorecardConfig = ScorecardConfig.DEFAULTS;
+    private final List<Consumer<ScorecardConfig>> scorecardConfigListeners = new CopyOnWriteArrayList<>();
+    // Told (userName, new comma-separated roles) after a role change commits; roles are null when the user is deleted
+    private final List<BiConsumer<String, String>> roleChangeListeners = new CopyOnWriteArrayList<>();
+
+    // Second-level caches for the rows the Q&A pages read over and over.
+    private final EntityCache<Integer, Question> questionCache =
+            new EntityCache<>("questions", 1000, DatabaseHelper::copyQuestion);
+    private final EntityCache<Integer, Answer> answerCache =
+            new EntityCache<>("answers", 5000, DatabaseHelper::copyAnswer);
+    // question_id -> IDs of its answers; the answers themselves come from answerCache
+    private final EntityCache<Integer, List<Integer>> answerIDsByQuestion =
+            new EntityCache<>("answerIDsByQuestion", 1000, ids -> ids);
+
+    public DatabaseHelper() {
+        this(DB_URL);
+    }
+
+    // Allows a different database (e.g. jdbc:h2:mem:) to be used for testing.
+    public DatabaseHelper(String dbUrl) {
+        this.dbUrl = dbUrl;
+    }
 
     // --------------------- Connection and Table Creation ---------------------
 
@@ -34,18 +82,32 @@ public class DatabaseHelper {
         try {
             Class.forName(JDBC_DRIVER);
             System.out.println("Connecting to database...");
-            connection = DriverManager.getConnection(DB_URL, USER, PASS);
-            statement = connection.createStatement();
-            createTables();
-            createQATables();
-            createAdditionalTables(); // Creates messages, reviews, trusted reviewers, scorecard parameters, and requests tables
+            pool = new ConnectionPool(dbUrl, USER, PASS);
+            answerRanking = new AnswerRanking(pool);
+            scorecardEngine = new ScorecardEngine(pool, this::getScorecardConfig);
+            try (PooledConnection conn = pool.borrow();
+                 Statement statement = conn.createStatement()) {
+                createTables(statement);
+                createQATables(statement);
+                createAdditionalTables(statement); // Creates messages, reviews, trusted reviewers, scorecard parameters, and requests tables
+            }
+            try (PooledConnection conn = pool.borrow()) {
+                SchemaMigrations.migrate(conn); // Indexes, foreign keys and later schema changes
+            }
+            scorecardConfig = loadScorecardConfig();
+            buildSearchIndex();
         } catch (ClassNotFoundException e) {
             System.err.println("JDBC Driver not found: " + e.getMessage());
         }
     }
 
+    // Returns the pool every method borrows its connection from (for metrics).
+    public ConnectionPool getConnectionPool() {
+        return pool;
+    }
+
     // Create user and invitation tables.
-    private void createTables() throws SQLException {
+    private void createTables(Statement statement) throws SQLException {
         String userTable = "CREATE TABLE IF NOT EXISTS cse360users ("
                 + "id INT AUTO_INCREMENT PRIMARY KEY, "
                 + "userName VARCHAR(255) UNIQUE, "
@@ -60,7 +122,7 @@ public class DatabaseHelper {
     }
 
     // Create questions and answers tables.
-    private void createQATables() throws SQLException {
+    private void createQATables(Statement statement) throws SQLException {
         String createQuestions = "CREATE TABLE IF NOT EXISTS cse360questions ("
                 + "question_id INT AUTO_INCREMENT PRIMARY KEY, "
                 + "author VARCHAR(255) NOT NULL, "
@@ -86,7 +148,7 @@ public class DatabaseHelper {
     }
 
     // Create additional tables: messages, reviews, trusted reviewers, scorecard parameters, and requests.
-    private void createAdditionalTables() throws SQLException {
+    private void createAdditionalTables(Statement statement) throws SQLException {
         // Messages table
         String createMessages = "CREATE TABLE IF NOT EXISTS cse360messages ("
                 + "message_id INT AUTO_INCREMENT PRIMARY KEY, "
@@ -143,38 +205,127 @@ public class DatabaseHelper {
 
     public boolean isDatabaseEmpty() throws SQLException {
         String query = "SELECT COUNT(*) AS count FROM cse360users";
-        ResultSet resultSet = statement.executeQuery(query);
-        if (resultSet.next()) {
-            return resultSet.getInt("count") == 0;
+        try (PooledConnection conn = pool.borrow();
+             Statement statement = conn.createStatement();
+             ResultSet resultSet = statement.executeQuery(query)) {
+            if (resultSet.next()) {
+                return resultSet.getInt("count") == 0;
+            }
         }
         return true;
     }
 
+    public PasswordHasher getPasswordHasher() {
+        if (passwordHasher == null) {
+            passwordHasher = PasswordHasher.getDefault();
+        }
+        return passwordHasher;
+    }
+
+    // Allows a cheaper hasher to be used for testing.
+    public void setPasswordHasher(PasswordHasher passwordHasher) {
+        this.passwordHasher = passwordHasher;
+    }
+
+    // Stores the user with a salted hash of their password. Hashing is deliberately slow: call off the FX thread.
     public void register(User user) throws SQLException {
+        registerWithInvitation(user, null);
+    }
+
+    /**
+     * Creates the account and redeems its invitation code in one transaction, so a code
+     * is only used up by an account that exists and a failed registration leaves it valid.
+     * With a null code the account is created without one (admin setup).
+     *
+     * @return false, with nothing stored, if the code is not valid
+     */
+    public boolean registerWithInvitation(User user, String code) throws SQLException {
         String insertUser = "INSERT INTO cse360users (userName, password, role) VALUES (?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(insertUser)) {
-            pstmt.setString(1, user.getUserName());
-            pstmt.setString(2, user.getPassword());
-            pstmt.setString(3, user.getRole());
-            pstmt.executeUpdate();
+        String hash = getPasswordHasher().hash(user.getPassword());
+        try (PooledConnection conn = pool.borrow()) {
+            Connection c = conn.getConnection();
+            c.setAutoCommit(false);
+            try {
+                try (PreparedStatement pstmt = conn.prepareStatement(insertUser)) {
+                    pstmt.setString(1, user.getUserName());
+                    pstmt.setString(2, hash);
+                    pstmt.setString(3, user.getRole());
+                    pstmt.executeUpdate();
+                }
+                insertRoles(conn, user.getUserName(), user.getRoles());
+                if (code != null && !getInvitationService().redeem(conn, code, user.getUserName())) {
+                    c.rollback();
+                    return false;
+                }
+                c.commit();
+                return true;
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
         }
     }
 
-    public boolean login(User user) throws SQLException {
-        String query = "SELECT * FROM cse360users WHERE userName = ? AND password = ? AND role = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, user.getUserName());
-            pstmt.setString(2, user.getPassword());
-            pstmt.setString(3, user.getRole());
+    /**
+     * Checks a user name and password with a single query for the stored hash and roles.
+     * Rows still holding a plain-text password (or a hash with fewer iterations than the
+     * current setting) are rehashed after a successful check.
+     *
+     * @return the user with their roles and no password, or null if the name or password is wrong
+     */
+    public User authenticate(String userName, String password) throws SQLException {
+        String query = "SELECT password, role FROM cse360users WHERE userName = ?";
+        String stored = null;
+        String role = null;
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setString(1, userName);
             try (ResultSet rs = pstmt.executeQuery()) {
-                return rs.next();
+                if (rs.next()) {
+                    stored = rs.getString("password");
+                    role = rs.getString("role");
+                }
             }
         }
+        PasswordHasher hasher = getPasswordHasher();
+        if (stored == null) {
+            // Spend the same time as a real check so unknown names cannot be told apart
+            hasher.simulateVerify(password);
+            return null;
+        }
+        if (!hasher.verify(password, stored)) {
+            return null;
+        }
+        if (hasher.needsRehash(stored)) {
+            upgradePasswordHash(userName, stored, hasher.hash(password));
+        }
+        return new User(userName, "", role);
+    }
+
+    // Replaces the stored value only if nobody changed it since it was read.
+    private void upgradePasswordHash(String userName, String oldValue, String newHash) throws SQLException {
+        String sql = "UPDATE cse360users SET password = ? WHERE userName = ? AND password = ?";
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, newHash);
+            pstmt.setString(2, userName);
+            pstmt.setString(3, oldValue);
+            pstmt.executeUpdate();
+        }
+    }
+
+    // Checks the user's password and that their stored roles are exactly user.getRole().
+    public boolean login(User user) throws SQLException {
+        User authenticated = authenticate(user.getUserName(), user.getPassword());
+        return authenticated != null && Objects.equals(authenticated.getRole(), user.getRole());
     }
 
     public boolean doesUserExist(String userName) {
         String query = "SELECT COUNT(*) FROM cse360users WHERE userName = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setString(1, userName);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
@@ -188,7 +339,8 @@ public class DatabaseHelper {
 
     public String getUserRole(String userName) {
         String query = "SELECT role FROM cse360users WHERE userName = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setString(1, userName);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
@@ -200,60 +352,66 @@ public class DatabaseHelper {
         return null;
     }
 
+    // ---------------- Invitation codes ----------------
+
+    public synchronized InvitationService getInvitationService() {
+        if (invitationService == null) {
+            invitationService = new InvitationService(pool);
+        }
+        return invitationService;
+    }
+
+    // Returns a new code valid for InvitationService.DEFAULT_VALIDITY, or null if it could not be stored.
     public String generateInvitationCode() {
-        String code = UUID.randomUUID().toString().substring(0, 4);
-        String query = "INSERT INTO InvitationCodes (code) VALUES (?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, code);
-            pstmt.executeUpdate();
+        try {
+            return getInvitationService().mint(InvitationService.DEFAULT_VALIDITY);
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return code;
+        return null;
     }
 
-    public boolean validateInvitationCode(String code) {
-        String query = "SELECT * FROM InvitationCodes WHERE code = ? AND isUsed = FALSE";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, code);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                markInvitationCodeAsUsed(code);
-                return true;
-            }
+    // Mints count codes in one transaction (e.g. one per student of a course); empty if none were stored.
+    public List<String> generateInvitationCodes(int count) {
+        try {
+            return getInvitationService().mint(count, InvitationService.DEFAULT_VALIDITY);
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return false;
+        return new ArrayList<>();
     }
 
-    private void markInvitationCodeAsUsed(String code) {
-        String query = "UPDATE InvitationCodes SET isUsed = TRUE WHERE code = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, code);
-            pstmt.executeUpdate();
+    // Redeems the code for userName: true only for the one caller that marks it used.
+    public boolean validateInvitationCode(String code, String userName) {
+        try {
+            return getInvitationService().redeem(code, userName);
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        return false;
+    }
+
+    public boolean validateInvitationCode(String code) {
+        return validateInvitationCode(code, null);
     }
 
     public void closeConnection() {
-        try {
-            if (statement != null) statement.close();
-        } catch (SQLException se2) {
-            se2.printStackTrace();
+        if (voteAggregator != null) {
+            voteAggregator.close();
+            voteAggregator = null;
         }
-        try {
-            if (connection != null) connection.close();
-        } catch (SQLException se) {
-            se.printStackTrace();
+        System.out.println("Entity caches: " + getCacheStatistics());
+        if (pool != null) {
+            System.out.println("Closing connection pool: " + pool.getStatistics());
+            pool.close();
         }
     }
 
     public List<User> getAllUsers() {
         List<User> users = new ArrayList<>();
         String sql = "SELECT * FROM cse360users";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
                 String username = rs.getString("userName");
@@ -269,9 +427,12 @@ public class DatabaseHelper {
 
     public void deleteUser(String userName) {
         String sql = "DELETE FROM cse360users WHERE userName = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, userName);
-            pstmt.executeUpdate();
+            if (pstmt.executeUpdate() > 0) {
+                fireRoleChange(userName, null);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -279,8 +440,10 @@ public class DatabaseHelper {
 
     public boolean resetPassword(String userName, String newPassword) {
         String sql = "UPDATE cse360users SET password = ? WHERE userName = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, newPassword);
+        String hash = getPasswordHasher().hash(newPassword);
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, hash);
             pstmt.setString(2, userName);
             int rows = pstmt.executeUpdate();
             return rows > 0;
@@ -292,21 +455,101 @@ public class DatabaseHelper {
 
     // NEW: Set a single role for a user (overwrites any existing roles)
     public void setSingleRoleForUser(String userName, String newRole) {
-        String sql = "UPDATE cse360users SET role=? WHERE userName=?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, newRole);
-            pstmt.setString(2, userName);
-            pstmt.executeUpdate();
+        try (PooledConnection conn = pool.borrow()) {
+            Connection c = conn.getConnection();
+            c.setAutoCommit(false);
+            try {
+                boolean changed = writeRoles(conn, userName, List.of(newRole));
+                c.commit();
+                if (changed) {
+                    fireRoleChange(userName, newRole);
+                }
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    // Names of the users holding the role, from the cse360user_roles index.
+    public List<String> getUsersWithRole(Role role) {
+        List<String> users = new ArrayList<>();
+        String sql = "SELECT user_name FROM cse360user_roles WHERE role = ? ORDER BY user_name";
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, role.getName());
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                users.add(rs.getString("user_name"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return users;
+    }
+
+    /**
+     * Replaces a user's roles in both places they are stored: the comma-separated
+     * cse360users.role column, which authenticate, getUserRole and getAllUsers read, and
+     * the normalized cse360user_roles table, which getUsersWithRole queries by role.
+     * Call inside a transaction so the two never disagree.
+     */
+    private boolean writeRoles(PooledConnection conn, String userName, List<String> roles) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("UPDATE cse360users SET role = ? WHERE userName = ?")) {
+            pstmt.setString(1, String.join(",", roles));
+            pstmt.setString(2, userName);
+            if (pstmt.executeUpdate() == 0) {
+                return false; // no such user
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM cse360user_roles WHERE user_name = ?")) {
+            pstmt.setString(1, userName);
+            pstmt.executeUpdate();
+        }
+        insertRoles(conn, userName, roles);
+        return true;
+    }
+
+    public void addRoleChangeListener(BiConsumer<String, String> listener) {
+        roleChangeListeners.add(listener);
+    }
+
+    public void removeRoleChangeListener(BiConsumer<String, String> listener) {
+        roleChangeListeners.remove(listener);
+    }
+
+    private void fireRoleChange(String userName, String roles) {
+        for (BiConsumer<String, String> listener : roleChangeListeners) {
+            listener.accept(userName, roles);
+        }
+    }
+
+    private void insertRoles(PooledConnection conn, String userName, List<String> roles) throws SQLException {
+        String sql = "MERGE INTO cse360user_roles (user_name, role) KEY (user_name, role) VALUES (?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (String role : roles) {
+                String name = role.trim().toLowerCase(Locale.ROOT);
+                if (name.isEmpty()) {
+                    continue;
+                }
+                pstmt.setString(1, userName);
+                pstmt.setString(2, name);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
     // ---------------- Questions & Answers ----------------
 
     public void createQuestion(Question q) throws SQLException {
         String sql = "INSERT INTO cse360questions (author, question_title, question_text, creation_time, solved, accepted_answer_id) VALUES (?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, q.getAuthor());
             pstmt.setString(2, q.getQuestionTitle());
             pstmt.setString(3, q.getQuestionText());
@@ -320,12 +563,18 @@ public class DatabaseHelper {
                 }
             }
         }
+        searchIndex.indexQuestion(q.getQuestionID(), q.getQuestionTitle(), q.getQuestionText());
         System.out.println("Create question successful");
     }
 
     public Question getQuestionByID(int questionID) {
+        return questionCache.get(questionID, this::loadQuestion);
+    }
+
+    private Question loadQuestion(int questionID) {
         String sql = "SELECT * FROM cse360questions WHERE question_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, questionID);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
@@ -340,7 +589,8 @@ public class DatabaseHelper {
     public List<Question> getAllQuestions() {
         List<Question> result = new ArrayList<>();
         String sql = "SELECT * FROM cse360questions";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
                 result.add(mapQuestion(rs));
@@ -352,9 +602,45 @@ public class DatabaseHelper {
         return result;
     }
 
+    /**
+     * Returns up to limit question summaries with question_id greater than afterId, in ID order.
+     * Pass 0 for the first page and the last ID seen for the next one (keyset pagination),
+     * so every page costs the same no matter how deep the user has scrolled.
+     */
+    public List<QuestionSummary> getQuestionSummaries(int afterId, int limit, QuestionSummary.Filter filter) {
+        List<QuestionSummary> result = new ArrayList<>();
+        String sql = "SELECT question_id, question_title, solved, author, creation_time FROM cse360questions "
+                + "WHERE question_id > ?"
+                + (filter == QuestionSummary.Filter.ALL ? "" : " AND solved = ?")
+                + " ORDER BY question_id LIMIT ?";
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            pstmt.setInt(i++, afterId);
+            if (filter != QuestionSummary.Filter.ALL) {
+                pstmt.setBoolean(i++, filter == QuestionSummary.Filter.ANSWERED);
+            }
+            pstmt.setInt(i, limit);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                Timestamp ts = rs.getTimestamp("creation_time");
+                result.add(new QuestionSummary(
+                        rs.getInt("question_id"),
+                        rs.getString("question_title"),
+                        rs.getBoolean("solved"),
+                        rs.getString("author"),
+                        ts == null ? null : ts.toLocalDateTime()));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
     public void updateQuestion(Question q) throws SQLException {
         String sql = "UPDATE cse360questions SET author=?, question_title=?, question_text=?, creation_time=?, solved=?, accepted_answer_id=? WHERE question_id=?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, q.getAuthor());
             pstmt.setString(2, q.getQuestionTitle());
             pstmt.setString(3, q.getQuestionText());
@@ -363,22 +649,29 @@ public class DatabaseHelper {
             pstmt.setInt(6, q.getAcceptedAnswerID());
             pstmt.setInt(7, q.getQuestionID());
             pstmt.executeUpdate();
+        } finally {
+            questionCache.invalidate(q.getQuestionID());
         }
+        searchIndex.indexQuestion(q.getQuestionID(), q.getQuestionTitle(), q.getQuestionText());
         System.out.println("Updated question successfully");
     }
 
+    // Answers (and their reviews) are removed by ON DELETE CASCADE.
     public void deleteQuestion(int questionID) throws SQLException {
-        String deleteAnswers = "DELETE FROM cse360answers WHERE question_id=?";
-        try (PreparedStatement pstmt = connection.prepareStatement(deleteAnswers)) {
-            pstmt.setInt(1, questionID);
-            pstmt.executeUpdate();
-        }
         String sql = "DELETE FROM cse360questions WHERE question_id=?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        List<String> reviewers = scorecardEngine.reviewersOfQuestion(questionID);
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, questionID);
             pstmt.executeUpdate();
             System.out.println("Deleted question successfully");
+        } finally {
+            questionCache.invalidate(questionID);
+            answerIDsByQuestion.invalidate(questionID);
+            answerCache.invalidateIf(a -> a.getQuestionID() == questionID);
         }
+        searchIndex.removeQuestion(questionID);
+        recomputeScorecards(reviewers);
     }
 
     private Question mapQuestion(ResultSet rs) throws SQLException {
@@ -397,9 +690,82 @@ public class DatabaseHelper {
         return q;
     }
 
+    // ---------------- Search ----------------
+
+    // Loads every question and answer into the in-memory search index (once, at startup).
+    private void buildSearchIndex() throws SQLException {
+        searchIndex.clear();
+        try (PooledConnection conn = pool.borrow()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT question_id, question_title, question_text FROM cse360questions")) {
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    searchIndex.indexQuestion(rs.getInt(1), rs.getString(2), rs.getString(3));
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT answer_id, question_id, answer_text FROM cse360answers")) {
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    searchIndex.indexAnswer(rs.getInt(1), rs.getInt(2), rs.getString(3));
+                }
+            }
+        }
+        System.out.println("Search index built: " + searchIndex.getDocumentCount() + " documents, "
+                + searchIndex.getTermCount() + " terms");
+    }
+
+    // Returns IDs of questions matching the keywords in their title, text or answers, best match first.
+    public List<Integer> searchQuestionIDs(String keywords) {
+        return searchIndex.search(keywords);
+    }
+
+    // Fetches several questions, returned in the same order as the IDs.
+    // Cached questions are used as-is and the rest are loaded in one query.
+    public List<Question> getQuestionsByIDs(List<Integer> questionIDs) {
+        List<Question> result = new ArrayList<>();
+        if (questionIDs.isEmpty()) {
+            return result;
+        }
+        Map<Integer, Question> byId = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (int id : questionIDs) {
+            Question cached = questionCache.getIfPresent(id);
+            if (cached != null) {
+                byId.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long generation = questionCache.currentGeneration();
+            String sql = "SELECT * FROM cse360questions WHERE question_id = ANY(?)";
+            try (PooledConnection conn = pool.borrow();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setArray(1, conn.getConnection().createArrayOf("INTEGER", missing.toArray()));
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    Question q = mapQuestion(rs);
+                    questionCache.putIfCurrent(q.getQuestionID(), q, generation);
+                    byId.put(q.getQuestionID(), q);
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        for (int id : questionIDs) {
+            Question q = byId.get(id);
+            if (q != null) {
+                result.add(q);
+            }
+        }
+        return result;
+    }
+
     public void createAnswer(Answer a) throws SQLException {
         String sql = "INSERT INTO cse360answers (question_id, author, answer_text, creation_time, upvotes, downvotes, accepted) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setInt(1, a.getQuestionID());
             pstmt.setString(2, a.getAuthor());
             pstmt.setString(3, a.getAnswerText());
@@ -413,13 +779,24 @@ public class DatabaseHelper {
                     a.setAnswerID(keys.getInt(1));
                 }
             }
+        } finally {
+            answerIDsByQuestion.invalidate(a.getQuestionID());
         }
+        searchIndex.indexAnswer(a.getAnswerID(), a.getQuestionID(), a.getAnswerText());
         System.out.println("Created Answer successful");
     }
 
     public Answer getAnswerByID(int answerID) {
+        return readWithPendingVotes(() -> {
+            Answer a = answerCache.get(answerID, this::loadAnswer);
+            return a == null ? null : withPendingVotes(a);
+        });
+    }
+
+    private Answer loadAnswer(int answerID) {
         String sql = "SELECT * FROM cse360answers WHERE answer_id=?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, answerID);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
@@ -431,15 +808,43 @@ public class DatabaseHelper {
         return null;
     }
 
+    /**
+     * Returns the answers to a question in the order they were posted. When the question's
+     * answer IDs are cached, only answers missing from the answer cache are read from the
+     * database, so refreshing the list after a vote reloads just the answer that changed.
+     */
     public List<Answer> getAnswersByQuestionID(int questionID) {
+        return readWithPendingVotes(() -> readAnswersByQuestionID(questionID));
+    }
+
+    private List<Answer> readAnswersByQuestionID(int questionID) {
         List<Answer> result = new ArrayList<>();
-        String sql = "SELECT * FROM cse360answers WHERE question_id=?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        List<Integer> answerIDs = answerIDsByQuestion.getIfPresent(questionID);
+        if (answerIDs != null) {
+            for (int answerID : answerIDs) {
+                Answer a = getAnswerByID(answerID);
+                if (a != null) {
+                    result.add(a);
+                }
+            }
+            return result;
+        }
+
+        long listGeneration = answerIDsByQuestion.currentGeneration();
+        long answerGeneration = answerCache.currentGeneration();
+        List<Integer> loadedIDs = new ArrayList<>();
+        String sql = "SELECT * FROM cse360answers WHERE question_id=? ORDER BY answer_id";
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, questionID);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
-                result.add(mapAnswer(rs));
+                Answer a = mapAnswer(rs);
+                answerCache.putIfCurrent(a.getAnswerID(), a, answerGeneration);
+                loadedIDs.add(a.getAnswerID());
+                result.add(withPendingVotes(a));
             }
+            answerIDsByQuestion.putIfCurrent(questionID, List.copyOf(loadedIDs), listGeneration);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -447,43 +852,57 @@ public class DatabaseHelper {
     }
 
     public List<Answer> getAllAnswers() {
-        List<Answer> result = new ArrayList<>();
-        String sql = "SELECT * FROM cse360answers";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                result.add(mapAnswer(rs));
+        List<Answer> result = readWithPendingVotes(() -> {
+            List<Answer> answers = new ArrayList<>();
+            String sql = "SELECT * FROM cse360answers";
+            try (PooledConnection conn = pool.borrow();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    answers.add(withPendingVotes(mapAnswer(rs)));
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+            return answers;
+        });
         System.out.println("Getting all answers");
         return result;
     }
 
+    // Vote counts are not written here; they only change through castVote/incrementVote.
     public void updateAnswer(Answer a) throws SQLException {
-        String sql = "UPDATE cse360answers SET question_id=?, author=?, answer_text=?, creation_time=?, upvotes=?, downvotes=?, accepted=? WHERE answer_id=?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        String sql = "UPDATE cse360answers SET question_id=?, author=?, answer_text=?, creation_time=?, accepted=? WHERE answer_id=?";
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, a.getQuestionID());
             pstmt.setString(2, a.getAuthor());
             pstmt.setString(3, a.getAnswerText());
             pstmt.setTimestamp(4, Timestamp.valueOf(a.getCreationTime()));
-            pstmt.setInt(5, a.getUpvotes());
-            pstmt.setInt(6, a.getDownvotes());
-            pstmt.setBoolean(7, a.isAccepted());
-            pstmt.setInt(8, a.getAnswerID());
+            pstmt.setBoolean(5, a.isAccepted());
+            pstmt.setInt(6, a.getAnswerID());
             pstmt.executeUpdate();
             System.out.println("Updated Answer successfully");
+        } finally {
+            invalidateAnswer(a.getAnswerID());
+            answerIDsByQuestion.invalidate(a.getQuestionID()); // it may have moved to this question
         }
+        searchIndex.indexAnswer(a.getAnswerID(), a.getQuestionID(), a.getAnswerText());
     }
 
     public void deleteAnswer(int answerID) throws SQLException {
         String sql = "DELETE FROM cse360answers WHERE answer_id=?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        List<String> reviewers = scorecardEngine.reviewersOfAnswer(answerID);
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, answerID);
             pstmt.executeUpdate();
             System.out.println("Deleted Answer successfully");
+        } finally {
+            invalidateAnswer(answerID);
         }
+        searchIndex.removeAnswer(answerID);
+        recomputeScorecards(reviewers);
     }
 
     private Answer mapAnswer(ResultSet rs) throws SQLException {
@@ -503,29 +922,362 @@ public class DatabaseHelper {
         return a;
     }
 
+    // Runs a read that uses withPendingVotes so that the stored counts and the buffered
+    // deltas come from the same side of a flush (see VoteAggregator.readConsistent).
+    private <T> T readWithPendingVotes(Supplier<T> read) {
+        VoteAggregator aggregator = voteAggregator;
+        return aggregator == null ? read.get() : aggregator.readConsistent(read);
+    }
+
+    // Adds votes still waiting in the write-behind buffer. The answer cache holds the
+    // counts as stored in the table, so this is applied to every answer handed out.
+    private Answer withPendingVotes(Answer a) {
+        if (voteAggregator != null) {
+            int[] pending = voteAggregator.pendingFor(a.getAnswerID());
+            a.setUpvotesCount(a.getUpvotes() + pending[0]);
+            a.setDownvotesCount(a.getDownvotes() + pending[1]);
+        }
+        return a;
+    }
+
+    // Drops an answer and any cached answer-ID list that contains it.
+    private void invalidateAnswer(int answerID) {
+        answerCache.invalidate(answerID);
+        answerIDsByQuestion.invalidateIf(ids -> ids.contains(answerID));
+    }
+
+    // ---------------- Entity cache ----------------
+
+    private static Question copyQuestion(Question q) {
+        Question copy = new Question();
+        copy.setQuestionID(q.getQuestionID());
+        copy.setAuthor(q.getAuthor());
+        copy.setQuestionTitle(q.getQuestionTitle());
+        copy.setQuestionText(q.getQuestionText());
+        copy.setCreationTime(q.getCreationTime());
+        copy.setSolved(q.isSolved());
+        copy.setAcceptedAnswerID(q.getAcceptedAnswerID());
+        return copy;
+    }
+
+    private static Answer copyAnswer(Answer a) {
+        Answer copy = new Answer(a.getAnswerID(), a.getQuestionID(), a.getAuthor(), a.getAnswerText());
+        copy.setCreationTime(a.getCreationTime());
+        copy.setUpvotesCount(a.getUpvotes());
+        copy.setDownvotesCount(a.getDownvotes());
+        copy.setAccepted(a.isAccepted());
+        return copy;
+    }
+
+    public EntityCache<Integer, Question> getQuestionCache() {
+        return questionCache;
+    }
+
+    public EntityCache<Integer, Answer> getAnswerCache() {
+        return answerCache;
+    }
+
+    public String getCacheStatistics() {
+        String statistics = questionCache.getStatistics() + "; " + answerCache.getStatistics()
+                + "; " + answerIDsByQuestion.getStatistics();
+        return answerRanking == null ? statistics : statistics + "; " + answerRanking.getCache().getStatistics();
+    }
+
+    // ---------------- VOTES ----------------
+
+    /**
+     * Records a user's vote (+1 or -1) on an answer and updates the counters atomically.
+     * Voting the same way twice is ignored; voting the other way moves the vote.
+     *
+     * @return true if the vote changed anything, false for a repeat vote
+     */
+    public boolean castVote(int answerId, String userName, int vote) throws SQLException {
+        if (vote != 1 && vote != -1) {
+            throw new IllegalArgumentException("Vote must be +1 or -1.");
+        }
+        try (PooledConnection conn = pool.borrow()) {
+            Connection c = conn.getConnection();
+            c.setAutoCommit(false);
+            try {
+                int previous = 0;
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT vote FROM cse360answer_votes WHERE answer_id = ? AND user_name = ? FOR UPDATE")) {
+                    pstmt.setInt(1, answerId);
+                    pstmt.setString(2, userName);
+                    ResultSet rs = pstmt.executeQuery();
+                    if (rs.next()) {
+                        previous = rs.getInt(1);
+                    }
+                }
+                if (previous == vote) {
+                    c.rollback();
+                    return false;
+                }
+
+                String sql = previous == 0
+                        ? "INSERT INTO cse360answer_votes (vote, answer_id, user_name) VALUES (?, ?, ?)"
+                        : "UPDATE cse360answer_votes SET vote = ? WHERE answer_id = ? AND user_name = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, vote);
+                    pstmt.setInt(2, answerId);
+                    pstmt.setString(3, userName);
+                    pstmt.executeUpdate();
+                }
+
+                int upDelta = (vote > 0 ? 1 : 0) - (previous > 0 ? 1 : 0);
+                int downDelta = (vote < 0 ? 1 : 0) - (previous < 0 ? 1 : 0);
+                updateScorecardsForVotes(conn, answerId, upDelta, downDelta);
+                if (voteAggregator != null) {
+                    c.commit();
+                    voteAggregator.add(answerId, upDelta, downDelta);
+                } else {
+                    applyVoteDelta(conn, answerId, upDelta, downDelta);
+                    c.commit();
+                    answerCache.invalidate(answerId);
+                }
+                return true;
+            } catch (SQLException e) {
+                c.rollback();
+                if ("23505".equals(e.getSQLState())) {
+                    return false; // the same user voted concurrently
+                }
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        }
+    }
+
+    // Adds delta to the upvotes (delta > 0) or downvotes (delta < 0) of an answer in one UPDATE.
+    public void incrementVote(int answerId, int delta) throws SQLException {
+        int upDelta = Math.max(delta, 0);
+        int downDelta = Math.max(-delta, 0);
+        try (PooledConnection conn = pool.borrow()) {
+            if (voteAggregator != null) {
+                voteAggregator.add(answerId, upDelta, downDelta);
+            } else {
+                try {
+                    applyVoteDelta(conn, answerId, upDelta, downDelta);
+                } finally {
+                    answerCache.invalidate(answerId);
+                }
+            }
+            updateScorecardsForVotes(conn, answerId, upDelta, downDelta);
+        }
+    }
+
+    private void applyVoteDelta(PooledConnection conn, int answerId, int upDelta, int downDelta) throws SQLException {
+        String sql = "UPDATE cse360answers SET upvotes = upvotes + ?, downvotes = downvotes + ? WHERE answer_id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, upDelta);
+            pstmt.setInt(2, downDelta);
+            pstmt.setInt(3, answerId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    // Switches vote counters to write-behind mode: votes are buffered and flushed in batches.
+    public void enableWriteBehindVotes(long flushIntervalMillis) {
+        if (voteAggregator == null) {
+            // Cached answers hold the stored counts, so drop them once a flush changes those.
+            voteAggregator = new VoteAggregator(pool, flushIntervalMillis, answerCache::invalidate);
+        }
+    }
+
+    public VoteAggregator getVoteAggregator() {
+        return voteAggregator;
+    }
+
+    // ---------------- Bulk import ----------------
+
+    public static final int DEFAULT_IMPORT_BATCH_SIZE = 500;
+
+    // Binds one element of an import stream to the INSERT statement.
+    private interface RowBinder<T> {
+        void bind(PreparedStatement pstmt, T row) throws SQLException;
+    }
+
+    // Receives each inserted element together with its generated key.
+    private interface KeyConsumer<T> {
+        void accept(T row, int generatedKey);
+    }
+
+    public List<Integer> importQuestions(Stream<Question> questions) throws SQLException {
+        return importQuestions(questions, DEFAULT_IMPORT_BATCH_SIZE);
+    }
+
+    /**
+     * Inserts questions from a stream, batchSize rows per JDBC batch and per transaction.
+     * The stream is consumed lazily, so it can come straight from a file of any size.
+     * Each Question gets its generated ID, and the IDs are returned in stream order.
+     *
+     * If a batch fails it is rolled back and the exception is thrown; batches committed
+     * before it stay in the database.
+     */
+    public List<Integer> importQuestions(Stream<Question> questions, int batchSize) throws SQLException {
+        String sql = "INSERT INTO cse360questions (author, question_title, question_text, creation_time, solved, accepted_answer_id) VALUES (?, ?, ?, ?, ?, ?)";
+        List<Integer> ids = importBatched(questions, batchSize, sql,
+                (pstmt, q) -> {
+                    pstmt.setString(1, q.getAuthor());
+                    pstmt.setString(2, q.getQuestionTitle());
+                    pstmt.setString(3, q.getQuestionText());
+                    pstmt.setTimestamp(4, Timestamp.valueOf(q.getCreationTime()));
+                    pstmt.setBoolean(5, q.isSolved());
+                    pstmt.setInt(6, q.getAcceptedAnswerID());
+                },
+                (q, id) -> {
+                    q.setQuestionID(id);
+                    searchIndex.indexQuestion(id, q.getQuestionTitle(), q.getQuestionText());
+                });
+        System.out.println("Imported " + ids.size() + " questions");
+        return ids;
+    }
+
+    public List<Integer> importAnswers(Stream<Answer> answers) throws SQLException {
+        return importAnswers(answers, DEFAULT_IMPORT_BATCH_SIZE);
+    }
+
+    // Same as importQuestions, for answers. Each answer's question must already exist.
+    public List<Integer> importAnswers(Stream<Answer> answers, int batchSize) throws SQLException {
+        String sql = "INSERT INTO cse360answers (question_id, author, answer_text, creation_time, upvotes, downvotes, accepted) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        Set<Integer> questionIDs = new HashSet<>();
+        List<Integer> ids;
+        try {
+            ids = importBatched(answers, batchSize, sql,
+                    (pstmt, a) -> {
+                        pstmt.setInt(1, a.getQuestionID());
+                        pstmt.setString(2, a.getAuthor());
+                        pstmt.setString(3, a.getAnswerText());
+                        pstmt.setTimestamp(4, Timestamp.valueOf(a.getCreationTime()));
+                        pstmt.setInt(5, a.getUpvotes());
+                        pstmt.setInt(6, a.getDownvotes());
+                        pstmt.setBoolean(7, a.isAccepted());
+                    },
+                    (a, id) -> {
+                        a.setAnswerID(id);
+                        questionIDs.add(a.getQuestionID());
+                        searchIndex.indexAnswer(id, a.getQuestionID(), a.getAnswerText());
+                    });
+        } finally {
+            for (int questionID : questionIDs) {
+                answerIDsByQuestion.invalidate(questionID);
+            }
+        }
+        System.out.println("Imported " + ids.size() + " answers");
+        return ids;
+    }
+
+    private <T> List<Integer> importBatched(Stream<T> rows, int batchSize, String sql,
+                                            RowBinder<T> binder, KeyConsumer<T> onInserted) throws SQLException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1.");
+        }
+        List<Integer> ids = new ArrayList<>();
+        List<T> batch = new ArrayList<>(batchSize);
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            Connection c = conn.getConnection();
+            c.setAutoCommit(false);
+            try {
+                Iterator<T> it = rows.iterator();
+                while (it.hasNext()) {
+                    T row = it.next();
+                    binder.bind(pstmt, row);
+                    pstmt.addBatch();
+                    batch.add(row);
+                    if (batch.size() == batchSize || !it.hasNext()) {
+                        pstmt.executeBatch();
+                        // One result set holds the keys of the whole batch, in insert order.
+                        int[] keys = new int[batch.size()];
+                        try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                            for (int i = 0; i < keys.length; i++) {
+                                if (!rs.next()) {
+                                    throw new SQLException("Missing generated key after batch insert.");
+                                }
+                                keys[i] = rs.getInt(1);
+                            }
+                        }
+                        c.commit();
+                        for (int i = 0; i < keys.length; i++) {
+                            ids.add(keys[i]);
+                            onInserted.accept(batch.get(i), keys[i]);
+                        }
+                        batch.clear();
+                    }
+                }
+            } catch (SQLException e) {
+                c.rollback();
+                throw new SQLException("Import stopped after " + ids.size() + " rows: " + e.getMessage(), e);
+            } finally {
+                c.setAutoCommit(true);
+            }
+        }
+        return ids;
+    }
+
     // ---------------- MESSAGES ----------------
 
+    /**
+     * Inserts the message and, if it is unread, bumps the recipient's unread counter in the same
+     * transaction. A message about a question also joins (or starts) the thread between its two
+     * users, whose last_message_time and message_count are updated.
+     */
     public void addMessage(Message msg) {
-        String sql = "INSERT INTO cse360messages (from_user, to_user, question_id, content, creation_time, is_read) VALUES (?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, msg.getFromUser());
-            pstmt.setString(2, msg.getToUser());
-            pstmt.setInt(3, msg.getQuestionId());
-            pstmt.setString(4, msg.getContent());
-            pstmt.setTimestamp(5, Timestamp.valueOf(msg.getCreationTime()));
-            pstmt.setBoolean(6, msg.isRead());
-            pstmt.executeUpdate();
+        String sql = "INSERT INTO cse360messages (from_user, to_user, question_id, content, creation_time, is_read, thread_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (PooledConnection conn = pool.borrow()) {
+            Connection c = conn.getConnection();
+            c.setAutoCommit(false);
+            try {
+                if (msg.getQuestionId() > 0) {
+                    msg.setThreadId(addToThread(conn, msg));
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setString(1, msg.getFromUser());
+                    pstmt.setString(2, msg.getToUser());
+                    pstmt.setInt(3, msg.getQuestionId());
+                    pstmt.setString(4, msg.getContent());
+                    pstmt.setTimestamp(5, Timestamp.valueOf(msg.getCreationTime()));
+                    pstmt.setBoolean(6, msg.isRead());
+                    if (msg.getThreadId() > 0) {
+                        pstmt.setInt(7, msg.getThreadId());
+                    } else {
+                        pstmt.setNull(7, Types.INTEGER);
+                    }
+                    pstmt.executeUpdate();
+                    ResultSet keys = pstmt.getGeneratedKeys();
+                    if (keys.next()) {
+                        msg.setMessageId(keys.getInt(1));
+                    }
+                }
+                if (!msg.isRead()) {
+                    adjustUnreadCount(conn, msg.getToUser(), 1);
+                }
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    // Every message the user sent or received, newest first.
     public List<Message> getMessagesForUser(String username) {
         List<Message> list = new ArrayList<>();
-        String sql = "SELECT * FROM cse360messages WHERE to_user = ? OR from_user = ? ORDER BY creation_time DESC";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        // UNION ALL of two indexed lookups instead of "to_user = ? OR from_user = ?", which scans the table.
+        // Messages to oneself match both branches, so the second branch leaves them out.
+        String sql = "SELECT * FROM cse360messages WHERE to_user = ? "
+                + "UNION ALL SELECT * FROM cse360messages WHERE from_user = ? AND to_user <> ? "
+                + "ORDER BY creation_time DESC";
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, username);
             pstmt.setString(2, username);
+            pstmt.setString(3, username);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
                 list.add(mapMessage(rs));
@@ -536,16 +1288,113 @@ public class DatabaseHelper {
         return list;
     }
 
-    public List<Message> getMessagesForQuestion(int questionId, String currentUserName) {
-        List<Message> list = new ArrayList<>();
-        String sql = "SELECT * FROM cse360messages WHERE question_id = ? AND (to_user = ? OR from_user = ?) ORDER BY creation_time ASC";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+    // NEW: Delete a message by ID (affects both sender and recipient)
+    public boolean deleteMessage(int messageId) {
+        try (PooledConnection conn = pool.borrow()) {
+            Connection c = conn.getConnection();
+            c.setAutoCommit(false);
+            try {
+                String toUser = null;
+                boolean read = true;
+                int threadId = 0;
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT to_user, is_read, thread_id FROM cse360messages WHERE message_id = ? FOR UPDATE")) {
+                    pstmt.setInt(1, messageId);
+                    ResultSet rs = pstmt.executeQuery();
+                    if (rs.next()) {
+                        toUser = rs.getString(1);
+                        read = rs.getBoolean(2);
+                        threadId = rs.getInt(3);
+                    }
+                }
+                if (toUser == null) {
+                    c.rollback();
+                    return false;
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM cse360messages WHERE message_id = ?")) {
+                    pstmt.setInt(1, messageId);
+                    pstmt.executeUpdate();
+                }
+                if (!read) {
+                    adjustUnreadCount(conn, toUser, -1);
+                }
+                if (threadId > 0) {
+                    removeFromThread(conn, threadId);
+                }
+                c.commit();
+                return true;
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    // ---------------- THREADS ----------------
+
+    // Adds the message to its thread, creating the thread on first use; returns the thread_id.
+    private int addToThread(PooledConnection conn, Message msg) throws SQLException {
+        String userA = msg.getFromUser().compareTo(msg.getToUser()) <= 0 ? msg.getFromUser() : msg.getToUser();
+        String userB = userA.equals(msg.getFromUser()) ? msg.getToUser() : msg.getFromUser();
+        String merge = "MERGE INTO cse360message_threads t "
+                + "USING (VALUES (CAST(? AS INT), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), CAST(? AS TIMESTAMP))) "
+                + "s(question_id, user_a, user_b, sent) "
+                + "ON t.question_id = s.question_id AND t.user_a = s.user_a AND t.user_b = s.user_b "
+                + "WHEN MATCHED THEN UPDATE SET t.message_count = t.message_count + 1, "
+                + "t.last_message_time = GREATEST(COALESCE(t.last_message_time, s.sent), s.sent) "
+                + "WHEN NOT MATCHED THEN INSERT (question_id, user_a, user_b, last_message_time, message_count) "
+                + "VALUES (s.question_id, s.user_a, s.user_b, s.sent, 1)";
+        try (PreparedStatement pstmt = conn.prepareStatement(merge)) {
+            pstmt.setInt(1, msg.getQuestionId());
+            pstmt.setString(2, userA);
+            pstmt.setString(3, userB);
+            pstmt.setTimestamp(4, Timestamp.valueOf(msg.getCreationTime()));
+            pstmt.executeUpdate();
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT thread_id FROM cse360message_threads "
+                + "WHERE question_id = ? AND user_a = ? AND user_b = ?")) {
+            pstmt.setInt(1, msg.getQuestionId());
+            pstmt.setString(2, userA);
+            pstmt.setString(3, userB);
+            ResultSet rs = pstmt.executeQuery();
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    // Called after one of the thread's messages is deleted; runs in the caller's transaction.
+    private void removeFromThread(PooledConnection conn, int threadId) throws SQLException {
+        String sql = "UPDATE cse360message_threads SET message_count = GREATEST(message_count - 1, 0), "
+                + "last_message_time = (SELECT MAX(creation_time) FROM cse360messages WHERE thread_id = ?) "
+                + "WHERE thread_id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, threadId);
+            pstmt.setInt(2, threadId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    // The user's feedback threads on a question, most recently active first. Empty threads are left out.
+    public List<MessageThread> getThreadsForQuestion(int questionId, String userName) {
+        List<MessageThread> list = new ArrayList<>();
+        String sql = "SELECT * FROM cse360message_threads WHERE question_id = ? AND message_count > 0 "
+                + "AND (user_a = ? OR user_b = ?) ORDER BY last_message_time DESC";
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, questionId);
-            pstmt.setString(2, currentUserName);
-            pstmt.setString(3, currentUserName);
+            pstmt.setString(2, userName);
+            pstmt.setString(3, userName);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
-                list.add(mapMessage(rs));
+                Timestamp last = rs.getTimestamp("last_message_time");
+                list.add(new MessageThread(rs.getInt("thread_id"), rs.getInt("question_id"),
+                        rs.getString("user_a"), rs.getString("user_b"),
+                        last == null ? null : last.toLocalDateTime(), rs.getInt("message_count")));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -553,17 +1402,168 @@ public class DatabaseHelper {
         return list;
     }
 
-    // NEW: Delete a message by ID (affects both sender and recipient)
-    public boolean deleteMessage(int messageId) {
-        String sql = "DELETE FROM cse360messages WHERE message_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, messageId);
-            int rows = pstmt.executeUpdate();
-            return rows > 0;
+    /**
+     * Up to limit messages of a thread with IDs below beforeMessageId, returned oldest first.
+     * Reads only the requested rows through the (thread_id, message_id) index, so the cost does
+     * not grow with the thread's history. Pass Integer.MAX_VALUE for the newest page.
+     */
+    public List<Message> getThreadMessages(int threadId, int beforeMessageId, int limit) {
+        List<Message> list = new ArrayList<>();
+        String sql = "SELECT * FROM cse360messages WHERE thread_id = ? AND message_id < ? "
+                + "ORDER BY message_id DESC LIMIT ?";
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, threadId);
+            pstmt.setInt(2, beforeMessageId);
+            pstmt.setInt(3, limit);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                list.add(0, mapMessage(rs));
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return false;
+        return list;
+    }
+
+    // ---------------- INBOX ----------------
+
+    /**
+     * One page of the user's conversations, most recently active first. Pass the last
+     * conversation of the previous page as after (null for the first page).
+     */
+    public List<Conversation> getConversations(String userName, Conversation after, int limit) {
+        List<Conversation> list = new ArrayList<>();
+        // Received and sent messages come from separate indexed branches, grouped by the other user
+        String sql = "SELECT other_user, MAX(creation_time) AS last_time, COUNT(*) AS message_count, "
+                + "SUM(unread) AS unread_count FROM ("
+                + "SELECT from_user AS other_user, creation_time, CASE WHEN is_read THEN 0 ELSE 1 END AS unread "
+                + "FROM cse360messages WHERE to_user = ? "
+                + "UNION ALL SELECT to_user, creation_time, 0 FROM cse360messages WHERE from_user = ? AND to_user <> ?"
+                + ") m GROUP BY other_user "
+                + (after == null ? "" : "HAVING MAX(creation_time) < ? OR (MAX(creation_time) = ? AND other_user > ?) ")
+                + "ORDER BY last_time DESC, other_user LIMIT ?";
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            pstmt.setString(i++, userName);
+            pstmt.setString(i++, userName);
+            pstmt.setString(i++, userName);
+            if (after != null) {
+                Timestamp lastTime = Timestamp.valueOf(after.getLastMessageTime());
+                pstmt.setTimestamp(i++, lastTime);
+                pstmt.setTimestamp(i++, lastTime);
+                pstmt.setString(i++, after.getOtherUser());
+            }
+            pstmt.setInt(i, limit);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                list.add(new Conversation(rs.getString("other_user"), rs.getTimestamp("last_time").toLocalDateTime(),
+                        rs.getInt("message_count"), rs.getInt("unread_count")));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return list;
+    }
+
+    /**
+     * Up to limit messages between two users with IDs below beforeMessageId, returned oldest first.
+     * Use Integer.MAX_VALUE for the newest messages, then the first message's ID to load older ones.
+     */
+    public List<Message> getConversationMessages(String userName, String otherUser, int beforeMessageId, int limit) {
+        List<Message> list = new ArrayList<>();
+        String sql = "SELECT * FROM ("
+                + "SELECT * FROM cse360messages WHERE to_user = ? AND from_user = ? AND message_id < ? "
+                + "UNION ALL SELECT * FROM cse360messages WHERE to_user = ? AND from_user = ? AND from_user <> to_user "
+                + "AND message_id < ?"
+                + ") m ORDER BY message_id DESC LIMIT ?";
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, userName);
+            pstmt.setString(2, otherUser);
+            pstmt.setInt(3, beforeMessageId);
+            pstmt.setString(4, otherUser);
+            pstmt.setString(5, userName);
+            pstmt.setInt(6, beforeMessageId);
+            pstmt.setInt(7, limit);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                list.add(0, mapMessage(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return list;
+    }
+
+    // Number of unread messages addressed to the user, from the counter table (one primary-key lookup).
+    public int getUnreadCount(String userName) {
+        String sql = "SELECT unread FROM cse360unread_counts WHERE user_name = ?";
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, userName);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * Marks a batch of messages addressed to the user as read with one UPDATE,
+     * and takes them off the user's unread counter in the same transaction.
+     * Messages that are already read, or not addressed to the user, are ignored.
+     *
+     * @return how many messages changed from unread to read
+     */
+    public int markMessagesRead(String userName, Collection<Integer> messageIds) {
+        if (messageIds.isEmpty()) {
+            return 0;
+        }
+        try (PooledConnection conn = pool.borrow()) {
+            Connection c = conn.getConnection();
+            c.setAutoCommit(false);
+            try {
+                int marked;
+                try (PreparedStatement pstmt = conn.prepareStatement("UPDATE cse360messages SET is_read = TRUE "
+                        + "WHERE message_id = ANY(?) AND to_user = ? AND is_read = FALSE")) {
+                    pstmt.setArray(1, c.createArrayOf("INTEGER", messageIds.toArray()));
+                    pstmt.setString(2, userName);
+                    marked = pstmt.executeUpdate();
+                }
+                if (marked > 0) {
+                    adjustUnreadCount(conn, userName, -marked);
+                }
+                c.commit();
+                return marked;
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    // Adds delta to the user's unread counter, creating it if needed; runs in the caller's transaction.
+    private void adjustUnreadCount(PooledConnection conn, String userName, int delta) throws SQLException {
+        String sql = "MERGE INTO cse360unread_counts t "
+                + "USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS INT))) s(user_name, delta) "
+                + "ON t.user_name = s.user_name "
+                + "WHEN MATCHED THEN UPDATE SET t.unread = GREATEST(t.unread + s.delta, 0) "
+                + "WHEN NOT MATCHED THEN INSERT (user_name, unread) VALUES (s.user_name, GREATEST(s.delta, 0))";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, userName);
+            pstmt.setInt(2, delta);
+            pstmt.executeUpdate();
+        }
     }
 
     private Message mapMessage(ResultSet rs) throws SQLException {
@@ -572,6 +1572,7 @@ public class DatabaseHelper {
         m.setFromUser(rs.getString("from_user"));
         m.setToUser(rs.getString("to_user"));
         m.setQuestionId(rs.getInt("question_id"));
+        m.setThreadId(rs.getInt("thread_id"));
         m.setContent(rs.getString("content"));
         Timestamp ts = rs.getTimestamp("creation_time");
         if (ts != null) {
@@ -583,33 +1584,194 @@ public class DatabaseHelper {
 
     // ---------------- REVIEWS ----------------
 
+    // Stores the review and adds it to the reviewer's scorecard in one transaction.
     public void addReview(Review r) {
         String sql = "INSERT INTO cse360reviews (answer_id, reviewer_user, review_text, rating, creation_time) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, r.getAnswerId());
-            pstmt.setString(2, r.getReviewerUserName());
-            pstmt.setString(3, r.getReviewText());
-            pstmt.setInt(4, r.getRating());
-            pstmt.setTimestamp(5, Timestamp.valueOf(r.getCreationTime()));
-            pstmt.executeUpdate();
+        Answer reviewed = getAnswerByID(r.getAnswerId());
+        try (PooledConnection conn = pool.borrow()) {
+            Connection c = conn.getConnection();
+            c.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, r.getAnswerId());
+                pstmt.setString(2, r.getReviewerUserName());
+                pstmt.setString(3, r.getReviewText());
+                pstmt.setInt(4, r.getRating());
+                pstmt.setTimestamp(5, Timestamp.valueOf(r.getCreationTime()));
+                pstmt.executeUpdate();
+                if (reviewed != null) {
+                    scorecardEngine.reviewAdded(conn, r.getReviewerUserName(), r.getRating(),
+                            reviewed.getUpvotes(), reviewed.getDownvotes());
+                }
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
+            return; // nothing was stored
+        }
+        if (reviewed != null) {
+            getAnswerRanking().invalidateQuestion(reviewed.getQuestionID());
         }
     }
 
     public List<Review> getReviewsByAnswerId(int answerId) {
-        List<Review> list = new ArrayList<>();
-        String sql = "SELECT * FROM cse360reviews WHERE answer_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, answerId);
+        return getReviewsForAnswers(List.of(answerId)).get(answerId);
+    }
+
+    /**
+     * The reviews of several answers in one query, oldest first per answer.
+     * Every requested answer has an entry, empty if it has no reviews.
+     */
+    public Map<Integer, List<Review>> getReviewsForAnswers(Collection<Integer> answerIDs) {
+        Map<Integer, List<Review>> byAnswer = new LinkedHashMap<>();
+        for (int id : answerIDs) {
+            byAnswer.put(id, new ArrayList<>());
+        }
+        if (byAnswer.isEmpty()) {
+            return byAnswer;
+        }
+        String sql = "SELECT * FROM cse360reviews WHERE answer_id = ANY(?) ORDER BY answer_id, review_id";
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setArray(1, conn.getConnection().createArrayOf("INTEGER", byAnswer.keySet().toArray()));
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
-                list.add(mapReview(rs));
+                Review r = mapReview(rs);
+                byAnswer.get(r.getAnswerId()).add(r);
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return list;
+        return byAnswer;
+    }
+
+    /**
+     * Review count, average rating and the viewer's trust-weighted average for several
+     * answers, from one grouped query (see AnswerRanking.getReviewStats). Every requested
+     * answer has an entry; one with no reviews has all zeros.
+     */
+    public Map<Integer, ReviewStats> getReviewStatsForAnswers(String viewer, Collection<Integer> answerIDs) {
+        try {
+            return getAnswerRanking().getReviewStats(viewer, answerIDs);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        Map<Integer, ReviewStats> none = new LinkedHashMap<>();
+        for (int id : answerIDs) {
+            none.put(id, new ReviewStats(id));
+        }
+        return none;
+    }
+
+    // ---------------- Answer ranking ----------------
+
+    public AnswerRanking getAnswerRanking() {
+        return answerRanking;
+    }
+
+    // The viewer's trusted-review scores for the question's answers (cached).
+    public AnswerRanking.Scores getAnswerScores(String viewer, int questionID) {
+        return getAnswerRanking().getScores(viewer, questionID);
+    }
+
+    // The question's answers, best first for this viewer: net votes plus trusted reviewers' weighted ratings.
+    public List<Answer> getRankedAnswers(String viewer, int questionID) {
+        return getAnswerScores(viewer, questionID).rank(getAnswersByQuestionID(questionID));
+    }
+
+    /**
+     * The question, its answers and their review totals for one viewer, or null if the
+     * question does not exist. When all three are cached no query is made (apart from
+     * reloading answers dropped from the cache by a vote); otherwise one JOIN query reads
+     * them all and refills the caches.
+     */
+    public QuestionDetailView getQuestionDetailView(String viewer, int questionID) {
+        return readWithPendingVotes(() -> readQuestionDetailView(viewer, questionID));
+    }
+
+    private QuestionDetailView readQuestionDetailView(String viewer, int questionID) {
+        Question q = questionCache.getIfPresent(questionID);
+        List<Integer> answerIDs = answerIDsByQuestion.getIfPresent(questionID);
+        AnswerRanking.Scores scores = answerRanking.getScoresIfPresent(viewer, questionID);
+        if (q == null || answerIDs == null || scores == null) {
+            return loadQuestionDetailView(viewer, questionID);
+        }
+        List<Answer> answers = new ArrayList<>();
+        for (int answerID : answerIDs) {
+            Answer a = getAnswerByID(answerID);
+            if (a != null) {
+                answers.add(a);
+            }
+        }
+        return new QuestionDetailView(q, answers, scores);
+    }
+
+    private QuestionDetailView loadQuestionDetailView(String viewer, int questionID) {
+        String sql = "SELECT q.*, a.answer_id, a.author AS answer_author, a.answer_text, "
+                + "a.creation_time AS answer_creation_time, a.upvotes, a.downvotes, a.accepted, "
+                + "s.review_count, s.rating_total, s.trusted_reviews, s.trusted_score, s.trusted_weight "
+                + "FROM cse360questions q "
+                + "LEFT JOIN cse360answers a ON a.question_id = q.question_id "
+                + "LEFT JOIN (" + AnswerRanking.REVIEW_TOTALS_SQL + ") s ON s.answer_id = a.answer_id "
+                + "WHERE q.question_id = ? "
+                + "ORDER BY a.answer_id";
+        long questionGeneration = questionCache.currentGeneration();
+        long listGeneration = answerIDsByQuestion.currentGeneration();
+        long answerGeneration = answerCache.currentGeneration();
+        long scoresGeneration = answerRanking.getCache().currentGeneration();
+        Question q = null;
+        List<Answer> answers = new ArrayList<>();
+        Map<Integer, AnswerRanking.Totals> totals = new HashMap<>();
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, viewer);
+            pstmt.setInt(2, questionID);
+            pstmt.setInt(3, questionID);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                if (q == null) {
+                    q = mapQuestion(rs);
+                }
+                int answerID = rs.getInt("answer_id");
+                if (rs.wasNull()) {
+                    continue; // the question has no answers
+                }
+                Answer a = new Answer(answerID, questionID, rs.getString("answer_author"), rs.getString("answer_text"));
+                Timestamp ts = rs.getTimestamp("answer_creation_time");
+                if (ts != null) {
+                    a.setCreationTime(ts.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime());
+                }
+                a.setAccepted(rs.getBoolean("accepted"));
+                a.setUpvotesCount(rs.getInt("upvotes"));
+                a.setDownvotesCount(rs.getInt("downvotes"));
+                answers.add(a);
+                AnswerRanking.Totals t = AnswerRanking.readTotals(rs);
+                if (t != null) {
+                    totals.put(answerID, t);
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+        if (q == null) {
+            return null;
+        }
+        AnswerRanking.Scores scores = new AnswerRanking.Scores(viewer, questionID, totals);
+        questionCache.putIfCurrent(questionID, q, questionGeneration);
+        List<Integer> answerIDs = new ArrayList<>();
+        for (Answer a : answers) {
+            answerCache.putIfCurrent(a.getAnswerID(), a, answerGeneration);
+            answerIDs.add(a.getAnswerID());
+            withPendingVotes(a);
+        }
+        answerIDsByQuestion.putIfCurrent(questionID, List.copyOf(answerIDs), listGeneration);
+        answerRanking.getCache().putIfCurrent(AnswerRanking.key(viewer, questionID), scores, scoresGeneration);
+        return new QuestionDetailView(q, answers, scores);
     }
 
     private Review mapReview(ResultSet rs) throws SQLException {
@@ -630,13 +1792,14 @@ public class DatabaseHelper {
 
     public void addOrUpdateTrustedReviewer(String owner, String reviewer, int weight) {
         String checkSql = "SELECT * FROM cse360trusted_reviewers WHERE owner_user = ? AND reviewer_user = ?";
-        try (PreparedStatement checkStmt = connection.prepareStatement(checkSql)) {
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
             checkStmt.setString(1, owner);
             checkStmt.setString(2, reviewer);
             ResultSet rs = checkStmt.executeQuery();
             if (rs.next()) {
                 String updateSql = "UPDATE cse360trusted_reviewers SET weight = ? WHERE owner_user = ? AND reviewer_user = ?";
-                try (PreparedStatement updateStmt = connection.prepareStatement(updateSql)) {
+                try (PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
                     updateStmt.setInt(1, weight);
                     updateStmt.setString(2, owner);
                     updateStmt.setString(3, reviewer);
@@ -644,7 +1807,7 @@ public class DatabaseHelper {
                 }
             } else {
                 String insertSql = "INSERT INTO cse360trusted_reviewers (owner_user, reviewer_user, weight) VALUES (?, ?, ?)";
-                try (PreparedStatement insertStmt = connection.prepareStatement(insertSql)) {
+                try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
                     insertStmt.setString(1, owner);
                     insertStmt.setString(2, reviewer);
                     insertStmt.setInt(3, weight);
@@ -654,12 +1817,14 @@ public class DatabaseHelper {
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        getAnswerRanking().invalidateViewer(owner);
     }
 
     public List<TrustedReviewer> getTrustedReviewers(String owner) {
         List<TrustedReviewer> list = new ArrayList<>();
         String sql = "SELECT * FROM cse360trusted_reviewers WHERE owner_user = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, owner);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
@@ -677,45 +1842,151 @@ public class DatabaseHelper {
 
     public void removeTrustedReviewer(String owner, String reviewer) {
         String sql = "DELETE FROM cse360trusted_reviewers WHERE owner_user = ? AND reviewer_user = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, owner);
             pstmt.setString(2, reviewer);
             pstmt.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        getAnswerRanking().invalidateViewer(owner);
     }
 
     // ---------------- SCORECARD PARAMETERS ----------------
-    public void setScorecardParam(String paramName, int paramValue) {
+
+    // The current parameters; a volatile read, no query.
+    public ScorecardConfig getScorecardConfig() {
+        return scorecardConfig;
+    }
+
+    /**
+     * Stores all three parameters and rescores every scorecard in one transaction, then
+     * swaps in the new snapshot and tells the listeners. Saves are serialized so the
+     * snapshot always matches the last committed parameters.
+     *
+     * @return true if the parameters were saved
+     */
+    public synchronized boolean saveScorecardConfig(ScorecardConfig config) {
         String sql = "MERGE INTO cse360scorecard_params KEY(param_name) VALUES (?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, paramName);
-            pstmt.setInt(2, paramValue);
-            pstmt.executeUpdate();
+        try (PooledConnection conn = pool.borrow()) {
+            Connection c = conn.getConnection();
+            c.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (String name : new String[] { ScorecardConfig.UPVOTE_WEIGHT,
+                        ScorecardConfig.DOWNVOTE_WEIGHT, ScorecardConfig.RATING_WEIGHT }) {
+                    pstmt.setString(1, name);
+                    pstmt.setInt(2, config.get(name));
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                scorecardEngine.rescore(conn, config);
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
+            return false;
+        }
+        scorecardConfig = config;
+        for (Consumer<ScorecardConfig> listener : scorecardConfigListeners) {
+            listener.accept(config);
         }
+        return true;
+    }
+
+    // Changes one parameter, keeping the other two; see saveScorecardConfig.
+    public synchronized void setScorecardParam(String paramName, int paramValue) {
+        saveScorecardConfig(scorecardConfig.with(paramName, paramValue));
     }
     
     public int getScorecardParam(String paramName) {
-        String sql = "SELECT param_value FROM cse360scorecard_params WHERE param_name = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, paramName);
+        return scorecardConfig.get(paramName);
+    }
+
+    // Told the new parameters after a save commits.
+    public void addScorecardConfigListener(Consumer<ScorecardConfig> listener) {
+        scorecardConfigListeners.add(listener);
+    }
+
+    public void removeScorecardConfigListener(Consumer<ScorecardConfig> listener) {
+        scorecardConfigListeners.remove(listener);
+    }
+
+    // Reads all the parameters in one query.
+    private ScorecardConfig loadScorecardConfig() throws SQLException {
+        Map<String, Integer> params = new HashMap<>();
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT param_name, param_value FROM cse360scorecard_params")) {
             ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("param_value");
+            while (rs.next()) {
+                params.put(rs.getString("param_name"), rs.getInt("param_value"));
             }
+        }
+        return ScorecardConfig.fromParams(params);
+    }
+
+    // ---------------- REVIEWER SCORECARDS ----------------
+
+    public ScorecardEngine getScorecardEngine() {
+        return scorecardEngine;
+    }
+
+    // The materialized scorecards, best first; one SELECT, no computation.
+    public List<ReviewerScorecard> getReviewerScorecards() {
+        try {
+            return scorecardEngine.getScorecards();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Rebuilds every scorecard from the reviews table. Buffered votes are flushed first,
+     * so the stored answer counters the recompute reads include them.
+     *
+     * @return the number of reviewers, or -1 if the recompute failed
+     */
+    public int recomputeScorecards() {
+        try {
+            if (voteAggregator != null) {
+                voteAggregator.flush();
+            }
+            return scorecardEngine.recomputeAll();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    private void recomputeScorecards(List<String> reviewers) {
+        try {
+            scorecardEngine.recompute(reviewers);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Runs on the vote's own connection. A failure here does not undo the vote; it only leaves the
+    // scorecards behind until the next recompute.
+    private void updateScorecardsForVotes(PooledConnection conn, int answerId, int upDelta, int downDelta) {
+        try {
+            scorecardEngine.votesChanged(conn, answerId, upDelta, downDelta);
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return 0;
     }
 
     // ---------------- REQUESTS ----------------
     public int createRequest(String createdBy, String description) {
         String sql = "INSERT INTO cse360requests (created_by, description, status) VALUES (?, ?, 'OPEN')";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, createdBy);
             pstmt.setString(2, description);
             pstmt.executeUpdate();
@@ -733,7 +2004,8 @@ public class DatabaseHelper {
     public List<Request> getAllRequests() {
         List<Request> list = new ArrayList<>();
         String sql = "SELECT * FROM cse360requests ORDER BY request_id DESC";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             ResultSet rs = pstmt.executeQuery();
             while(rs.next()){
                 Request r = new Request();
@@ -755,7 +2027,8 @@ public class DatabaseHelper {
     
     public void closeRequest(int requestId, String adminNotes) {
         String sql = "UPDATE cse360requests SET status = 'CLOSED', notes = ? WHERE request_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, adminNotes);
             pstmt.setInt(2, requestId);
             pstmt.executeUpdate();
@@ -766,7 +2039,8 @@ public class DatabaseHelper {
     
     public void reopenRequest(int requestId, String newDescription) {
         String sql = "UPDATE cse360requests SET status = 'REOPENED', description = ? WHERE request_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, newDescription);
             pstmt.setInt(2, requestId);
             pstmt.executeUpdate();
@@ -776,24 +2050,40 @@ public class DatabaseHelper {
     }
 
     // ---------------- ROLE ADDITION ----------------
+    // Adds the role unless the user already holds exactly that role (not a substring of another).
     public void addRoleToUser(String userName, String newRole) {
-        String sqlGet = "SELECT role FROM cse360users WHERE userName = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sqlGet)) {
-            pstmt.setString(1, userName);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                String roles = rs.getString("role");
-                if (roles == null || roles.isEmpty()) {
-                    roles = newRole;
-                } else if (!roles.contains(newRole)) {
-                    roles += "," + newRole;
-                }
-                String sqlUpdate = "UPDATE cse360users SET role = ? WHERE userName = ?";
-                try (PreparedStatement pstmt2 = connection.prepareStatement(sqlUpdate)) {
-                    pstmt2.setString(1, roles);
-                    pstmt2.setString(2, userName);
-                    pstmt2.executeUpdate();
+        String sqlGet = "SELECT role FROM cse360users WHERE userName = ? FOR UPDATE";
+        try (PooledConnection conn = pool.borrow()) {
+            Connection c = conn.getConnection();
+            c.setAutoCommit(false);
+            String changedTo = null;
+            try {
+                User user = null;
+                try (PreparedStatement pstmt = conn.prepareStatement(sqlGet)) {
+                    pstmt.setString(1, userName);
+                    ResultSet rs = pstmt.executeQuery();
+                    if (rs.next()) {
+                        user = new User(userName, "", rs.getString("role"));
+                    }
+                }
+                // Role names are case-insensitive, as in cse360user_roles and User.hasRole
+                String name = newRole.trim().toLowerCase(Locale.ROOT);
+                if (user != null && !name.isEmpty()
+                        && user.getRoles().stream().noneMatch(r -> r.equalsIgnoreCase(name))) {
+                    List<String> roles = new ArrayList<>(user.getRoles());
+                    roles.add(name);
+                    writeRoles(conn, userName, roles);
+                    changedTo = String.join(",", roles);
                 }
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+            if (changedTo != null) {
+                fireRoleChange(userName, changedTo);
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -0,0 +1,154 @@
+package databasePart1;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded read-through cache for rows loaded by DatabaseHelper.
+ * Entries are evicted least-recently-used first once the cache is full, and
+ * DatabaseHelper invalidates them from every method that writes the row.
+ *
+ * Cached objects are mutable model classes, so callers always get a copy made by
+ * the copier passed in; editing a returned Question or Answer never changes the cache.
+ */
+public class EntityCache<K, V> {
+
+    private final String name;
+    private final int capacity;
+    private final UnaryOperator<V> copier;
+    private final LinkedHashMap<K, V> entries;
+
+    // Bumped by every invalidation. A load that started before an invalidation
+    // may have read the old row, so its result is returned but not cached.
+    private long generation = 0;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    public EntityCache(String name, int capacity, UnaryOperator<V> copier) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be at least 1.");
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.copier = copier;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true); // access order for LRU
+    }
+
+    /**
+     * Returns a copy of the cached value, or loads it with loader (outside the lock) and
+     * caches it. A null result from the loader (row not found) is not cached.
+     */
+    public V get(K key, Function<K, V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            V cached = entries.get(key);
+            if (cached != null) {
+                hitCount++;
+                return copier.apply(cached);
+            }
+            missCount++;
+            loadGeneration = generation;
+        }
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            putIfCurrent(key, loaded, loadGeneration);
+            return copier.apply(loaded);
+        }
+        return null;
+    }
+
+    // Returns a copy of the cached value without loading it, or null. Counts as a hit or miss.
+    public synchronized V getIfPresent(K key) {
+        V cached = entries.get(key);
+        if (cached == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return copier.apply(cached);
+    }
+
+    // For callers that load several misses in one query: take the generation before the query.
+    public synchronized long currentGeneration() {
+        return generation;
+    }
+
+    /**
+     * Caches a value loaded while the cache was at loadGeneration. The value is dropped if
+     * anything was invalidated since, because it may be older than that invalidation.
+     */
+    public synchronized void putIfCurrent(K key, V value, long loadGeneration) {
+        if (loadGeneration != generation) {
+            return;
+        }
+        entries.put(key, copier.apply(value));
+        evictIfFull();
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    // Removes every entry whose value matches, e.g. all answers of a deleted question.
+    public synchronized void invalidateIf(Predicate<V> matches) {
+        generation++;
+        Iterator<V> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (matches.test(it.next())) {
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    private void evictIfFull() {
+        Iterator<Map.Entry<K, V>> it = entries.entrySet().iterator();
+        while (entries.size() > capacity && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictionCount++;
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    // Fraction of lookups served from the cache, 0.0 before the first lookup.
+    public synchronized double getHitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    public synchronized String getStatistics() {
+        return String.format("%s: size=%d/%d, hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d",
+                name, entries.size(), capacity, hitCount, missCount, getHitRate() * 100, evictionCount);
+    }
+}
@@ -0,0 +1,149 @@
+package databasePart1;
+
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Mints and redeems invitation codes (the InvitationCodes table).
+ *
+ * Codes are CODE_LENGTH characters drawn with SecureRandom from an alphabet without
+ * look-alike characters, about 78 bits each, so guessing one is hopeless and a
+ * collision is practically impossible; the primary key still rejects one, and minting
+ * simply tries again. Redeeming is a single conditional UPDATE, so two people
+ * racing with the same code cannot both get in.
+ */
+public class InvitationService {
+
+    public static final int CODE_LENGTH = 16;
+    public static final Duration DEFAULT_VALIDITY = Duration.ofDays(7);
+    // Course onboarding mints a class list at once; more than this is almost certainly a typo.
+    public static final int MAX_BATCH = 1000;
+
+    private static final char[] ALPHABET = "ABCDEFGHJKMNPQRSTVWXYZ23456789".toCharArray();
+    private static final int MAX_ATTEMPTS = 3;
+    private static final String DUPLICATE_KEY = "23505";
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final ConnectionPool pool;
+    private final Clock clock;
+
+    public InvitationService(ConnectionPool pool) {
+        this(pool, Clock.systemDefaultZone());
+    }
+
+    // Allows a fixed clock to be used for testing expiry.
+    public InvitationService(ConnectionPool pool, Clock clock) {
+        this.pool = pool;
+        this.clock = clock;
+    }
+
+    public static String newCode() {
+        char[] code = new char[CODE_LENGTH];
+        for (int i = 0; i < code.length; i++) {
+            code[i] = ALPHABET[RANDOM.nextInt(ALPHABET.length)];
+        }
+        return new String(code);
+    }
+
+    // Stores one new code that can be redeemed until validity has passed.
+    public String mint(Duration validity) throws SQLException {
+        return mint(1, validity).get(0);
+    }
+
+    /**
+     * Stores count new codes in one transaction: either all of them can be handed out
+     * or, if the insert fails, none were stored.
+     */
+    public List<String> mint(int count, Duration validity) throws SQLException {
+        if (count < 1 || count > MAX_BATCH) {
+            throw new IllegalArgumentException("count must be between 1 and " + MAX_BATCH);
+        }
+        String sql = "INSERT INTO InvitationCodes (code, isUsed, created_at, expires_at) VALUES (?, FALSE, ?, ?)";
+        LocalDateTime now = LocalDateTime.now(clock);
+        Timestamp created = Timestamp.valueOf(now);
+        Timestamp expires = validity == null ? null : Timestamp.valueOf(now.plus(validity));
+        for (int attempt = 1; ; attempt++) {
+            Set<String> codes = new LinkedHashSet<>();
+            while (codes.size() < count) {
+                codes.add(newCode());
+            }
+            try (PooledConnection conn = pool.borrow()) {
+                Connection c = conn.getConnection();
+                c.setAutoCommit(false);
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (String code : codes) {
+                        pstmt.setString(1, code);
+                        pstmt.setTimestamp(2, created);
+                        pstmt.setTimestamp(3, expires);
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                    c.commit();
+                    return new ArrayList<>(codes);
+                } catch (SQLException e) {
+                    c.rollback();
+                    if (!isDuplicateKey(e) || attempt >= MAX_ATTEMPTS) {
+                        throw e;
+                    }
+                    // A drawn code already exists: draw the whole batch again
+                } finally {
+                    c.setAutoCommit(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks the code used by userName if it exists, is unused and has not expired.
+     * The check and the update are one statement, so each code lets in exactly one person.
+     *
+     * @return true if this call redeemed the code
+     */
+    public boolean redeem(String code, String userName) throws SQLException {
+        try (PooledConnection conn = pool.borrow()) {
+            return redeem(conn, code, userName);
+        }
+    }
+
+    // Like redeem(code, userName), but in the caller's transaction (e.g. together with creating the account).
+    public boolean redeem(PooledConnection conn, String code, String userName) throws SQLException {
+        if (code == null || code.isBlank()) {
+            return false;
+        }
+        String sql = "UPDATE InvitationCodes SET isUsed = TRUE, used_by = ?, used_at = ? "
+                + "WHERE code = ? AND isUsed = FALSE AND (expires_at IS NULL OR expires_at > ?)";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now(clock));
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, userName);
+            pstmt.setTimestamp(2, now);
+            pstmt.setString(3, code.trim());
+            pstmt.setTimestamp(4, now);
+            return pstmt.executeUpdate() == 1;
+        }
+    }
+
+    // Deletes codes that expired unused; returns how many were removed.
+    public int purgeExpired() throws SQLException {
+        String sql = "DELETE FROM InvitationCodes WHERE isUsed = FALSE AND expires_at <= ?";
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now(clock)));
+            return pstmt.executeUpdate();
+        }
+    }
+
+    // H2 reports a batch failure with the state of the statement that failed.
+    private static boolean isDuplicateKey(SQLException e) {
+        return DUPLICATE_KEY.equals(e.getSQLState());
+    }
+}
@@ -0,0 +1,154 @@
+package databasePart1;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Base64;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Salted PBKDF2 (HMAC-SHA256) password hashing.
+ *
+ * Hashes are stored as "pbkdf2-sha256$iterations$salt$hash" (salt and hash in Base64), so
+ * every row carries the cost it was hashed with and the cost can be raised later: verify()
+ * accepts older hashes, and needsRehash() tells the login path to store a new one.
+ *
+ * The default instance is calibrated once per JVM so that one hash takes about
+ * TARGET_MILLIS on this machine (-Dpassword.hashMillis to change it), never dropping
+ * below MIN_ITERATIONS.
+ */
+public class PasswordHasher {
+
+    public static final String PREFIX = "pbkdf2-sha256$";
+    public static final int MIN_ITERATIONS = 100_000;
+    public static final int MAX_ITERATIONS = 5_000_000;
+    public static final long TARGET_MILLIS = Long.getLong("password.hashMillis", 250);
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static volatile PasswordHasher defaultHasher;
+
+    private final int iterations;
+
+    public PasswordHasher(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("iterations must be positive");
+        }
+        this.iterations = iterations;
+    }
+
+    /** The hasher calibrated for this machine; the first call runs the calibration. */
+    public static PasswordHasher getDefault() {
+        PasswordHasher hasher = defaultHasher;
+        if (hasher == null) {
+            synchronized (PasswordHasher.class) {
+                hasher = defaultHasher;
+                if (hasher == null) {
+                    hasher = calibrate(TARGET_MILLIS);
+                    System.out.println("Password hashing: " + hasher.getIterations() + " PBKDF2 iterations");
+                    defaultHasher = hasher;
+                }
+            }
+        }
+        return hasher;
+    }
+
+    /**
+     * Times a short run of PBKDF2 and scales the iteration count so one hash takes about
+     * targetMillis, clamped to [MIN_ITERATIONS, MAX_ITERATIONS].
+     */
+    public static PasswordHasher calibrate(long targetMillis) {
+        int probeIterations = 20_000;
+        PasswordHasher probe = new PasswordHasher(probeIterations);
+        byte[] salt = new byte[SALT_BYTES];
+        probe.derive("calibration".toCharArray(), salt, probeIterations); // warm up the JIT
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.derive("calibration".toCharArray(), salt, probeIterations);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double iterationsPerMilli = probeIterations / Math.max(best / 1_000_000.0, 0.001);
+        long scaled = (long) (iterationsPerMilli * targetMillis);
+        return new PasswordHasher((int) Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, scaled)));
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    // Returns the encoded hash of password with a fresh random salt.
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = derive(password.toCharArray(), salt, iterations);
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(hash);
+    }
+
+    /**
+     * Checks password against a stored value. Stored values that are not hashes are rows
+     * from before hashing was added and are compared as plain text; needsRehash() is true
+     * for them, so the caller can replace them after a successful check.
+     */
+    public boolean verify(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 3) {
+            return false;
+        }
+        try {
+            int storedIterations = Integer.parseInt(parts[0]);
+            byte[] salt = Base64.getDecoder().decode(parts[1]);
+            byte[] expected = Base64.getDecoder().decode(parts[2]);
+            return MessageDigest.isEqual(expected, derive(password.toCharArray(), salt, storedIterations));
+        } catch (IllegalArgumentException e) {
+            return false; // malformed hash
+        }
+    }
+
+    // Does the work of one verify() with no stored hash, so a missing user takes as long as a wrong password.
+    public void simulateVerify(String password) {
+        derive(String.valueOf(password).toCharArray(), new byte[SALT_BYTES], iterations);
+    }
+
+    public static boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    // True for plain-text values and for hashes made with fewer iterations than this hasher uses.
+    public boolean needsRehash(String stored) {
+        if (!isHashed(stored)) {
+            return true;
+        }
+        int end = stored.indexOf('$', PREFIX.length());
+        try {
+            return end < 0 || Integer.parseInt(stored.substring(PREFIX.length(), end)) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private byte[] derive(char[] password, byte[] salt, int rounds) {
+        PBEKeySpec spec = new PBEKeySpec(password, salt, rounds, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A connection borrowed from a ConnectionPool.
+ * Closing it returns the underlying JDBC connection to the pool instead of closing it.
+ */
+public class PooledConnection implements AutoCloseable {
+
+    private final ConnectionPool pool;
+    private final Connection connection;
+    private final StatementCache statementCache;
+
+    // Leak detection bookkeeping
+    private volatile long borrowedAt;
+    private volatile String borrowerThread;
+    private volatile Throwable borrowTrace; // only when the pool traces borrows
+    private volatile boolean leakReported;
+
+    PooledConnection(ConnectionPool pool, Connection connection) {
+        this.pool = pool;
+        this.connection = connection;
+        this.statementCache = new StatementCache(connection, StatementCache.DEFAULT_CAPACITY);
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    // Prepared statements come from this connection's StatementCache.
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        return statementCache.prepare(sql);
+    }
+
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        return statementCache.prepare(sql, autoGeneratedKeys);
+    }
+
+    public StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    public Statement createStatement() throws SQLException {
+        return connection.createStatement();
+    }
+
+    // Returns the connection to the pool.
+    @Override
+    public void close() {
+        pool.release(this);
+    }
+
+    void markBorrowed(boolean captureTrace) {
+        borrowedAt = System.currentTimeMillis();
+        borrowerThread = Thread.currentThread().getName();
+        borrowTrace = captureTrace ? new Throwable("Connection borrowed here") : null;
+        leakReported = false;
+    }
+
+    void closePhysical() {
+        statementCache.clear();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    long getBorrowedAt() {
+        return borrowedAt;
+    }
+
+    String getBorrowerThread() {
+        return borrowerThread;
+    }
+
+    Throwable getBorrowTrace() {
+        return borrowTrace;
+    }
+
+    boolean isLeakReported() {
+        return leakReported;
+    }
+
+    void setLeakReported(boolean leakReported) {
+        this.leakReported = leakReported;
+    }
+}
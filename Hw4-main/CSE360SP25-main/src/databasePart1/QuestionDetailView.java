@@ -0,0 +1,52 @@
+package databasePart1;
+
+import application.Answer;
+import application.Question;
+import application.ReviewStats;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Everything the question page shows for one viewer: the question, its answers in
+ * posting order and the answers' review totals (which also rank them).
+ *
+ * DatabaseHelper.getQuestionDetailView reads it with one JOIN query on a cold cache and
+ * fills the question, answer and ranking caches from that result, so reopening the
+ * question assembles the view from the caches without a query. The parts are cached
+ * separately rather than as one object, so a vote or an edit only drops the piece it
+ * changed.
+ */
+public class QuestionDetailView {
+
+    private final Question question;
+    private final List<Answer> answers;
+    private final AnswerRanking.Scores scores;
+
+    QuestionDetailView(Question question, List<Answer> answers, AnswerRanking.Scores scores) {
+        this.question = question;
+        this.answers = Collections.unmodifiableList(answers);
+        this.scores = scores;
+    }
+
+    public Question getQuestion() {
+        return question;
+    }
+
+    // In answer ID order.
+    public List<Answer> getAnswers() {
+        return answers;
+    }
+
+    public AnswerRanking.Scores getScores() {
+        return scores;
+    }
+
+    public ReviewStats getReviewStats(int answerId) {
+        return scores.getReviewStats(answerId);
+    }
+
+    // A new list of the answers, best first for the viewer.
+    public List<Answer> getRankedAnswers() {
+        return scores.rank(answers);
+    }
+}
@@ -0,0 +1,208 @@
+package databasePart1;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Versioned schema changes applied on top of the tables created by DatabaseHelper.
+ * The schema_version table records which migrations a database file already has,
+ * so an existing ~/FoundationDatabase is upgraded in place the next time it is opened.
+ *
+ * To change the schema, append a new Migration with the next version number.
+ * Never edit or reorder a migration that has already shipped.
+ */
+public class SchemaMigrations {
+
+    /** One ordered schema change. */
+    public static class Migration {
+        private final int version;
+        private final String description;
+        private final List<String> statements;
+
+        public Migration(int version, String description, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.statements = List.of(statements);
+        }
+
+        public int getVersion() { return version; }
+        public String getDescription() { return description; }
+        public List<String> getStatements() { return statements; }
+    }
+
+    static final List<Migration> MIGRATIONS = new ArrayList<>();
+
+    static {
+        MIGRATIONS.add(new Migration(1, "Secondary indexes for foreign-key lookups",
+                "CREATE INDEX IF NOT EXISTS idx_answers_question ON cse360answers(question_id)",
+                "CREATE INDEX IF NOT EXISTS idx_messages_to_user ON cse360messages(to_user, creation_time)",
+                "CREATE INDEX IF NOT EXISTS idx_messages_from_user ON cse360messages(from_user, creation_time)",
+                "CREATE INDEX IF NOT EXISTS idx_messages_question ON cse360messages(question_id)",
+                "CREATE INDEX IF NOT EXISTS idx_reviews_answer ON cse360reviews(answer_id)"
+                // cse360trusted_reviewers.owner_user is the leading column of its primary key,
+                // so owner lookups already use that index.
+        ));
+
+        MIGRATIONS.add(new Migration(2, "Cascade deletes from questions to answers to reviews",
+                // Orphans left by older versions would make the constraints fail.
+                "DELETE FROM cse360answers WHERE question_id NOT IN (SELECT question_id FROM cse360questions)",
+                "DELETE FROM cse360reviews WHERE answer_id NOT IN (SELECT answer_id FROM cse360answers)",
+                "ALTER TABLE cse360answers ADD CONSTRAINT IF NOT EXISTS fk_answers_question "
+                        + "FOREIGN KEY (question_id) REFERENCES cse360questions(question_id) ON DELETE CASCADE",
+                "ALTER TABLE cse360reviews ADD CONSTRAINT IF NOT EXISTS fk_reviews_answer "
+                        + "FOREIGN KEY (answer_id) REFERENCES cse360answers(answer_id) ON DELETE CASCADE"
+        ));
+
+        MIGRATIONS.add(new Migration(3, "Per-user answer votes",
+                "CREATE TABLE IF NOT EXISTS cse360answer_votes ("
+                        + "answer_id INT NOT NULL, "
+                        + "user_name VARCHAR(255) NOT NULL, "
+                        + "vote INT NOT NULL, " // +1 or -1
+                        + "creation_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                        + "PRIMARY KEY(answer_id, user_name), "
+                        + "FOREIGN KEY (answer_id) REFERENCES cse360answers(answer_id) ON DELETE CASCADE)"
+        ));
+
+        MIGRATIONS.add(new Migration(4, "Inbox unread counters",
+                "CREATE TABLE IF NOT EXISTS cse360unread_counts ("
+                        + "user_name VARCHAR(255) PRIMARY KEY, "
+                        + "unread INT NOT NULL DEFAULT 0)",
+                // Seed the counters from the messages already stored
+                "MERGE INTO cse360unread_counts (user_name, unread) KEY (user_name) "
+                        + "SELECT to_user, COUNT(*) FROM cse360messages WHERE is_read = FALSE GROUP BY to_user",
+                // A conversation is looked up from both ends; the to_user side also filters on the sender
+                "CREATE INDEX IF NOT EXISTS idx_messages_conversation ON cse360messages(to_user, from_user, message_id)"
+        ));
+
+        MIGRATIONS.add(new Migration(5, "Private feedback threads",
+                "CREATE TABLE IF NOT EXISTS cse360message_threads ("
+                        + "thread_id INT AUTO_INCREMENT PRIMARY KEY, "
+                        + "question_id INT NOT NULL, "
+                        + "user_a VARCHAR(255) NOT NULL, " // participants in alphabetical order
+                        + "user_b VARCHAR(255) NOT NULL, "
+                        + "last_message_time TIMESTAMP, "
+                        + "message_count INT NOT NULL DEFAULT 0, "
+                        + "CONSTRAINT uq_thread_participants UNIQUE (question_id, user_a, user_b))",
+                "ALTER TABLE cse360messages ADD COLUMN IF NOT EXISTS thread_id INT",
+                // One thread per question and pair of users for the messages already stored
+                "MERGE INTO cse360message_threads (question_id, user_a, user_b, last_message_time, message_count) "
+                        + "KEY (question_id, user_a, user_b) "
+                        + "SELECT question_id, LEAST(from_user, to_user), GREATEST(from_user, to_user), "
+                        + "MAX(creation_time), COUNT(*) FROM cse360messages WHERE question_id > 0 "
+                        + "GROUP BY question_id, LEAST(from_user, to_user), GREATEST(from_user, to_user)",
+                "UPDATE cse360messages m SET thread_id = (SELECT t.thread_id FROM cse360message_threads t "
+                        + "WHERE t.question_id = m.question_id AND t.user_a = LEAST(m.from_user, m.to_user) "
+                        + "AND t.user_b = GREATEST(m.from_user, m.to_user)) WHERE m.question_id > 0",
+                "CREATE INDEX IF NOT EXISTS idx_messages_thread ON cse360messages(thread_id, message_id)"
+        ));
+
+        MIGRATIONS.add(new Migration(6, "Normalized user roles",
+                "CREATE TABLE IF NOT EXISTS cse360user_roles ("
+                        + "user_name VARCHAR(255) NOT NULL, "
+                        + "role VARCHAR(50) NOT NULL, "
+                        + "PRIMARY KEY (user_name, role), "
+                        + "FOREIGN KEY (user_name) REFERENCES cse360users(userName) ON DELETE CASCADE)",
+                // One row per name in the comma-separated role column (at most 20 per user)
+                "MERGE INTO cse360user_roles (user_name, role) KEY (user_name, role) "
+                        + "SELECT u.userName, LOWER(REGEXP_SUBSTR(u.role, '[^, ]+', 1, n.X)) "
+                        + "FROM cse360users u JOIN SYSTEM_RANGE(1, 20) n "
+                        + "ON REGEXP_SUBSTR(u.role, '[^, ]+', 1, n.X) IS NOT NULL",
+                "CREATE INDEX IF NOT EXISTS idx_user_roles_role ON cse360user_roles(role)"
+        ));
+
+        MIGRATIONS.add(new Migration(7, "Invitation code expiry and redemption",
+                "ALTER TABLE InvitationCodes ALTER COLUMN code SET DATA TYPE VARCHAR(32)",
+                "ALTER TABLE InvitationCodes ADD COLUMN IF NOT EXISTS created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP",
+                // NULL never expires, which keeps codes handed out before this change valid
+                "ALTER TABLE InvitationCodes ADD COLUMN IF NOT EXISTS expires_at TIMESTAMP",
+                "ALTER TABLE InvitationCodes ADD COLUMN IF NOT EXISTS used_by VARCHAR(255)",
+                "ALTER TABLE InvitationCodes ADD COLUMN IF NOT EXISTS used_at TIMESTAMP"
+        ));
+
+        MIGRATIONS.add(new Migration(8, "Materialized reviewer scorecards",
+                "CREATE TABLE IF NOT EXISTS cse360reviewer_scorecards ("
+                        + "reviewer_user VARCHAR(255) PRIMARY KEY, "
+                        + "review_count INT NOT NULL DEFAULT 0, "
+                        + "rating_total BIGINT NOT NULL DEFAULT 0, "
+                        + "upvote_total BIGINT NOT NULL DEFAULT 0, "
+                        + "downvote_total BIGINT NOT NULL DEFAULT 0, "
+                        + "score BIGINT NOT NULL DEFAULT 0, "
+                        + "updated_at TIMESTAMP)",
+                "CREATE INDEX IF NOT EXISTS idx_scorecards_score ON cse360reviewer_scorecards(score DESC)",
+                // Seed from the reviews already stored; unset weights count as 1 (ScorecardConfig.DEFAULT_WEIGHT)
+                "MERGE INTO cse360reviewer_scorecards "
+                        + "(reviewer_user, review_count, rating_total, upvote_total, downvote_total, score, updated_at) "
+                        + "KEY (reviewer_user) "
+                        + "SELECT r.reviewer_user, COUNT(*), SUM(r.rating), SUM(a.upvotes), SUM(a.downvotes), "
+                        + "COALESCE((SELECT param_value FROM cse360scorecard_params WHERE param_name = 'ratingWeight'), 1) * SUM(r.rating) "
+                        + "+ COALESCE((SELECT param_value FROM cse360scorecard_params WHERE param_name = 'upvoteWeight'), 1) * SUM(a.upvotes) "
+                        + "- COALESCE((SELECT param_value FROM cse360scorecard_params WHERE param_name = 'downvoteWeight'), 1) * SUM(a.downvotes), "
+                        + "CURRENT_TIMESTAMP "
+                        + "FROM cse360reviews r JOIN cse360answers a ON a.answer_id = r.answer_id GROUP BY r.reviewer_user"
+        ));
+    }
+
+    /**
+     * Applies every migration newer than the database's current version, in order.
+     * H2 commits DDL implicitly, so each statement is written to be safe to re-run
+     * (IF NOT EXISTS) in case a migration is interrupted part way through.
+     *
+     * @return the schema version after migrating
+     */
+    public static int migrate(PooledConnection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + "version INT PRIMARY KEY, "
+                    + "description VARCHAR(255), "
+                    + "applied_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        }
+
+        int current = getCurrentVersion(conn);
+        for (Migration m : MIGRATIONS) {
+            if (m.getVersion() <= current) {
+                continue;
+            }
+            System.out.println("Applying schema migration " + m.getVersion() + ": " + m.getDescription());
+            conn.getConnection().setAutoCommit(false);
+            try {
+                try (Statement stmt = conn.createStatement()) {
+                    for (String sql : m.getStatements()) {
+                        stmt.execute(sql);
+                    }
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                    pstmt.setInt(1, m.getVersion());
+                    pstmt.setString(2, m.getDescription());
+                    pstmt.executeUpdate();
+                }
+                conn.getConnection().commit();
+            } catch (SQLException e) {
+                conn.getConnection().rollback();
+                throw new SQLException("Schema migration " + m.getVersion() + " failed: " + e.getMessage(), e);
+            } finally {
+                conn.getConnection().setAutoCommit(true);
+            }
+            current = m.getVersion();
+        }
+        return current;
+    }
+
+    public static int getCurrentVersion(PooledConnection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT MAX(version) FROM schema_version")) {
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getInt(1); // 0 when the table is empty
+            }
+        }
+        return 0;
+    }
+
+    public static int getLatestVersion() {
+        return MIGRATIONS.isEmpty() ? 0 : MIGRATIONS.get(MIGRATIONS.size() - 1).getVersion();
+    }
+}
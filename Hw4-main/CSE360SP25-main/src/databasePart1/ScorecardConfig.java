@@ -0,0 +1,87 @@
+package databasePart1;
+
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the reviewer scorecard parameters (cse360scorecard_params).
+ *
+ * DatabaseHelper loads the snapshot once when it connects and replaces it as a whole
+ * when the parameters are saved, so readers get all three weights from one volatile
+ * read and never a mix of old and new values.
+ */
+public final class ScorecardConfig {
+
+    public static final String UPVOTE_WEIGHT = "upvoteWeight";
+    public static final String DOWNVOTE_WEIGHT = "downvoteWeight";
+    public static final String RATING_WEIGHT = "ratingWeight";
+    // Used for a parameter the instructor has not set.
+    public static final int DEFAULT_WEIGHT = 1;
+
+    public static final ScorecardConfig DEFAULTS = new ScorecardConfig(DEFAULT_WEIGHT, DEFAULT_WEIGHT, DEFAULT_WEIGHT);
+
+    private final int upvoteWeight;
+    private final int downvoteWeight;
+    private final int ratingWeight;
+
+    public ScorecardConfig(int upvoteWeight, int downvoteWeight, int ratingWeight) {
+        this.upvoteWeight = upvoteWeight;
+        this.downvoteWeight = downvoteWeight;
+        this.ratingWeight = ratingWeight;
+    }
+
+    // Builds a snapshot from stored parameter rows; missing ones get DEFAULT_WEIGHT.
+    public static ScorecardConfig fromParams(Map<String, Integer> params) {
+        return new ScorecardConfig(params.getOrDefault(UPVOTE_WEIGHT, DEFAULT_WEIGHT),
+                params.getOrDefault(DOWNVOTE_WEIGHT, DEFAULT_WEIGHT),
+                params.getOrDefault(RATING_WEIGHT, DEFAULT_WEIGHT));
+    }
+
+    public int getUpvoteWeight() { return upvoteWeight; }
+    public int getDownvoteWeight() { return downvoteWeight; }
+    public int getRatingWeight() { return ratingWeight; }
+
+    // The value of a parameter by its stored name, or 0 for a name that is not a scorecard parameter.
+    public int get(String paramName) {
+        switch (paramName) {
+            case UPVOTE_WEIGHT: return upvoteWeight;
+            case DOWNVOTE_WEIGHT: return downvoteWeight;
+            case RATING_WEIGHT: return ratingWeight;
+            default: return 0;
+        }
+    }
+
+    // A copy with one parameter changed.
+    public ScorecardConfig with(String paramName, int value) {
+        switch (paramName) {
+            case UPVOTE_WEIGHT: return new ScorecardConfig(value, downvoteWeight, ratingWeight);
+            case DOWNVOTE_WEIGHT: return new ScorecardConfig(upvoteWeight, value, ratingWeight);
+            case RATING_WEIGHT: return new ScorecardConfig(upvoteWeight, downvoteWeight, value);
+            default: throw new IllegalArgumentException("Unknown scorecard parameter: " + paramName);
+        }
+    }
+
+    public long score(long ratingTotal, long upvoteTotal, long downvoteTotal) {
+        return ratingWeight * ratingTotal + upvoteWeight * upvoteTotal - downvoteWeight * downvoteTotal;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ScorecardConfig)) {
+            return false;
+        }
+        ScorecardConfig other = (ScorecardConfig) o;
+        return upvoteWeight == other.upvoteWeight && downvoteWeight == other.downvoteWeight
+                && ratingWeight == other.ratingWeight;
+    }
+
+    @Override
+    public int hashCode() {
+        return (upvoteWeight * 31 + downvoteWeight) * 31 + ratingWeight;
+    }
+
+    @Override
+    public String toString() {
+        return UPVOTE_WEIGHT + "=" + upvoteWeight + ", " + DOWNVOTE_WEIGHT + "=" + downvoteWeight
+                + ", " + RATING_WEIGHT + "=" + ratingWeight;
+    }
+}
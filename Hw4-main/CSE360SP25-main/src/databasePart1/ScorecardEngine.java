@@ -0,0 +1,346 @@
+package databasePart1;
+
+import application.ReviewerScorecard;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Computes every reviewer's scorecard and keeps it in cse360reviewer_scorecards, so
+ * instructors read it with one SELECT.
+ *
+ * A reviewer's totals are their review count, the sum of their ratings and the upvotes
+ * and downvotes on the answers they reviewed (counted once per review). The score is
+ *     ratingWeight * ratingTotal + upvoteWeight * upvoteTotal - downvoteWeight * downvoteTotal
+ * with the weights of the current ScorecardConfig. Because the score is linear in the
+ * totals, the table can be kept current in two ways:
+ * - incrementally: reviewAdded() and votesChanged() add their deltas in one statement;
+ * - fully: recomputeAll() streams the whole reviews table once, sums it in chunks on a
+ *   fork-join pool while the next chunk is read, and replaces the table in one transaction.
+ */
+public class ScorecardEngine {
+
+    static final int CHUNK_SIZE = 4096;
+    static final int SPLIT_THRESHOLD = 512;
+
+    private static final String REVIEW_ADDED_SQL = "MERGE INTO cse360reviewer_scorecards t "
+            + "USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT))) "
+            + "s(reviewer_user, rating, up, down, score) ON t.reviewer_user = s.reviewer_user "
+            + "WHEN MATCHED THEN UPDATE SET review_count = t.review_count + 1, rating_total = t.rating_total + s.rating, "
+            + "upvote_total = t.upvote_total + s.up, downvote_total = t.downvote_total + s.down, "
+            + "score = t.score + s.score, updated_at = CURRENT_TIMESTAMP "
+            + "WHEN NOT MATCHED THEN INSERT (reviewer_user, review_count, rating_total, upvote_total, downvote_total, score, updated_at) "
+            + "VALUES (s.reviewer_user, 1, s.rating, s.up, s.down, s.score, CURRENT_TIMESTAMP)";
+
+    // Every reviewer of the answer gets the vote change once per review they wrote of it.
+    private static final String VOTES_CHANGED_SQL = "MERGE INTO cse360reviewer_scorecards t "
+            + "USING (SELECT reviewer_user, COUNT(*) AS n FROM cse360reviews WHERE answer_id = ? GROUP BY reviewer_user) s "
+            + "ON t.reviewer_user = s.reviewer_user "
+            + "WHEN MATCHED THEN UPDATE SET upvote_total = t.upvote_total + s.n * ?, "
+            + "downvote_total = t.downvote_total + s.n * ?, score = t.score + s.n * ?, updated_at = CURRENT_TIMESTAMP";
+
+    private static final String RECOMPUTE_REVIEWERS_SQL = "INSERT INTO cse360reviewer_scorecards "
+            + "(reviewer_user, review_count, rating_total, upvote_total, downvote_total, score, updated_at) "
+            + "SELECT r.reviewer_user, COUNT(*), SUM(r.rating), SUM(a.upvotes), SUM(a.downvotes), "
+            + "? * SUM(r.rating) + ? * SUM(a.upvotes) - ? * SUM(a.downvotes), CURRENT_TIMESTAMP "
+            + "FROM cse360reviews r JOIN cse360answers a ON a.answer_id = r.answer_id "
+            + "WHERE r.reviewer_user = ANY(?) GROUP BY r.reviewer_user";
+
+    private static final String STREAM_SQL = "SELECT r.reviewer_user, r.rating, a.upvotes, a.downvotes "
+            + "FROM cse360reviews r JOIN cse360answers a ON a.answer_id = r.answer_id";
+
+    private static final String INSERT_SQL = "INSERT INTO cse360reviewer_scorecards "
+            + "(reviewer_user, review_count, rating_total, upvote_total, downvote_total, score, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final ConnectionPool pool;
+    private final ForkJoinPool forkJoin;
+    // The current weights; a volatile read in DatabaseHelper, no query
+    private final Supplier<ScorecardConfig> config;
+
+    public ScorecardEngine(ConnectionPool pool, Supplier<ScorecardConfig> config) {
+        this(pool, config, ForkJoinPool.commonPool());
+    }
+
+    public ScorecardEngine(ConnectionPool pool, Supplier<ScorecardConfig> config, ForkJoinPool forkJoin) {
+        this.pool = pool;
+        this.config = config;
+        this.forkJoin = forkJoin;
+    }
+
+    // ---------------- Incremental mode ----------------
+
+    // A review was stored for an answer that currently has these vote counts; runs in the caller's
+    // transaction, so the scorecard only counts reviews that were committed.
+    public void reviewAdded(PooledConnection conn, String reviewer, int rating, int upvotes, int downvotes) throws SQLException {
+        ScorecardConfig w = config.get();
+        try (PreparedStatement pstmt = conn.prepareStatement(REVIEW_ADDED_SQL)) {
+            pstmt.setString(1, reviewer);
+            pstmt.setLong(2, rating);
+            pstmt.setLong(3, upvotes);
+            pstmt.setLong(4, downvotes);
+            pstmt.setLong(5, w.score(rating, upvotes, downvotes));
+            pstmt.executeUpdate();
+        }
+    }
+
+    // The answer's counters moved by these deltas; runs on the caller's connection, so a vote
+    // transaction never waits on a second connection from the pool.
+    public void votesChanged(PooledConnection conn, int answerId, int upDelta, int downDelta) throws SQLException {
+        if (upDelta == 0 && downDelta == 0) {
+            return;
+        }
+        ScorecardConfig w = config.get();
+        try (PreparedStatement pstmt = conn.prepareStatement(VOTES_CHANGED_SQL)) {
+            pstmt.setInt(1, answerId);
+            pstmt.setLong(2, upDelta);
+            pstmt.setLong(3, downDelta);
+            pstmt.setLong(4, w.score(0, upDelta, downDelta));
+            pstmt.executeUpdate();
+        }
+    }
+
+    // Reviewers with a review of the answer, or of any answer to the question; read before deleting them.
+    public List<String> reviewersOfAnswer(int answerId) throws SQLException {
+        return reviewers("SELECT DISTINCT reviewer_user FROM cse360reviews WHERE answer_id = ?", answerId);
+    }
+
+    public List<String> reviewersOfQuestion(int questionId) throws SQLException {
+        return reviewers("SELECT DISTINCT r.reviewer_user FROM cse360reviews r "
+                + "JOIN cse360answers a ON a.answer_id = r.answer_id WHERE a.question_id = ?", questionId);
+    }
+
+    private List<String> reviewers(String sql, int id) throws SQLException {
+        List<String> reviewers = new ArrayList<>();
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, id);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                reviewers.add(rs.getString(1));
+            }
+        }
+        return reviewers;
+    }
+
+    // Rebuilds the rows of just these reviewers with one grouped query, e.g. after their reviews were deleted.
+    public void recompute(Collection<String> reviewers) throws SQLException {
+        if (reviewers.isEmpty()) {
+            return;
+        }
+        ScorecardConfig w = config.get();
+        try (PooledConnection conn = pool.borrow()) {
+            Connection c = conn.getConnection();
+            c.setAutoCommit(false);
+            try {
+                Object[] names = reviewers.toArray();
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "DELETE FROM cse360reviewer_scorecards WHERE reviewer_user = ANY(?)")) {
+                    pstmt.setArray(1, c.createArrayOf("VARCHAR", names));
+                    pstmt.executeUpdate();
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(RECOMPUTE_REVIEWERS_SQL)) {
+                    pstmt.setInt(1, w.getRatingWeight());
+                    pstmt.setInt(2, w.getUpvoteWeight());
+                    pstmt.setInt(3, w.getDownvoteWeight());
+                    pstmt.setArray(4, c.createArrayOf("VARCHAR", names));
+                    pstmt.executeUpdate();
+                }
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        }
+    }
+
+    // Recomputes every score from the stored totals with new weights; runs in the caller's transaction.
+    public void rescore(PooledConnection conn, ScorecardConfig w) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("UPDATE cse360reviewer_scorecards SET "
+                     + "score = ? * rating_total + ? * upvote_total - ? * downvote_total")) {
+            pstmt.setInt(1, w.getRatingWeight());
+            pstmt.setInt(2, w.getUpvoteWeight());
+            pstmt.setInt(3, w.getDownvoteWeight());
+            pstmt.executeUpdate();
+        }
+    }
+
+    // ---------------- Full recompute ----------------
+
+    /**
+     * Rebuilds the whole table from the reviews table in one pass. An incremental update
+     * that lands while this runs can be overwritten by the rebuilt rows; the next
+     * recompute picks it up again.
+     *
+     * @return the number of reviewers written
+     */
+    public int recomputeAll() throws SQLException {
+        ScorecardConfig w = config.get();
+        Map<String, long[]> totals = new HashMap<>();
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(STREAM_SQL)) {
+            pstmt.setFetchSize(CHUNK_SIZE);
+            ResultSet rs = pstmt.executeQuery();
+            ForkJoinTask<Map<String, long[]>> summing = null;
+            Chunk chunk = new Chunk(CHUNK_SIZE);
+            while (rs.next()) {
+                chunk.add(rs.getString(1), rs.getInt(2), rs.getInt(3), rs.getInt(4));
+                if (chunk.size == CHUNK_SIZE) {
+                    // Sum this chunk in parallel while the next one is read
+                    if (summing != null) {
+                        merge(totals, summing.join());
+                    }
+                    summing = forkJoin.submit(new SumTask(chunk, 0, chunk.size));
+                    chunk = new Chunk(CHUNK_SIZE);
+                }
+            }
+            if (summing != null) {
+                merge(totals, summing.join());
+            }
+            if (chunk.size > 0) {
+                merge(totals, forkJoin.invoke(new SumTask(chunk, 0, chunk.size)));
+            }
+        }
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try (PooledConnection conn = pool.borrow()) {
+            Connection c = conn.getConnection();
+            c.setAutoCommit(false);
+            try {
+                try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM cse360reviewer_scorecards")) {
+                    pstmt.executeUpdate();
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+                    for (Map.Entry<String, long[]> e : totals.entrySet()) {
+                        long[] t = e.getValue();
+                        pstmt.setString(1, e.getKey());
+                        pstmt.setInt(2, (int) t[0]);
+                        pstmt.setLong(3, t[1]);
+                        pstmt.setLong(4, t[2]);
+                        pstmt.setLong(5, t[3]);
+                        pstmt.setLong(6, w.score(t[1], t[2], t[3]));
+                        pstmt.setTimestamp(7, now);
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        }
+        return totals.size();
+    }
+
+    // The materialized scorecards, best score first.
+    public List<ReviewerScorecard> getScorecards() throws SQLException {
+        List<ReviewerScorecard> list = new ArrayList<>();
+        try (PooledConnection conn = pool.borrow();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT * FROM cse360reviewer_scorecards ORDER BY score DESC, reviewer_user")) {
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                ReviewerScorecard s = new ReviewerScorecard();
+                s.setReviewerUserName(rs.getString("reviewer_user"));
+                s.setReviewCount(rs.getInt("review_count"));
+                s.setRatingTotal(rs.getLong("rating_total"));
+                s.setUpvoteTotal(rs.getLong("upvote_total"));
+                s.setDownvoteTotal(rs.getLong("downvote_total"));
+                s.setScore(rs.getLong("score"));
+                Timestamp ts = rs.getTimestamp("updated_at");
+                if (ts != null) {
+                    s.setUpdatedAt(ts.toLocalDateTime());
+                }
+                list.add(s);
+            }
+        }
+        return list;
+    }
+
+    // {review count, rating total, upvote total, downvote total} per reviewer
+    private static void merge(Map<String, long[]> into, Map<String, long[]> from) {
+        for (Map.Entry<String, long[]> e : from.entrySet()) {
+            long[] t = into.computeIfAbsent(e.getKey(), k -> new long[4]);
+            long[] add = e.getValue();
+            for (int i = 0; i < 4; i++) {
+                t[i] += add[i];
+            }
+        }
+    }
+
+    // Rows read from the reviews stream, column by column.
+    private static final class Chunk {
+        final String[] reviewers;
+        final int[] ratings;
+        final int[] upvotes;
+        final int[] downvotes;
+        int size;
+
+        Chunk(int capacity) {
+            reviewers = new String[capacity];
+            ratings = new int[capacity];
+            upvotes = new int[capacity];
+            downvotes = new int[capacity];
+        }
+
+        void add(String reviewer, int rating, int up, int down) {
+            reviewers[size] = reviewer;
+            ratings[size] = rating;
+            upvotes[size] = up;
+            downvotes[size] = down;
+            size++;
+        }
+    }
+
+    // Sums rows [from, to) of a chunk, splitting in halves down to SPLIT_THRESHOLD rows.
+    private static final class SumTask extends RecursiveTask<Map<String, long[]>> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Chunk chunk; // tasks never leave the pool, so nothing is serialized
+        private final int from;
+        private final int to;
+
+        SumTask(Chunk chunk, int from, int to) {
+            this.chunk = chunk;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<String, long[]> compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                Map<String, long[]> totals = new HashMap<>();
+                for (int i = from; i < to; i++) {
+                    long[] t = totals.computeIfAbsent(chunk.reviewers[i], k -> new long[4]);
+                    t[0]++;
+                    t[1] += chunk.ratings[i];
+                    t[2] += chunk.upvotes[i];
+                    t[3] += chunk.downvotes[i];
+                }
+                return totals;
+            }
+            int mid = (from + to) >>> 1;
+            SumTask left = new SumTask(chunk, from, mid);
+            left.fork();
+            Map<String, long[]> totals = new SumTask(chunk, mid, to).compute();
+            merge(totals, left.join());
+            return totals;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package databasePart1;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over question titles, question text and answer text.
+ * DatabaseHelper builds it once at startup and keeps it up to date from its
+ * create/update/delete methods, so a search never has to scan the tables.
+ *
+ * Every query word is matched as a prefix ("jav" finds "java"), all words must match,
+ * and results are ranked by a TF-IDF style score where title words count the most.
+ */
+public class SearchIndex {
+
+    static final float TITLE_WEIGHT = 3.0f;
+    static final float TEXT_WEIGHT = 1.0f;
+    static final float ANSWER_WEIGHT = 1.0f;
+
+    // Document keys: questions and answers share one id space by tagging the high bits.
+    private static final long ANSWER_TAG = 1L << 32;
+
+    // term -> (document -> weighted term frequency)
+    private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    // document -> its terms, so a document can be removed or re-indexed
+    private final Map<Long, Set<String>> documentTerms = new HashMap<>();
+    private final Map<Integer, Integer> answerToQuestion = new HashMap<>();
+    private final Map<Integer, Set<Integer>> questionToAnswers = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // --------------------- Index maintenance ---------------------
+
+    public void indexQuestion(int questionID, String title, String text) {
+        long doc = questionID;
+        Map<String, Float> terms = new HashMap<>();
+        addTerms(terms, title, TITLE_WEIGHT);
+        addTerms(terms, text, TEXT_WEIGHT);
+        lock.writeLock().lock();
+        try {
+            replaceDocument(doc, terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void indexAnswer(int answerID, int questionID, String text) {
+        long doc = ANSWER_TAG | answerID;
+        Map<String, Float> terms = new HashMap<>();
+        addTerms(terms, text, ANSWER_WEIGHT);
+        lock.writeLock().lock();
+        try {
+            Integer previousQuestion = answerToQuestion.put(answerID, questionID);
+            if (previousQuestion != null && previousQuestion != questionID) {
+                removeAnswerLink(answerID, previousQuestion);
+            }
+            questionToAnswers.computeIfAbsent(questionID, k -> new HashSet<>()).add(answerID);
+            replaceDocument(doc, terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Removes a question and all of its answers (the database deletes them together).
+    public void removeQuestion(int questionID) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(questionID);
+            Set<Integer> answers = questionToAnswers.remove(questionID);
+            if (answers != null) {
+                for (int answerID : answers) {
+                    answerToQuestion.remove(answerID);
+                    removeDocument(ANSWER_TAG | answerID);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAnswer(int answerID) {
+        lock.writeLock().lock();
+        try {
+            Integer questionID = answerToQuestion.remove(answerID);
+            if (questionID != null) {
+                removeAnswerLink(answerID, questionID);
+            }
+            removeDocument(ANSWER_TAG | answerID);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documentTerms.clear();
+            answerToQuestion.clear();
+            questionToAnswers.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeAnswerLink(int answerID, int questionID) {
+        Set<Integer> answers = questionToAnswers.get(questionID);
+        if (answers != null) {
+            answers.remove(answerID);
+            if (answers.isEmpty()) {
+                questionToAnswers.remove(questionID);
+            }
+        }
+    }
+
+    private void replaceDocument(long doc, Map<String, Float> terms) {
+        removeDocument(doc);
+        for (Map.Entry<String, Float> e : terms.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), k -> new HashMap<>()).put(doc, e.getValue());
+        }
+        documentTerms.put(doc, terms.keySet());
+    }
+
+    private void removeDocument(long doc) {
+        Set<String> terms = documentTerms.remove(doc);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Float> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(doc);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    // --------------------- Searching ---------------------
+
+    /**
+     * Returns the IDs of questions whose title, text or answers contain every word of the
+     * query (as a prefix), best match first. A blank query returns an empty list.
+     */
+    public List<Integer> search(String query) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Integer, Float> scores = null;
+        lock.readLock().lock();
+        try {
+            int totalDocs = Math.max(1, documentTerms.size());
+            for (String word : words) {
+                Map<Integer, Float> wordScores = new HashMap<>();
+                // Prefix match: every indexed term starting with the word
+                for (Map<Long, Float> docs : postings.subMap(word, word + Character.MAX_VALUE).values()) {
+                    float idf = (float) Math.log(1.0 + (double) totalDocs / docs.size());
+                    for (Map.Entry<Long, Float> e : docs.entrySet()) {
+                        Integer questionID = questionFor(e.getKey());
+                        if (questionID != null) {
+                            wordScores.merge(questionID, e.getValue() * idf, Float::sum);
+                        }
+                    }
+                }
+                if (scores == null) {
+                    scores = wordScores;
+                } else {
+                    // Every word must match: keep only questions found for all words so far.
+                    Map<Integer, Float> previous = scores;
+                    scores = new HashMap<>();
+                    for (Map.Entry<Integer, Float> e : wordScores.entrySet()) {
+                        Float prior = previous.get(e.getKey());
+                        if (prior != null) {
+                            scores.put(e.getKey(), prior + e.getValue());
+                        }
+                    }
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Map.Entry<Integer, Float>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort((a, b) -> {
+            int byScore = Float.compare(b.getValue(), a.getValue());
+            return byScore != 0 ? byScore : Integer.compare(a.getKey(), b.getKey());
+        });
+        List<Integer> result = new ArrayList<>(ranked.size());
+        for (Map.Entry<Integer, Float> e : ranked) {
+            result.add(e.getKey());
+        }
+        return result;
+    }
+
+    private Integer questionFor(long doc) {
+        if ((doc & ANSWER_TAG) == 0) {
+            return (int) doc;
+        }
+        return answerToQuestion.get((int) (doc & 0xFFFFFFFFL));
+    }
+
+    public int getTermCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getDocumentCount() {
+        lock.readLock().lock();
+        try {
+            return documentTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --------------------- Tokenizing ---------------------
+
+    private static void addTerms(Map<String, Float> terms, String text, float weight) {
+        for (String term : tokenize(text)) {
+            terms.merge(term, weight, Float::sum);
+        }
+    }
+
+    // Splits text into lower-case runs of letters and digits.
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return words;
+    }
+}
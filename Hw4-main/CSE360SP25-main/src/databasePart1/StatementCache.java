@@ -0,0 +1,179 @@
+package databasePart1;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-connection cache of prepared statements keyed by SQL text, with LRU eviction.
+ * Statements handed out are wrappers whose close() clears the parameters and keeps the
+ * real statement for the next caller, so existing try-with-resources code keeps working.
+ * A PooledConnection is only used by one thread at a time, so the cache is not synchronized.
+ */
+public class StatementCache {
+
+    static final int DEFAULT_CAPACITY = 64;
+
+    private final Connection connection;
+    private final int capacity;
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public StatementCache(Connection connection, int capacity) {
+        this.connection = connection;
+        this.capacity = capacity;
+        // accessOrder=true gives least-recently-used iteration order
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public PreparedStatement prepare(String sql) throws SQLException {
+        return prepare(sql, -1);
+    }
+
+    /**
+     * Returns a cached statement for the SQL, preparing it on a miss.
+     * If the same SQL is already open (nested use on one connection), an uncached
+     * statement is returned instead so the two callers do not share parameters.
+     */
+    public PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys < 0 ? sql : autoGeneratedKeys + ":" + sql;
+        CachedStatement cached = statements.get(key);
+        if (cached != null) {
+            if (cached.inUse) {
+                return newStatement(sql, autoGeneratedKeys);
+            }
+            hits.incrementAndGet();
+            cached.inUse = true;
+            return cached.proxy;
+        }
+
+        misses.incrementAndGet();
+        cached = new CachedStatement(newStatement(sql, autoGeneratedKeys));
+        cached.inUse = true;
+        statements.put(key, cached);
+        evictIfNeeded();
+        return cached.proxy;
+    }
+
+    private PreparedStatement newStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        return autoGeneratedKeys < 0
+                ? connection.prepareStatement(sql)
+                : connection.prepareStatement(sql, autoGeneratedKeys);
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, CachedStatement>> it = statements.entrySet().iterator();
+        while (statements.size() > capacity && it.hasNext()) {
+            CachedStatement eldest = it.next().getValue();
+            if (eldest.inUse) {
+                continue; // evicted when the caller closes it
+            }
+            it.remove();
+            eldest.closeQuietly();
+            evictions.incrementAndGet();
+        }
+    }
+
+    // Closes every cached statement, e.g. before the physical connection is closed.
+    public void clear() {
+        for (CachedStatement cached : statements.values()) {
+            cached.closeQuietly();
+        }
+        statements.clear();
+    }
+
+    public int size() {
+        return statements.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    // --------------------- Cached statement wrapper ---------------------
+
+    private final class CachedStatement implements InvocationHandler {
+        private final PreparedStatement delegate;
+        private final PreparedStatement proxy;
+        private boolean inUse;
+
+        CachedStatement(PreparedStatement delegate) {
+            this.delegate = delegate;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class },
+                    this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close")) {
+                returnToCache();
+                return null;
+            }
+            if (name.equals("isClosed")) {
+                return !inUse || delegate.isClosed();
+            }
+            try {
+                return method.invoke(delegate, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void returnToCache() {
+            if (!inUse) {
+                return;
+            }
+            inUse = false;
+            try {
+                // Callers rarely close their ResultSets; release them with the statement.
+                ResultSet rs = delegate.getResultSet();
+                if (rs != null) {
+                    rs.close();
+                }
+                delegate.clearParameters();
+                delegate.clearBatch();
+            } catch (SQLException e) {
+                // A broken statement is dropped rather than reused.
+                statements.values().remove(this);
+                closeQuietly();
+                return;
+            }
+            evictIfNeeded();
+        }
+
+        void closeQuietly() {
+            try {
+                delegate.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Optional write-behind buffer for answer vote counters.
+ * Votes are added to an in-memory delta per answer and flushed periodically as one
+ * JDBC batch inside a single transaction, so a burst of votes on a popular answer
+ * becomes one UPDATE instead of many.
+ *
+ * Readers add the unwritten deltas to the stored counts. To keep them from seeing a
+ * delta both in the table and in memory (or in neither), deltas move between pending
+ * and inFlight under one lock, and readConsistent retries a read that overlapped a
+ * flush's commit.
+ */
+public final class VoteAggregator implements AutoCloseable {
+
+    private static final String FLUSH_SQL =
+            "UPDATE cse360answers SET upvotes = upvotes + ?, downvotes = downvotes + ? WHERE answer_id = ?";
+
+    private final ConnectionPool pool;
+    // guards pending and inFlight
+    private final Object deltaLock = new Object();
+    // answer_id -> {upvote delta, downvote delta}; arrays are never mutated after insertion
+    private final Map<Integer, int[]> pending = new HashMap<>();
+    // deltas taken by the flush in progress but not yet committed
+    private final Map<Integer, int[]> inFlight = new HashMap<>();
+    // Odd from just before a flush commits until its deltas have left inFlight and the
+    // caches have been told; incremented twice per flush.
+    private volatile long flushSeq;
+    private final ScheduledExecutorService flusher;
+    // told about every answer whose stored counts a flush changed
+    private final IntConsumer onAnswerWritten;
+
+    private final AtomicLong votesReceived = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+
+    public VoteAggregator(ConnectionPool pool, long flushIntervalMillis) {
+        this(pool, flushIntervalMillis, answerId -> { });
+    }
+
+    public VoteAggregator(ConnectionPool pool, long flushIntervalMillis, IntConsumer onAnswerWritten) {
+        this.pool = pool;
+        this.onAnswerWritten = onAnswerWritten;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "vote-aggregator");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void add(int answerId, int upDelta, int downDelta) {
+        if (upDelta == 0 && downDelta == 0) {
+            return;
+        }
+        votesReceived.incrementAndGet();
+        synchronized (deltaLock) {
+            pending.merge(answerId, new int[] { upDelta, downDelta }, VoteAggregator::sum);
+        }
+    }
+
+    /**
+     * Votes not yet written for an answer, so reads can include them. Returns {0, 0} if none.
+     * Only meaningful together with counts read inside the same readConsistent call.
+     */
+    public int[] pendingFor(int answerId) {
+        synchronized (deltaLock) {
+            int[] d = pending.get(answerId);
+            int[] f = inFlight.get(answerId);
+            int up = (d == null ? 0 : d[0]) + (f == null ? 0 : f[0]);
+            int down = (d == null ? 0 : d[1]) + (f == null ? 0 : f[1]);
+            return new int[] { up, down };
+        }
+    }
+
+    /**
+     * Runs a read that combines stored counts with pendingFor, again if a flush committed
+     * while it ran, so the result never counts a delta twice or not at all. A read that
+     * starts during a commit waits for the flush to finish.
+     */
+    public <T> T readConsistent(Supplier<T> read) {
+        while (true) {
+            long seq = flushSeq;
+            if ((seq & 1) != 0) {
+                synchronized (this) {
+                    // flush() holds this monitor until the commit is fully visible
+                }
+                continue;
+            }
+            T value = read.get();
+            if (flushSeq == seq) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Writes all pending deltas in one transaction. All pending deltas move to inFlight
+     * at once, so votes arriving during a flush simply start a new entry.
+     * If the write fails the deltas are put back for the next flush.
+     */
+    public synchronized void flush() throws SQLException {
+        List<Map.Entry<Integer, int[]>> batch = new ArrayList<>();
+        synchronized (deltaLock) {
+            for (Map.Entry<Integer, int[]> e : pending.entrySet()) {
+                batch.add(Map.entry(e.getKey(), e.getValue()));
+            }
+            inFlight.putAll(pending);
+            pending.clear();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try (PooledConnection conn = pool.borrow()) {
+            Connection c = conn.getConnection();
+            c.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(FLUSH_SQL)) {
+                for (Map.Entry<Integer, int[]> e : batch) {
+                    pstmt.setInt(1, e.getValue()[0]);
+                    pstmt.setInt(2, e.getValue()[1]);
+                    pstmt.setInt(3, e.getKey());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                flushSeq++; // odd: readers from here on retry or wait
+                try {
+                    c.commit();
+                    for (Map.Entry<Integer, int[]> e : batch) {
+                        onAnswerWritten.accept(e.getKey());
+                    }
+                    synchronized (deltaLock) {
+                        inFlight.clear();
+                    }
+                } finally {
+                    flushSeq++;
+                }
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            synchronized (deltaLock) {
+                for (Map.Entry<Integer, int[]> entry : batch) {
+                    pending.merge(entry.getKey(), entry.getValue(), VoteAggregator::sum);
+                }
+                inFlight.clear();
+            }
+            throw e;
+        }
+        flushCount.incrementAndGet();
+        rowsWritten.addAndGet(batch.size());
+    }
+
+    // Stops the background flush and writes whatever is still pending.
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+            flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (deltaLock) {
+            return pending.size();
+        }
+    }
+
+    private static int[] sum(int[] a, int[] b) {
+        return new int[] { a[0] + b[0], a[1] + b[1] };
+    }
+
+    public long getVotesReceived() {
+        return votesReceived.get();
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+}